@@ -0,0 +1,74 @@
+package com.tractive.pet_tracker;
+
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.services.OutsideZoneCounters;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Starts the application without a web server against a private in-memory H2 database seeded with
+ * {@code pets} pets: half cats and half dogs, about 80% inside the zone, about three pets per owner.
+ */
+public final class BenchmarkContext {
+    private BenchmarkContext() { }
+
+    public static ConfigurableApplicationContext start(int pets) {
+        return start(pets, "jdbc:h2:mem:pet_tracker_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    /**
+     * Same as {@link #start(int)} against the database at {@code datasourceUrl}, whose tables are recreated.
+     * They are left in place when the context is closed, so a file database can be reopened afterward.
+     */
+    public static ConfigurableApplicationContext start(int pets, String datasourceUrl) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PetTrackerApplication.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .run(
+                "--spring.profiles.active=benchmark",
+                "--spring.datasource.url=" + datasourceUrl,
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--pet-tracker.telemetry.directory=" + System.getProperty("java.io.tmpdir") + "/pet-tracker-benchmark/" + UUID.randomUUID(),
+                "--logging.level.root=WARN"
+            );
+
+        seed(context.getBean(JdbcTemplate.class), pets);
+        context.getBean(OutsideZoneCounters.class).reconcile();
+
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int pets) {
+        Random random = new Random(42);
+        List<Object[]> petRows = new ArrayList<>(pets);
+        List<Object[]> catRows = new ArrayList<>(pets / 2 + 1);
+        List<Object[]> dogRows = new ArrayList<>(pets / 2 + 1);
+
+        for (long id = 1; id <= pets; id++) {
+            boolean isCat = id % 2 == 1;
+            petRows.add(new Object[] {id, isCat ? "CAT" : "DOG", 1 + random.nextInt(pets / 3 + 1), random.nextInt(10) < 8});
+
+            if (isCat) {
+                CatTrackerType trackerType = CatTrackerType.values()[random.nextInt(CatTrackerType.values().length)];
+                catRows.add(new Object[] {id, trackerType.name(), random.nextInt(20) == 0});
+            } else {
+                DogTrackerType trackerType = DogTrackerType.values()[random.nextInt(DogTrackerType.values().length)];
+                dogRows.add(new Object[] {id, trackerType.name()});
+            }
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO pet (id, pet_type, owner_id, in_zone) VALUES (?, ?, ?, ?)", petRows);
+        jdbcTemplate.batchUpdate("INSERT INTO cat (id, tracker_type, lost_tracker) VALUES (?, ?, ?)", catRows);
+        jdbcTemplate.batchUpdate("INSERT INTO dog (id, tracker_type) VALUES (?, ?)", dogRows);
+        jdbcTemplate.execute("ALTER SEQUENCE pet_seq RESTART WITH " + (pets + 1));
+    }
+}
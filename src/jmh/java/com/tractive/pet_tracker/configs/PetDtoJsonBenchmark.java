@@ -0,0 +1,68 @@
+package com.tractive.pet_tracker.configs;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tractive.pet_tracker.models.dtos.CatDto;
+import com.tractive.pet_tracker.models.dtos.DogDto;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polymorphic (de)serialization of {@link PetDto} with the application's {@link ObjectMapperConfig}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PetDtoJsonBenchmark {
+    private ObjectWriter petWriter;
+    private ObjectReader petReader;
+
+    private PetDto catDto;
+    private PetDto dogDto;
+    private byte[] catJson;
+    private byte[] dogJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapperConfig().objectMapper();
+        petWriter = objectMapper.writerFor(PetDto.class);
+        petReader = objectMapper.readerFor(PetDto.class);
+
+        catDto = CatDto.builder().id(1L).ownerId(10L).inZone(true).trackerType(CatTrackerType.BIG).lostTracker(false).build();
+        dogDto = DogDto.builder().id(2L).ownerId(20L).inZone(false).trackerType(DogTrackerType.MEDIUM).build();
+
+        // Lower-case enums exercise the case-insensitive features enabled by ObjectMapperConfig
+        catJson = """
+            {"petType":"cat","ownerId":10,"inZone":true,"trackerType":"big","lostTracker":false}
+            """.getBytes();
+        dogJson = """
+            {"petType":"DOG","ownerId":20,"inZone":false,"trackerType":"medium"}
+            """.getBytes();
+    }
+
+    @Benchmark
+    public byte[] serializeCat() throws IOException {
+        return petWriter.writeValueAsBytes(catDto);
+    }
+
+    @Benchmark
+    public byte[] serializeDog() throws IOException {
+        return petWriter.writeValueAsBytes(dogDto);
+    }
+
+    @Benchmark
+    public PetDto deserializeCat() throws IOException {
+        return petReader.readValue(catJson);
+    }
+
+    @Benchmark
+    public PetDto deserializeDog() throws IOException {
+        return petReader.readValue(dogJson);
+    }
+}
@@ -0,0 +1,68 @@
+package com.tractive.pet_tracker.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tractive.pet_tracker.models.dtos.CatDto;
+import com.tractive.pet_tracker.models.dtos.DogDto;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.dtos.PetPageDto;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a page of {@code pageSize} pets as {@link PetPageDto}, against the anonymous {@link PageImpl}
+ * that {@code getAllPets} used to return. The payload size of both is printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class PetPageJsonBenchmark {
+    @Param({"20", "500"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter petPageWriter;
+
+    private Page<PetDto> page;
+    private PetPageDto petPage;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapperConfig().objectMapper();
+        petPageWriter = objectMapper.writerFor(PetPageDto.class);
+
+        List<PetDto> content = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            content.add(id % 2 == 0
+                ? DogDto.builder().id(id).ownerId(id * 10).inZone(true).trackerType(DogTrackerType.MEDIUM).build()
+                : CatDto.builder().id(id).ownerId(id * 10).inZone(false).trackerType(CatTrackerType.BIG).lostTracker(false).build());
+        }
+
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 100_000) {};
+        petPage = new PetPageDto(content, page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+
+        System.out.printf(
+            "%nPayload for %d pets: %d bytes as Page, %d bytes as PetPageDto%n",
+            pageSize, serializePage().length, serializePetPage().length
+        );
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializePetPage() throws IOException {
+        return petPageWriter.writeValueAsBytes(petPage);
+    }
+}
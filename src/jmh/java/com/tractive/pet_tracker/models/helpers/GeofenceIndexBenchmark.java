@@ -0,0 +1,100 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.dtos.CircleZoneDto;
+import com.tractive.pet_tracker.models.dtos.CoordinateDto;
+import com.tractive.pet_tracker.models.dtos.PolygonZoneDto;
+import com.tractive.pet_tracker.models.dtos.SafeZoneDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-zone evaluations against {@code zones} safe zones of 20k owners spread over Central Europe, half
+ * circles and half 12-vertex polygons. Points are scattered around their owner's zones, so most of them
+ * are tested against candidate zones, both inside and outside. Reported per single evaluation on one thread; run with
+ * {@code -prof gc} to check that evaluations do not allocate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class GeofenceIndexBenchmark {
+    private static final int OWNERS = 20_000;
+    private static final int POINTS = 4096;
+
+    @Param({"10000", "50000"})
+    public int zones;
+
+    @Param({"0.01", "0.05"})
+    public double cellSize;
+
+    private GeofenceIndex index;
+    private long[] owners;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<SafeZoneDto> safeZones = new ArrayList<>(zones);
+        double[][] centers = new double[OWNERS][];
+
+        for (int owner = 0; owner < OWNERS; owner++) {
+            centers[owner] = new double[] {46 + random.nextDouble() * 6, 6 + random.nextDouble() * 12};
+        }
+
+        for (int zone = 0; zone < zones; zone++) {
+            int owner = zone % OWNERS;
+            double lat = centers[owner][0] + random.nextGaussian() * 0.005;
+            double lon = centers[owner][1] + random.nextGaussian() * 0.005;
+            double radius = 100 + random.nextDouble() * 400;
+
+            if (zone % 2 == 0) {
+                safeZones.add(new CircleZoneDto((long) zone, owner + 1L, new CoordinateDto(lat, lon), radius));
+            } else {
+                safeZones.add(new PolygonZoneDto((long) zone, owner + 1L, polygon(random, lat, lon, radius)));
+            }
+        }
+
+        index = GeofenceIndex.of(safeZones, cellSize);
+
+        owners = new long[POINTS];
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            int owner = random.nextInt(OWNERS);
+            owners[i] = owner + 1L;
+            latitudes[i] = centers[owner][0] + random.nextGaussian() * 0.004;
+            longitudes[i] = centers[owner][1] + random.nextGaussian() * 0.006;
+        }
+    }
+
+    private static List<CoordinateDto> polygon(Random random, double lat, double lon, double radius) {
+        List<CoordinateDto> vertices = new ArrayList<>(12);
+        for (int i = 0; i < 12; i++) {
+            double angle = 2 * Math.PI * i / 12;
+            double distance = radius * (0.6 + random.nextDouble() * 0.4) / 111_320.0;
+            vertices.add(new CoordinateDto(
+                lat + distance * Math.sin(angle),
+                lon + distance * Math.cos(angle) / Math.cos(Math.toRadians(lat))
+            ));
+        }
+
+        return vertices;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int contains() {
+        int inside = 0;
+        for (int i = 0; i < POINTS; i++) {
+            if (index.contains(owners[i], latitudes[i], longitudes[i])) {
+                inside++;
+            }
+        }
+
+        return inside;
+    }
+}
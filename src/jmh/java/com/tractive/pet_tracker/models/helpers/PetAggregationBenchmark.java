@@ -0,0 +1,68 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.dtos.PetAggregationDto;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.enums.PetDimension;
+import com.tractive.pet_tracker.models.events.PetState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregations over {@code pets} pets of 100k owners in {@link PetColumns}, scanned in parallel on the common
+ * fork-join pool. Compare with {@link PetColumnsBenchmark} for the cost of the grouping on top of a plain scan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PetAggregationBenchmark {
+    private static final CatTrackerType[] CAT_TRACKER_TYPES = CatTrackerType.values();
+    private static final DogTrackerType[] DOG_TRACKER_TYPES = DogTrackerType.values();
+
+    @Param({"1000000", "10000000"})
+    public int pets;
+
+    private PetColumns columns;
+    private PetAggregation bySpeciesTrackerTypeAndZone;
+    private PetAggregation lostTrackersByTrackerType;
+    private PetAggregation byOwnerBucket;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        columns = new PetColumns(pets + 1);
+
+        for (long id = 1; id <= pets; id++) {
+            long ownerId = 1 + random.nextInt(100_000);
+            boolean inZone = random.nextInt(10) != 0;
+
+            columns.put(random.nextBoolean()
+                ? new PetState.CatState(id, ownerId, inZone, CAT_TRACKER_TYPES[random.nextInt(CAT_TRACKER_TYPES.length)], random.nextInt(100) == 0)
+                : new PetState.DogState(id, ownerId, inZone, DOG_TRACKER_TYPES[random.nextInt(DOG_TRACKER_TYPES.length)]));
+        }
+
+        bySpeciesTrackerTypeAndZone = new PetAggregation(
+            List.of(PetDimension.PET_TYPE, PetDimension.TRACKER_TYPE, PetDimension.IN_ZONE), null, null, null, null, null, 1
+        );
+        lostTrackersByTrackerType = new PetAggregation(List.of(PetDimension.TRACKER_TYPE), null, null, null, true, null, 1);
+        byOwnerBucket = new PetAggregation(List.of(PetDimension.OWNER_ID, PetDimension.IN_ZONE), null, null, null, null, null, 100);
+    }
+
+    @Benchmark
+    public PetAggregationDto bySpeciesTrackerTypeAndZone() {
+        return bySpeciesTrackerTypeAndZone.apply(columns);
+    }
+
+    @Benchmark
+    public PetAggregationDto lostTrackersByTrackerType() {
+        return lostTrackersByTrackerType.apply(columns);
+    }
+
+    @Benchmark
+    public PetAggregationDto byOwnerBucket() {
+        return byOwnerBucket.apply(columns);
+    }
+}
@@ -0,0 +1,103 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full scans over {@code pets} pets in {@link PetColumns}, with 1% of the ids deleted and 10% of the pets
+ * outside their zone. {@code outsideZoneByBits} only visits the tracker codes of pets outside the zone,
+ * {@code outsideZoneBySlots} reads every slot; compare the reported time with the {@code memoryBytes} of the
+ * columns to see how close a scan gets to memory bandwidth. The {@code filter} benchmarks look up a page of
+ * 100 ids with {@link PetFilter} in the middle of the fleet, for a common match and for a rare one (1% of the cats
+ * have a lost tracker).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PetColumnsBenchmark {
+    private static final CatTrackerType[] CAT_TRACKER_TYPES = CatTrackerType.values();
+    private static final DogTrackerType[] DOG_TRACKER_TYPES = DogTrackerType.values();
+
+    @Param({"1000000", "10000000"})
+    public int pets;
+
+    private PetColumns columns;
+    private PetFilter outsideZoneWithBigTracker;
+    private PetFilter lostTrackers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        columns = new PetColumns(pets + 1);
+
+        for (long id = 1; id <= pets; id++) {
+            long ownerId = random.nextInt(pets / 2 + 1);
+            boolean inZone = random.nextInt(10) != 0;
+
+            columns.put(random.nextBoolean()
+                ? new PetState.CatState(id, ownerId, inZone, CAT_TRACKER_TYPES[random.nextInt(CAT_TRACKER_TYPES.length)], random.nextInt(100) == 0)
+                : new PetState.DogState(id, ownerId, inZone, DOG_TRACKER_TYPES[random.nextInt(DOG_TRACKER_TYPES.length)]));
+        }
+        for (long id = 1; id <= pets; id += 100) {
+            columns.remove(id);
+        }
+
+        outsideZoneWithBigTracker = new PetFilter(null, "big", false, null);
+        lostTrackers = new PetFilter("cat", null, false, true);
+    }
+
+    @Benchmark
+    public long[] filterOutsideZoneWithBigTracker() {
+        return outsideZoneWithBigTracker.next(columns, pets / 2, 100);
+    }
+
+    @Benchmark
+    public long[] filterLostTrackersOutsideZone() {
+        return lostTrackers.next(columns, pets / 2, 100);
+    }
+
+    @Benchmark
+    public int[] outsideZoneByBits() {
+        int[] counts = new int[PetColumns.CODES];
+
+        for (int word = 0, words = columns.words(); word < words; word++) {
+            long outside = columns.presentWord(word) & ~columns.inZoneWord(word);
+
+            while (outside != 0) {
+                counts[columns.trackerCode((word << 6) + Long.numberOfTrailingZeros(outside))]++;
+                outside &= outside - 1;
+            }
+        }
+
+        return counts;
+    }
+
+    @Benchmark
+    public int[] outsideZoneBySlots() {
+        int[] counts = new int[PetColumns.CODES];
+
+        for (int slot = 0, slots = columns.slots(); slot < slots; slot++) {
+            if (!columns.inZone(slot)) {
+                counts[columns.trackerCode(slot)]++;
+            }
+        }
+
+        return counts;
+    }
+
+    @Benchmark
+    public long ownerIdSum() {
+        long sum = 0;
+
+        for (int slot = 0, slots = columns.slots(); slot < slots; slot++) {
+            sum += columns.ownerId(slot);
+        }
+
+        return sum;
+    }
+}
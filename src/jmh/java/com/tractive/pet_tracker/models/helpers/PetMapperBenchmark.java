@@ -0,0 +1,148 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.dtos.CatDto;
+import com.tractive.pet_tracker.models.dtos.DogDto;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.entities.Cat;
+import com.tractive.pet_tracker.models.entities.Dog;
+import com.tractive.pet_tracker.models.entities.Pet;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link PetMapper} with the ModelMapper configuration it replaced. The {@code timed} benchmarks
+ * record into a registry with the percentiles configured as in the application, which shows the cost of
+ * the {@code pet.mapper} timer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PetMapperBenchmark {
+    private PetMapper petMapper;
+    private PetMapper timedPetMapper;
+    private ModelMapper modelMapper;
+
+    private Cat cat;
+    private Dog dog;
+    private CatDto catDto;
+    private DogDto dogDto;
+
+    @Setup
+    public void setUp() {
+        petMapper = new PetMapper();
+        timedPetMapper = new PetMapper(percentileRegistry());
+        modelMapper = legacyModelMapper();
+
+        cat = Cat.builder().id(1L).ownerId(10L).inZone(true).trackerType(CatTrackerType.BIG).lostTracker(false).build();
+        dog = Dog.builder().id(2L).ownerId(20L).inZone(false).trackerType(DogTrackerType.MEDIUM).build();
+        catDto = CatDto.builder().ownerId(10L).inZone(false).trackerType(CatTrackerType.SMALL).lostTracker(true).build();
+        dogDto = DogDto.builder().ownerId(20L).inZone(true).trackerType(DogTrackerType.BIG).build();
+    }
+
+    @Benchmark
+    public PetDto catToDto() {
+        return petMapper.mapEntityToDto(cat);
+    }
+
+    @Benchmark
+    public PetDto dogToDto() {
+        return petMapper.mapEntityToDto(dog);
+    }
+
+    @Benchmark
+    public Pet catDtoToEntity() {
+        return petMapper.mapDtoToEntity(catDto);
+    }
+
+    @Benchmark
+    public Pet dogDtoToEntity() {
+        return petMapper.mapDtoToEntity(dogDto);
+    }
+
+    @Benchmark
+    public Cat catDtoOntoEntity() {
+        petMapper.mapDtoToEntity(catDto, cat);
+        return cat;
+    }
+
+    @Benchmark
+    public PetDto timedCatToDto() {
+        return timedPetMapper.mapEntityToDto(cat);
+    }
+
+    @Benchmark
+    public Pet timedCatDtoToEntity() {
+        return timedPetMapper.mapDtoToEntity(catDto);
+    }
+
+    @Benchmark
+    public PetDto modelMapperCatToDto() {
+        return modelMapper.map(cat, CatDto.class);
+    }
+
+    @Benchmark
+    public PetDto modelMapperDogToDto() {
+        return modelMapper.map(dog, DogDto.class);
+    }
+
+    @Benchmark
+    public Pet modelMapperCatDtoToEntity() {
+        return modelMapper.map(catDto, Cat.class);
+    }
+
+    @Benchmark
+    public Pet modelMapperDogDtoToEntity() {
+        return modelMapper.map(dogDto, Dog.class);
+    }
+
+    @Benchmark
+    public Cat modelMapperCatDtoOntoEntity() {
+        modelMapper.map(catDto, cat);
+        return cat;
+    }
+
+    private static SimpleMeterRegistry percentileRegistry() {
+        var registry = new SimpleMeterRegistry();
+
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                    .percentiles(0.5, 0.99, 0.999)
+                    .build()
+                    .merge(config);
+            }
+        });
+
+        return registry;
+    }
+
+    /**
+     * The ModelMapper configuration the application used before {@link PetMapper} became hand-written
+     */
+    private static ModelMapper legacyModelMapper() {
+        var modelMapper = new ModelMapper();
+
+        modelMapper.getConfiguration()
+                .setAmbiguityIgnored(true)
+                .setFieldMatchingEnabled(true)
+                .setMatchingStrategy(MatchingStrategies.STRICT)
+                .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PRIVATE);
+
+        modelMapper.typeMap(CatDto.class, Cat.class)
+            .addMappings(mapping -> mapping.skip(Cat::setId));
+        modelMapper.typeMap(DogDto.class, Dog.class)
+            .addMappings(mapping -> mapping.skip(Dog::setId));
+
+        return modelMapper;
+    }
+}
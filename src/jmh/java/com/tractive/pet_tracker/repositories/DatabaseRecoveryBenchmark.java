@@ -0,0 +1,86 @@
+package com.tractive.pet_tracker.repositories;
+
+import com.tractive.pet_tracker.BenchmarkContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time until a file-backed database of {@code pets} pets is serviceable again after an unclean stop. Before
+ * each invocation 10k pets are moved in single-row commits and the database is stopped with
+ * {@code SHUTDOWN IMMEDIATELY}, which leaves the file as a killed process would. The invocation reopens the
+ * file and reads every pet with the query that loads the fleet snapshot at startup.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, batchSize = 1)
+@Measurement(iterations = 5, batchSize = 1)
+public class DatabaseRecoveryBenchmark {
+    private static final int WRITES_BEFORE_CRASH = 10_000;
+
+    @Param({"100000", "1000000"})
+    public int pets;
+
+    private Path directory;
+    private String url;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws IOException {
+        directory = Files.createTempDirectory("database-recovery-benchmark");
+        url = "jdbc:h2:file:" + directory.resolve("pet_tracker_db") + ";WRITE_DELAY=500;DB_CLOSE_ON_EXIT=FALSE";
+        BenchmarkContext.start(pets, url).close();
+    }
+
+    @Setup(Level.Invocation)
+    public void crash() throws SQLException {
+        Connection writer = connection != null ? connection : DriverManager.getConnection(url, "sa", "");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        try (PreparedStatement update = writer.prepareStatement("UPDATE pet SET in_zone = NOT in_zone WHERE id = ?")) {
+            for (int i = 0; i < WRITES_BEFORE_CRASH; i++) {
+                update.setLong(1, 1 + random.nextInt(pets));
+                update.executeUpdate();
+            }
+        }
+        try (Statement statement = writer.createStatement()) {
+            statement.execute("SHUTDOWN IMMEDIATELY");
+        }
+        connection = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws SQLException, IOException {
+        if (connection != null) {
+            connection.close();
+        }
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long recover() throws SQLException {
+        connection = DriverManager.getConnection(url, "sa", "");
+        long sum = 0;
+
+        try (Statement statement = connection.createStatement();
+             ResultSet states = statement.executeQuery(PetRepositoryCustomImpl.SELECT_STATES)) {
+            while (states.next()) {
+                sum += states.getLong(1);
+            }
+        }
+
+        return sum;
+    }
+}
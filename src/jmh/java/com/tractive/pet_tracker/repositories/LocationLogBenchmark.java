@@ -0,0 +1,70 @@
+package com.tractive.pet_tracker.repositories;
+
+import com.tractive.pet_tracker.models.projections.LocationFix;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest rate of the {@link LocationLog}: every invocation appends one million fixes of 10k pets, in
+ * batches of {@code batchSize}, to a fresh log, so the disk usage stays bounded at 32 MiB per invocation.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+public class LocationLogBenchmark {
+    private static final int FIXES = 1_000_000;
+    private static final int PETS = 10_000;
+
+    @Param({"100", "10000"})
+    public int batchSize;
+
+    private List<List<LocationFix>> batches;
+    private Path directory;
+    private LocationLog locationLog;
+
+    @Setup(Level.Trial)
+    public void createFixes() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        batches = new ArrayList<>(FIXES / batchSize);
+
+        for (int from = 0; from < FIXES; from += batchSize) {
+            List<LocationFix> batch = new ArrayList<>(batchSize);
+            for (int i = from; i < from + batchSize; i++) {
+                batch.add(new LocationFix(
+                    1 + random.nextInt(PETS), 1_700_000_000_000L + i, random.nextDouble(-90, 90), random.nextDouble(-180, 180)
+                ));
+            }
+            batches.add(batch);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void openLog() throws IOException {
+        directory = Files.createTempDirectory("location-log-benchmark");
+        locationLog = new LocationLog(directory, FIXES, 1);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteLog() throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long appendMillionFixes() {
+        for (List<LocationFix> batch : batches) {
+            locationLog.appendAll(batch);
+        }
+
+        return locationLog.size();
+    }
+}
@@ -0,0 +1,75 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.BenchmarkContext;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateResultDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained state updates against the file-backed H2 database of the {@code durable} profile, in batches of
+ * {@code batchSize} pets out of 100k. A {@code writeDelay} of 0 writes every commit to the file before it
+ * returns, larger delays let H2 gather the commits of that many milliseconds into one write.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DurableWriteBenchmark {
+    private static final int PETS = 100_000;
+
+    @Param({"0", "500"})
+    public int writeDelay;
+
+    @Param({"1", "100"})
+    public int batchSize;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private PetTrackerService petTrackerService;
+    private List<PetStateUpdateDto> goOutside;
+    private List<PetStateUpdateDto> comeBack;
+    private boolean outside;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("durable-write-benchmark");
+        context = BenchmarkContext.start(
+            PETS,
+            "jdbc:h2:file:" + directory.resolve("pet_tracker_db") + ";WRITE_DELAY=" + writeDelay + ";DB_CLOSE_ON_EXIT=FALSE"
+        );
+        petTrackerService = context.getBean(PetTrackerService.class);
+        goOutside = updates(false);
+        comeBack = updates(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<PetStateUpdateResultDto> updatePetStates() {
+        outside = !outside;
+        return petTrackerService.updatePetStates(outside ? goOutside : comeBack);
+    }
+
+    private List<PetStateUpdateDto> updates(boolean inZone) {
+        List<PetStateUpdateDto> updates = new ArrayList<>(batchSize);
+        for (long id = 1; id <= batchSize; id++) {
+            updates.add(new PetStateUpdateDto(id, inZone, null));
+        }
+
+        return updates;
+    }
+}
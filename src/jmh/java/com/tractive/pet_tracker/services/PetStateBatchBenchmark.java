@@ -0,0 +1,59 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.BenchmarkContext;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateResultDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch state updates of 1k, 10k and 100k pets through {@link PetTrackerService#updatePetStates(List)}.
+ * Every invocation flips the zone state of all pets, so each one results in real UPDATE statements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PetStateBatchBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private PetTrackerService petTrackerService;
+    private List<PetStateUpdateDto> goOutside;
+    private List<PetStateUpdateDto> comeBack;
+    private boolean outside;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(batchSize);
+        petTrackerService = context.getBean(PetTrackerService.class);
+        goOutside = updates(false);
+        comeBack = updates(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PetStateUpdateResultDto> updatePetStates() {
+        outside = !outside;
+        return petTrackerService.updatePetStates(outside ? goOutside : comeBack);
+    }
+
+    private List<PetStateUpdateDto> updates(boolean inZone) {
+        List<PetStateUpdateDto> updates = new ArrayList<>(batchSize);
+        for (long id = 1; id <= batchSize; id++) {
+            updates.add(new PetStateUpdateDto(id, inZone, null));
+        }
+
+        return updates;
+    }
+}
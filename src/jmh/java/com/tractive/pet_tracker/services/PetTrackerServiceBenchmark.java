@@ -0,0 +1,75 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.BenchmarkContext;
+import com.tractive.pet_tracker.models.dtos.PetCursorPageDto;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.dtos.PetPageDto;
+import com.tractive.pet_tracker.models.dtos.PetsOutsideZoneDto;
+import com.tractive.pet_tracker.models.helpers.PetCursor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of {@link PetTrackerService} against an in-memory H2 database
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class PetTrackerServiceBenchmark {
+    @Param({"1000", "100000"})
+    public int pets;
+
+    @Param({"20", "500"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private PetTrackerService petTrackerService;
+    private String lastPageCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(pets);
+        petTrackerService = context.getBean(PetTrackerService.class);
+        // Seeded ids are dense, so this cursor points at the last full page
+        lastPageCursor = PetCursor.encode(pets - pageSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PetDto getPetById() {
+        return petTrackerService.getPetById(ThreadLocalRandom.current().nextLong(1, pets + 1));
+    }
+
+    @Benchmark
+    public PetPageDto getAllPetsFirstPage() {
+        return petTrackerService.getAllPets(PageRequest.of(0, pageSize));
+    }
+
+    @Benchmark
+    public PetPageDto getAllPetsLastPage() {
+        return petTrackerService.getAllPets(PageRequest.of(pets / pageSize - 1, pageSize));
+    }
+
+    @Benchmark
+    public PetCursorPageDto getPetsAfterFirstPage() {
+        return petTrackerService.getPetsAfter(null, pageSize);
+    }
+
+    @Benchmark
+    public PetCursorPageDto getPetsAfterDeepCursor() {
+        return petTrackerService.getPetsAfter(lastPageCursor, pageSize);
+    }
+
+    @Benchmark
+    public PetsOutsideZoneDto countPetsOutsideZoneGroupByType() {
+        return petTrackerService.countPetsOutsideZoneGroupByType();
+    }
+}
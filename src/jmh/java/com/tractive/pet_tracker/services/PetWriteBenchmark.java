@@ -0,0 +1,75 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.BenchmarkContext;
+import com.tractive.pet_tracker.models.dtos.DogDto;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.entities.Pet;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.helpers.PetMapper;
+import com.tractive.pet_tracker.repositories.PetRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single pet updates and deletes through {@link PetTrackerService}, next to the entity preload they
+ * replaced ({@code findById} followed by {@code save} or {@code delete}). Delete benchmarks create the
+ * pet they delete, so only their difference is meaningful.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PetWriteBenchmark {
+    private static final int PETS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private PetTrackerService petTrackerService;
+    private PetRepository petRepository;
+    private PetMapper petMapper;
+
+    private PetDto outside;
+    private PetDto inside;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(PETS);
+        petTrackerService = context.getBean(PetTrackerService.class);
+        petRepository = context.getBean(PetRepository.class);
+        petMapper = context.getBean(PetMapper.class);
+
+        outside = DogDto.builder().ownerId(7L).inZone(false).trackerType(DogTrackerType.BIG).build();
+        inside = DogDto.builder().ownerId(7L).inZone(true).trackerType(DogTrackerType.SMALL).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PetDto updatePet() {
+        flip = !flip;
+        return petTrackerService.updatePet(2L, flip ? outside : inside);
+    }
+
+    @Benchmark
+    public PetDto updatePetWithPreload() {
+        flip = !flip;
+        Pet pet = petRepository.findById(2L).orElseThrow();
+        petMapper.mapDtoToEntity(flip ? outside : inside, pet);
+        return petMapper.mapEntityToDto(petRepository.save(pet));
+    }
+
+    @Benchmark
+    public void createAndDeletePet() {
+        petTrackerService.deletePet(petTrackerService.createPet(outside).getId());
+    }
+
+    @Benchmark
+    public void createAndDeletePetWithPreload() {
+        long id = petTrackerService.createPet(outside).getId();
+        petRepository.delete(petRepository.findById(id).orElseThrow());
+    }
+}
@@ -0,0 +1,70 @@
+package com.tractive.pet_tracker.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pet tracker started as a child process, stopped gracefully when closed
+ */
+final class ApplicationProcess implements AutoCloseable {
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    private final List<String> command;
+    private final long startNanos;
+    private final Process process;
+
+    private ApplicationProcess(List<String> command) throws IOException {
+        this.command = command;
+        this.startNanos = System.nanoTime();
+        this.process = new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+    }
+
+    static ApplicationProcess start(List<String> command) throws IOException {
+        return new ApplicationProcess(command);
+    }
+
+    /**
+     * Polls the {@code uri} until it answers with 2xx
+     *
+     * @return the milliseconds from the start of the process until the answer
+     *
+     * @throws IllegalStateException if the process exits or there is no answer within the {@code timeout}
+     */
+    long awaitAnswer(HttpClient httpClient, URI uri, Duration timeout) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(1)).GET().build();
+        long deadline = startNanos + timeout.toNanos();
+
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The application exited with " + process.exitValue() + ": " + command);
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(POLL_INTERVAL);
+        }
+
+        throw new IllegalStateException("No answer from " + uri + " within " + timeout + ": " + command);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
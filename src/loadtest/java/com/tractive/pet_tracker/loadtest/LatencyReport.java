@@ -0,0 +1,134 @@
+package com.tractive.pet_tracker.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts per {@link Operation}. Latencies are recorded in microseconds with
+ * three significant digits, which keeps recording lock-free and the percentiles exact to 0.1%.
+ */
+final class LatencyReport {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> dropped = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+            dropped.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Records a completed request, successful or not
+     *
+     * @param operation the kind of request
+     * @param latencyNanos the time from the scheduled start of the request until its response
+     * @param success whether the response had a 2xx status
+     */
+    void record(Operation operation, long latencyNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        latencies.get(operation).recordValue(micros);
+
+        if (!success) {
+            errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * Records a request that was never sent because too many requests were outstanding
+     */
+    void drop(Operation operation) {
+        dropped.get(operation).increment();
+    }
+
+    void print(PrintStream out, Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        long totalDropped = 0;
+
+        out.printf("%-10s %9s %8s %8s %9s %9s %9s %9s %9s %9s %9s%n",
+            "operation", "count", "errors", "dropped", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "p99.99 ms", "max ms");
+
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0 && dropped.get(operation).sum() == 0) {
+                continue;
+            }
+
+            total.add(histogram);
+            totalErrors += errors.get(operation).sum();
+            totalDropped += dropped.get(operation).sum();
+            printRow(out, operation.key(), histogram, errors.get(operation).sum(), dropped.get(operation).sum(), seconds);
+        }
+
+        printRow(out, "total", total, totalErrors, totalDropped, seconds);
+    }
+
+    /**
+     * Prints the percentiles of two runs side by side per operation, {@code left} before {@code right}
+     */
+    static void printComparison(PrintStream out, String leftName, LatencyReport left, String rightName, LatencyReport right) {
+        out.printf("%-10s %-13s %9s %9s %9s %9s %9s%n", "operation", "run", "count", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        for (Operation operation : Operation.values()) {
+            if (left.latencies.get(operation).getTotalCount() == 0 && right.latencies.get(operation).getTotalCount() == 0) {
+                continue;
+            }
+
+            printComparisonRow(out, operation.key(), leftName, left.latencies.get(operation));
+            printComparisonRow(out, "", rightName, right.latencies.get(operation));
+        }
+    }
+
+    /**
+     * Writes the full percentile distribution of every operation in the HdrHistogram text format, which
+     * the usual HdrHistogram plotters read, with values in milliseconds
+     */
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(operation.key() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static void printComparisonRow(PrintStream out, String operation, String run, Histogram histogram) {
+        out.printf(
+            "%-10s %-13s %9d %9.3f %9.3f %9.3f %9.3f%n",
+            operation, run, histogram.getTotalCount(), histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0
+        );
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, long errors, long dropped, double seconds) {
+        out.printf("%-10s %9d %8d %8d %9.1f", name, histogram.getTotalCount(), errors, dropped, histogram.getTotalCount() / seconds);
+        for (double percentile : PERCENTILES) {
+            out.printf(" %9.3f", histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        out.printf(" %9.3f%n", histogram.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,241 @@
+package com.tractive.pet_tracker.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Open-loop load generator for a running pet tracker. Requests are started at a fixed arrival rate, each on
+ * its own virtual thread, whether or not the earlier ones have completed, and latency is measured from the
+ * time a request was scheduled to start. A server that falls behind therefore shows up as higher latency
+ * instead of as a lower request rate. Run it with {@code ./gradlew loadTest --args="--rate=500"}.
+ */
+public final class LoadTest {
+    private static final String[] CAT_TRACKER_TYPES = {"SMALL", "BIG"};
+    private static final String[] DOG_TRACKER_TYPES = {"SMALL", "MEDIUM", "BIG"};
+
+    private final LoadTestOptions options;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PetPool petPool = new PetPool();
+    private final LatencyReport report = new LatencyReport();
+
+    private LoadTest(LoadTestOptions options, HttpClient httpClient) {
+        this.options = options;
+        this.httpClient = httpClient;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            new LoadTest(options, httpClient(options, executor)).run(executor);
+        }
+    }
+
+    /**
+     * Seeds and sends the load of the {@code options} without printing anything
+     *
+     * @return the latencies of the measured requests
+     */
+    static LatencyReport measure(LoadTestOptions options) throws InterruptedException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            LoadTest loadTest = new LoadTest(options, httpClient(options, executor));
+            loadTest.seed(executor);
+            loadTest.drive(executor);
+
+            return loadTest.report;
+        }
+    }
+
+    private static HttpClient httpClient(LoadTestOptions options, ExecutorService executor) {
+        return HttpClient.newBuilder()
+            .executor(executor)
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(options.timeout())
+            .build();
+    }
+
+    private void run(ExecutorService executor) throws InterruptedException, IOException {
+        System.out.printf("Seeding %d pets at %s%n", options.seedPets(), options.baseUri());
+        seed(executor);
+
+        System.out.printf(
+            "Sending %.1f req/s (%s) for %s after a warm-up of %s%n",
+            options.rate(), options.mix(), options.duration(), options.warmUp()
+        );
+        drive(executor);
+
+        report.print(System.out, options.duration());
+        report.write(options.reportDirectory());
+        System.out.printf("Percentile distributions written to %s%n", options.reportDirectory().toAbsolutePath());
+    }
+
+    /**
+     * Creates the seed pets with a bounded number of concurrent requests, without recording latencies
+     */
+    private void seed(ExecutorService executor) throws InterruptedException {
+        int parallelism = 64;
+        Semaphore permits = new Semaphore(parallelism);
+
+        for (int i = 0; i < options.seedPets(); i++) {
+            permits.acquire();
+            executor.execute(() -> {
+                try {
+                    create();
+                } catch (IOException e) {
+                    System.err.println("Seeding a pet failed: " + e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        permits.acquire(parallelism);
+        if (petPool.size() < options.seedPets()) {
+            System.err.printf("Only %d of %d seed pets were created%n", petPool.size(), options.seedPets());
+        }
+    }
+
+    /**
+     * Starts the requests on schedule. The n-th request is due at {@code start + n / rate}; if the loop
+     * wakes up late, every overdue request is started at once and still measured from its due time.
+     */
+    private void drive(ExecutorService executor) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmUp().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+
+        for (long n = 0; ; n++) {
+            long due = start + (long) (n * intervalNanos);
+            if (due >= end) {
+                break;
+            }
+
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = options.mix().next();
+            boolean measured = due >= measureFrom;
+
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    report.drop(operation);
+                }
+                continue;
+            }
+
+            executor.execute(() -> {
+                try {
+                    boolean success = send(operation);
+                    if (measured) {
+                        report.record(operation, System.nanoTime() - due, success);
+                    }
+                } catch (IOException e) {
+                    if (measured) {
+                        report.record(operation, System.nanoTime() - due, false);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        if (!inFlight.tryAcquire(options.maxInFlight(), options.timeout().toNanos(), TimeUnit.NANOSECONDS)) {
+            System.err.println("Some requests were still outstanding when the report was taken");
+        }
+    }
+
+    /**
+     * Sends one request of the given kind. Requests that need an existing pet fall back to creating one
+     * while the pool is empty.
+     *
+     * @return whether the response had a 2xx status
+     */
+    private boolean send(Operation operation) throws IOException, InterruptedException {
+        return switch (operation) {
+            case CREATE -> create();
+            case GET -> sendFor(petPool.pick(), pet -> request("/" + pet.id()).GET());
+            case LIST -> isSuccess(send(request("/scroll?size=20").GET()));
+            case UPDATE -> sendFor(petPool.pick(), pet -> request("/" + pet.id()).PUT(petBody(pet.cat())));
+            case DELETE -> sendFor(petPool.take(), pet -> request("/" + pet.id()).DELETE());
+            case ZONE_INFO -> isSuccess(send(request("/zone-info").GET()));
+        };
+    }
+
+    private boolean sendFor(PetPool.Pet pet, Function<PetPool.Pet, HttpRequest.Builder> request)
+        throws IOException, InterruptedException {
+        return pet == null ? create() : isSuccess(send(request.apply(pet)));
+    }
+
+    private boolean create() throws IOException, InterruptedException {
+        boolean cat = ThreadLocalRandom.current().nextBoolean();
+        HttpResponse<String> response = send(request("").POST(petBody(cat)));
+
+        if (!isSuccess(response)) {
+            return false;
+        }
+
+        petPool.add(new PetPool.Pet(objectMapper.readTree(response.body()).get("id").asLong(), cat));
+        return true;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(options.baseUri() + path))
+            .timeout(options.timeout())
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json");
+    }
+
+    private static HttpRequest.BodyPublisher petBody(boolean cat) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long ownerId = 1 + random.nextLong(100_000);
+        boolean inZone = random.nextInt(10) < 8;
+
+        String body = cat
+            ? String.format(
+                "{\"petType\":\"cat\",\"ownerId\":%d,\"inZone\":%b,\"trackerType\":\"%s\",\"lostTracker\":%b}",
+                ownerId, inZone, CAT_TRACKER_TYPES[random.nextInt(CAT_TRACKER_TYPES.length)], random.nextInt(20) == 0
+            )
+            : String.format(
+                "{\"petType\":\"dog\",\"ownerId\":%d,\"inZone\":%b,\"trackerType\":\"%s\"}",
+                ownerId, inZone, DOG_TRACKER_TYPES[random.nextInt(DOG_TRACKER_TYPES.length)]
+            );
+
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+
+    private static boolean isSuccess(HttpResponse<?> response) {
+        return response.statusCode() / 100 == 2;
+    }
+}
@@ -0,0 +1,95 @@
+package com.tractive.pet_tracker.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options of the {@link LoadTest}, given as {@code --name=value}
+ *
+ * @param baseUri the pet tracker API, e.g. {@code http://localhost:8080/api/v1/pet-tracker}
+ * @param rate the number of requests started per second
+ * @param warmUp how long to send load before measuring
+ * @param duration how long to measure after the warm-up
+ * @param mix the weighted request mix
+ * @param seedPets the number of pets created before the run, so reads and updates have targets
+ * @param maxInFlight the number of outstanding requests above which new arrivals are dropped
+ * @param timeout the connect and request timeout
+ * @param reportDirectory where the percentile distributions are written
+ */
+record LoadTestOptions(
+    URI baseUri,
+    double rate,
+    Duration warmUp,
+    Duration duration,
+    RequestMix mix,
+    int seedPets,
+    int maxInFlight,
+    Duration timeout,
+    Path reportDirectory
+) {
+    static final String USAGE = """
+        Options (all optional):
+          --base-uri=http://localhost:8080/api/v1/pet-tracker
+          --rate=200                  requests started per second
+          --warm-up=PT10S             load sent before measuring
+          --duration=PT60S            measured load
+          --mix=create=10,get=50,list=10,update=15,delete=5,zone-info=10
+          --seed-pets=1000            pets created before the run
+          --max-in-flight=10000       outstanding requests above which arrivals are dropped
+          --timeout=PT10S             connect and request timeout
+          --report-directory=build/reports/loadtest
+        """;
+
+    LoadTestOptions {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + rate);
+        }
+        if (warmUp.isNegative() || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive and warm-up must not be negative");
+        }
+        if (seedPets < 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Seed pets must not be negative and max in-flight must be positive");
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+            URI.create(stripTrailingSlash(values.getOrDefault("base-uri", "http://localhost:8080/api/v1/pet-tracker"))),
+            Double.parseDouble(values.getOrDefault("rate", "200")),
+            Duration.parse(values.getOrDefault("warm-up", "PT10S")),
+            Duration.parse(values.getOrDefault("duration", "PT60S")),
+            RequestMix.parse(values.getOrDefault("mix", "create=10,get=50,list=10,update=15,delete=5,zone-info=10")),
+            Integer.parseInt(values.getOrDefault("seed-pets", "1000")),
+            Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+            Duration.parse(values.getOrDefault("timeout", "PT10S")),
+            Path.of(values.getOrDefault("report-directory", "build/reports/loadtest"))
+        );
+
+        values.keySet().removeAll(Set.of(
+            "base-uri", "rate", "warm-up", "duration", "mix", "seed-pets", "max-in-flight", "timeout", "report-directory"
+        ));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+
+        return options;
+    }
+
+    private static String stripTrailingSlash(String uri) {
+        return uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri;
+    }
+}
@@ -0,0 +1,32 @@
+package com.tractive.pet_tracker.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * The kinds of requests the load test sends, named as in the {@code --mix} option
+ */
+enum Operation {
+    CREATE("create"),
+    GET("get"),
+    LIST("list"),
+    UPDATE("update"),
+    DELETE("delete"),
+    ZONE_INFO("zone-info");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Operation of(String key) {
+        return Arrays.stream(values())
+            .filter(operation -> operation.key.equals(key))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown operation: " + key));
+    }
+}
@@ -0,0 +1,46 @@
+package com.tractive.pet_tracker.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The pets the load test created and has not deleted yet, so get, update and delete requests target pets
+ * that exist. Picking and removing a random pet are constant time.
+ */
+final class PetPool {
+
+    record Pet(long id, boolean cat) { }
+
+    private final List<Pet> pets = new ArrayList<>();
+
+    synchronized void add(Pet pet) {
+        pets.add(pet);
+    }
+
+    /**
+     * @return a random pet, or {@code null} if the pool is empty
+     */
+    synchronized Pet pick() {
+        return pets.isEmpty() ? null : pets.get(ThreadLocalRandom.current().nextInt(pets.size()));
+    }
+
+    /**
+     * Removes a random pet by moving the last pet into its slot
+     *
+     * @return the removed pet, or {@code null} if the pool is empty
+     */
+    synchronized Pet take() {
+        if (pets.isEmpty()) {
+            return null;
+        }
+
+        int index = ThreadLocalRandom.current().nextInt(pets.size());
+        Pet last = pets.removeLast();
+        return index == pets.size() ? last : pets.set(index, last);
+    }
+
+    synchronized int size() {
+        return pets.size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.tractive.pet_tracker.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted choice of the next {@link Operation}, e.g. {@code get=50,update=20,create=10}. Operations that are
+ * not listed are never sent.
+ */
+final class RequestMix {
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private RequestMix(Map<Operation, Integer> weights) {
+        this.operations = new Operation[weights.size()];
+        this.cumulativeWeights = new int[weights.size()];
+
+        int i = 0;
+        int total = 0;
+        for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+            total += weight.getValue();
+            operations[i] = weight.getKey();
+            cumulativeWeights[i++] = total;
+        }
+    }
+
+    static RequestMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+        for (String entry : mix.split(",")) {
+            String[] keyAndWeight = entry.trim().split("=");
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight but got: " + entry);
+            }
+
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + entry);
+            }
+            if (weight > 0) {
+                weights.put(Operation.of(keyAndWeight[0].trim()), weight);
+            }
+        }
+
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+
+        return new RequestMix(weights);
+    }
+
+    Operation next() {
+        int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+
+        int i = 0;
+        while (value >= cumulativeWeights[i]) {
+            i++;
+        }
+
+        return operations[i];
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(",");
+        for (int i = 0; i < operations.length; i++) {
+            joiner.add(operations[i].key() + "=" + (cumulativeWeights[i] - (i == 0 ? 0 : cumulativeWeights[i - 1])));
+        }
+
+        return joiner.toString();
+    }
+}
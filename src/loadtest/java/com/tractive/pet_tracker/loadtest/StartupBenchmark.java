@@ -0,0 +1,92 @@
+package com.tractive.pet_tracker.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Launches the application repeatedly, once as the plain boot jar and once in fast-startup mode (ahead-of-time
+ * processed beans, class data sharing and lazy initialization), and measures the time from starting the JVM
+ * until the first request is answered, which is what an autoscaled instance waits for. Run it with
+ * {@code ./gradlew -PfastStartup startupBenchmark}; the launches alternate between the modes so both see
+ * the same state of the machine.
+ */
+public final class StartupBenchmark {
+    private static final String MAIN_CLASS = "com.tractive.pet_tracker.PetTrackerApplication";
+
+    private final StartupBenchmarkOptions options;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(1))
+        .build();
+
+    private StartupBenchmark(StartupBenchmarkOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupBenchmarkOptions options;
+        try {
+            options = StartupBenchmarkOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(StartupBenchmarkOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        new StartupBenchmark(options).run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String port = "--server.port=" + options.port();
+        List<String> plain = List.of(java, "-jar", options.plainJar().toString(), port);
+        List<String> fast = List.of(
+            java,
+            "-XX:SharedArchiveFile=" + options.fastDirectory().resolve("application.jsa"),
+            "-Dspring.aot.enabled=true",
+            "-cp", options.fastDirectory().resolve("application.jar").toString(),
+            MAIN_CLASS,
+            "--spring.profiles.active=" + options.fastProfiles(),
+            port
+        );
+
+        List<Long> plainMillis = new ArrayList<>();
+        List<Long> fastMillis = new ArrayList<>();
+
+        for (int run = 1; run <= options.runs(); run++) {
+            plainMillis.add(launch(plain));
+            fastMillis.add(launch(fast));
+            System.out.printf("Run %d: plain %d ms, fast-startup %d ms%n", run, plainMillis.getLast(), fastMillis.getLast());
+        }
+
+        print("plain", plainMillis);
+        print("fast-startup", fastMillis);
+    }
+
+    /**
+     * Starts the {@code command}, polls {@code zone-info} until it answers with 2xx and stops the process again
+     *
+     * @return the milliseconds from the start of the process until the first answered request
+     */
+    private long launch(List<String> command) throws IOException, InterruptedException {
+        URI zoneInfo = URI.create("http://localhost:" + options.port() + "/api/v1/pet-tracker/zone-info");
+
+        try (ApplicationProcess application = ApplicationProcess.start(command)) {
+            return application.awaitAnswer(httpClient, zoneInfo, options.timeout());
+        }
+    }
+
+    private static void print(String mode, List<Long> millis) {
+        List<Long> sorted = millis.stream().sorted().toList();
+
+        System.out.printf(
+            "%-13s min %6d ms  median %6d ms  max %6d ms%n",
+            mode, sorted.getFirst(), sorted.get(sorted.size() / 2), sorted.getLast()
+        );
+    }
+}
@@ -0,0 +1,70 @@
+package com.tractive.pet_tracker.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options of the {@link StartupBenchmark}, given as {@code --name=value}
+ *
+ * @param plainJar the boot jar, started as it is deployed today
+ * @param fastDirectory the extracted fast-startup application with its class data sharing archive
+ * @param fastProfiles the profiles the fast-startup jar was processed ahead of time for
+ * @param runs the number of launches per mode
+ * @param port the port the application listens on
+ * @param timeout how long a launch may take until its first answered request
+ */
+record StartupBenchmarkOptions(
+    Path plainJar,
+    Path fastDirectory,
+    String fastProfiles,
+    int runs,
+    int port,
+    Duration timeout
+) {
+    static final String USAGE = """
+        Options:
+          --plain-jar=build/libs/pet-tracker-0.0.1-SNAPSHOT.jar
+          --fast-directory=build/fast-startup
+          --fast-profiles=dev,fast-startup
+          --runs=5                    launches per mode
+          --port=18080
+          --timeout=PT60S             longest time until the first answered request
+        """;
+
+    StartupBenchmarkOptions {
+        if (runs <= 0 || port <= 0) {
+            throw new IllegalArgumentException("Runs and port must be positive");
+        }
+    }
+
+    static StartupBenchmarkOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        StartupBenchmarkOptions options = new StartupBenchmarkOptions(
+            Path.of(values.getOrDefault("plain-jar", "build/libs/pet-tracker-0.0.1-SNAPSHOT.jar")),
+            Path.of(values.getOrDefault("fast-directory", "build/fast-startup")),
+            values.getOrDefault("fast-profiles", "dev,fast-startup"),
+            Integer.parseInt(values.getOrDefault("runs", "5")),
+            Integer.parseInt(values.getOrDefault("port", "18080")),
+            Duration.parse(values.getOrDefault("timeout", "PT60S"))
+        );
+
+        values.keySet().removeAll(Set.of("plain-jar", "fast-directory", "fast-profiles", "runs", "port", "timeout"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+
+        return options;
+    }
+}
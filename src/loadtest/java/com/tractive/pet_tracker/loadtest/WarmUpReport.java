@@ -0,0 +1,82 @@
+package com.tractive.pet_tracker.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Compares the first minute of traffic after a deploy with and without the startup warm-up. The jar is
+ * started twice, once with {@code pet-tracker.warm-up.enabled=false} and once with it enabled; as soon as
+ * the readiness probe is up, as a load balancer would see it, the same open-loop mix is sent for
+ * {@code duration} without seeding or a warm-up of its own. Run it with
+ * {@code ./gradlew warmUpReport}.
+ */
+public final class WarmUpReport {
+    private final WarmUpReportOptions options;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(1))
+        .build();
+
+    private WarmUpReport(WarmUpReportOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        WarmUpReportOptions options;
+        try {
+            options = WarmUpReportOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(WarmUpReportOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        new WarmUpReport(options).run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        LatencyReport cold = measure(false);
+        LatencyReport warmedUp = measure(true);
+
+        System.out.printf("%nFirst %s after readiness at %.1f req/s (%s)%n", options.duration(), options.rate(), options.mix());
+        LatencyReport.printComparison(System.out, "cold", cold, "warmed up", warmedUp);
+        System.out.printf("Percentile distributions written to %s%n", options.reportDirectory().toAbsolutePath());
+    }
+
+    private LatencyReport measure(boolean warmUp) throws IOException, InterruptedException {
+        String name = warmUp ? "warmed-up" : "cold";
+        String java = ProcessHandle.current().info().command().orElse("java");
+        URI baseUri = URI.create("http://localhost:" + options.port());
+
+        try (ApplicationProcess application = ApplicationProcess.start(List.of(
+            java, "-jar", options.jar().toString(),
+            "--server.port=" + options.port(),
+            "--pet-tracker.warm-up.enabled=" + warmUp
+        ))) {
+            long readyMillis = application.awaitAnswer(
+                httpClient, baseUri.resolve("/actuator/health/readiness"), options.startTimeout()
+            );
+            System.out.printf("%s: ready after %d ms, sending load%n", name, readyMillis);
+
+            LatencyReport report = LoadTest.measure(new LoadTestOptions(
+                baseUri.resolve("/api/v1/pet-tracker"),
+                options.rate(),
+                Duration.ZERO,
+                options.duration(),
+                options.mix(),
+                0,
+                10_000,
+                Duration.ofSeconds(10),
+                options.reportDirectory().resolve(name)
+            ));
+            report.print(System.out, options.duration());
+            report.write(options.reportDirectory().resolve(name));
+
+            return report;
+        }
+    }
+}
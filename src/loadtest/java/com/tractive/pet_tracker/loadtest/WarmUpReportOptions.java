@@ -0,0 +1,77 @@
+package com.tractive.pet_tracker.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options of the {@link WarmUpReport}, given as {@code --name=value}
+ *
+ * @param jar the boot jar to start
+ * @param port the port the application listens on
+ * @param rate the number of requests started per second
+ * @param duration how long to measure after readiness
+ * @param mix the weighted request mix
+ * @param startTimeout how long an instance may take until it is ready, warm-up included
+ * @param reportDirectory where the percentile distributions of both runs are written
+ */
+record WarmUpReportOptions(
+    Path jar,
+    int port,
+    double rate,
+    Duration duration,
+    RequestMix mix,
+    Duration startTimeout,
+    Path reportDirectory
+) {
+    static final String USAGE = """
+        Options (all optional):
+          --jar=build/libs/pet-tracker-0.0.1-SNAPSHOT.jar
+          --port=18080
+          --rate=200                  requests started per second
+          --duration=PT60S            measured load after readiness
+          --mix=create=10,get=50,list=10,update=15,delete=5,zone-info=10
+          --start-timeout=PT120S      longest time until readiness, warm-up included
+          --report-directory=build/reports/warm-up
+        """;
+
+    WarmUpReportOptions {
+        if (port <= 0 || rate <= 0) {
+            throw new IllegalArgumentException("Port and rate must be positive");
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive: " + duration);
+        }
+    }
+
+    static WarmUpReportOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        WarmUpReportOptions options = new WarmUpReportOptions(
+            Path.of(values.getOrDefault("jar", "build/libs/pet-tracker-0.0.1-SNAPSHOT.jar")),
+            Integer.parseInt(values.getOrDefault("port", "18080")),
+            Double.parseDouble(values.getOrDefault("rate", "200")),
+            Duration.parse(values.getOrDefault("duration", "PT60S")),
+            RequestMix.parse(values.getOrDefault("mix", "create=10,get=50,list=10,update=15,delete=5,zone-info=10")),
+            Duration.parse(values.getOrDefault("start-timeout", "PT120S")),
+            Path.of(values.getOrDefault("report-directory", "build/reports/warm-up"))
+        );
+
+        values.keySet().removeAll(Set.of("jar", "port", "rate", "duration", "mix", "start-timeout", "report-directory"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+
+        return options;
+    }
+}
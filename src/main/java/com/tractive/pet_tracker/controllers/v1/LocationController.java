@@ -0,0 +1,44 @@
+package com.tractive.pet_tracker.controllers.v1;
+
+import com.tractive.pet_tracker.models.dtos.LocationBatchDto;
+import com.tractive.pet_tracker.models.dtos.LocationFixDto;
+import com.tractive.pet_tracker.services.LocationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "api/v1/pet-tracker", produces = MediaType.APPLICATION_JSON_VALUE)
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+@RequiredArgsConstructor
+public class LocationController {
+    private final LocationService locationService;
+
+    @PostMapping(path = "/locations", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void ingestLocations(@RequestBody @Valid LocationBatchDto batch) {
+        locationService.ingest(batch.fixes());
+    }
+
+    @GetMapping(path = "/{id}/locations/recent")
+    public List<LocationFixDto> getRecentTrack(
+        @PathVariable("id") long id,
+        @RequestParam(name = "limit", defaultValue = "100") int limit
+    ) {
+        return locationService.getRecentTrack(id, limit);
+    }
+
+    @GetMapping(path = "/{id}/locations")
+    public List<LocationFixDto> getTrack(
+        @PathVariable("id") long id,
+        @RequestParam(name = "from") long from,
+        @RequestParam(name = "to") long to,
+        @RequestParam(name = "limit", defaultValue = "1000") int limit
+    ) {
+        return locationService.getTrack(id, from, to, limit);
+    }
+}
@@ -1,37 +1,117 @@
 package com.tractive.pet_tracker.controllers.v1;
 
+import com.tractive.pet_tracker.models.dtos.OwnerPetsDto;
+import com.tractive.pet_tracker.models.dtos.PetAggregationDto;
+import com.tractive.pet_tracker.models.dtos.PetCursorPageDto;
 import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.dtos.PetPageDto;
+import com.tractive.pet_tracker.models.dtos.PetStateBatchDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateResultDto;
 import com.tractive.pet_tracker.models.dtos.PetsOutsideZoneDto;
+import com.tractive.pet_tracker.models.helpers.ETags;
+import com.tractive.pet_tracker.models.helpers.PetJson;
 import com.tractive.pet_tracker.services.PetTrackerService;
 import com.tractive.pet_tracker.services.PetTrackerServiceImp;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 @RestController
 @RequestMapping(value = "api/v1/pet-tracker", produces = MediaType.APPLICATION_JSON_VALUE)
-@CrossOrigin(origins = "*", allowedHeaders = "*")
+@CrossOrigin(origins = "*", allowedHeaders = "*", exposedHeaders = "ETag")
 @RequiredArgsConstructor
 public class PetTrackerController {
     private final PetTrackerService petTrackerService;
 
+    // A matching If-None-Match is answered with 304 by checkNotModified, which also sets the ETag header
+
     @GetMapping(path = "/{id}")
-    public PetDto getPetById(@PathVariable("id") long id) {
-        return petTrackerService.getPetById(id);
+    public ResponseEntity<byte[]> getPetById(@PathVariable("id") long id, WebRequest request) {
+        PetJson pet = petTrackerService.getPetJsonById(id);
+        if (request.checkNotModified(pet.etag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(pet.body());
     }
 
     @GetMapping()
-    public Page<PetDto> getAllPets(Pageable pagination) {
+    public PetPageDto getAllPets(Pageable pagination, WebRequest request) {
+        if (request.checkNotModified(petTrackerService.getPetListETag())) {
+            return null;
+        }
+
         return petTrackerService.getAllPets(pagination);
     }
 
+    @GetMapping(path = "/scroll")
+    public PetCursorPageDto getPetsAfter(
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", defaultValue = "20") int size,
+        WebRequest request
+    ) {
+        if (request.checkNotModified(petTrackerService.getPetListETag())) {
+            return null;
+        }
+
+        return petTrackerService.getPetsAfter(cursor, size);
+    }
+
+    @GetMapping(path = "/filter")
+    public PetCursorPageDto getFilteredPetsAfter(
+        @RequestParam(name = "cursor", required = false) String cursor,
+        @RequestParam(name = "size", defaultValue = "20") int size,
+        @RequestParam(name = "petType", required = false) String petType,
+        @RequestParam(name = "trackerType", required = false) String trackerType,
+        @RequestParam(name = "inZone", required = false) Boolean inZone,
+        @RequestParam(name = "lostTracker", required = false) Boolean lostTracker
+    ) {
+        return petTrackerService.getFilteredPetsAfter(cursor, size, petType, trackerType, inZone, lostTracker);
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportPets() {
+        return petTrackerService::exportPets;
+    }
+
     @GetMapping(path = "/zone-info")
-    public PetsOutsideZoneDto getPetsOutsideZoneCount() {
-        return petTrackerService.countPetsOutsideZoneGroupByType();
+    public PetsOutsideZoneDto getPetsOutsideZoneCount(WebRequest request) {
+        PetsOutsideZoneDto petsOutsideZone = petTrackerService.countPetsOutsideZoneGroupByType();
+        if (request.checkNotModified(ETags.of(petsOutsideZone))) {
+            return null;
+        }
+
+        return petsOutsideZone;
+    }
+
+    @GetMapping(path = "/owners/{ownerId}")
+    public OwnerPetsDto getOwnerPets(@PathVariable("ownerId") long ownerId, WebRequest request) {
+        if (request.checkNotModified(petTrackerService.getPetListETag())) {
+            return null;
+        }
+
+        return petTrackerService.getOwnerPets(ownerId);
+    }
+
+    @GetMapping(path = "/aggregate")
+    public PetAggregationDto aggregatePets(
+        @RequestParam(name = "groupBy", required = false) List<String> groupBy,
+        @RequestParam(name = "petType", required = false) String petType,
+        @RequestParam(name = "trackerType", required = false) String trackerType,
+        @RequestParam(name = "inZone", required = false) Boolean inZone,
+        @RequestParam(name = "lostTracker", required = false) Boolean lostTracker,
+        @RequestParam(name = "ownerId", required = false) Long ownerId,
+        @RequestParam(name = "ownerBucketSize", defaultValue = "1") long ownerBucketSize
+    ) {
+        return petTrackerService.aggregatePets(groupBy, petType, trackerType, inZone, lostTracker, ownerId, ownerBucketSize);
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -48,6 +128,11 @@ public class PetTrackerController {
         return petTrackerService.updatePet(id, updatePetDto);
     }
 
+    @PutMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<PetStateUpdateResultDto> updatePetStates(@RequestBody @Valid PetStateBatchDto batch) {
+        return petTrackerService.updatePetStates(batch.updates());
+    }
+
     @DeleteMapping(path = "/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deletePet(@PathVariable("id") long id) {
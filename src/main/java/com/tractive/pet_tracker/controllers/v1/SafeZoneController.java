@@ -0,0 +1,36 @@
+package com.tractive.pet_tracker.controllers.v1;
+
+import com.tractive.pet_tracker.models.dtos.SafeZoneDto;
+import com.tractive.pet_tracker.services.GeofenceService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "api/v1/pet-tracker/zones", produces = MediaType.APPLICATION_JSON_VALUE)
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+@RequiredArgsConstructor
+public class SafeZoneController {
+    private final GeofenceService geofenceService;
+
+    @GetMapping()
+    public List<SafeZoneDto> getZones(@RequestParam(name = "ownerId") long ownerId) {
+        return geofenceService.getZones(ownerId);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public SafeZoneDto createZone(@RequestBody @Valid SafeZoneDto incomingZoneDto) {
+        return geofenceService.createZone(incomingZoneDto);
+    }
+
+    @DeleteMapping(path = "/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteZone(@PathVariable("id") long id) {
+        geofenceService.deleteZone(id);
+    }
+}
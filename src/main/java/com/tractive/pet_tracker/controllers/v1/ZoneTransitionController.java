@@ -0,0 +1,20 @@
+package com.tractive.pet_tracker.controllers.v1;
+
+import com.tractive.pet_tracker.services.ZoneTransitionBroadcaster;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping(value = "api/v1/pet-tracker")
+@CrossOrigin(origins = "*", allowedHeaders = "*")
+@RequiredArgsConstructor
+public class ZoneTransitionController {
+    private final ZoneTransitionBroadcaster zoneTransitionBroadcaster;
+
+    @GetMapping(path = "/zone-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamZoneTransitions(@RequestParam(name = "ownerId") long ownerId) {
+        return zoneTransitionBroadcaster.subscribe(ownerId);
+    }
+}
@@ -0,0 +1,17 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * A circular safe zone. {@code radius} is in meters.
+ */
+public record CircleZoneDto(
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) Long id,
+    @NotNull @Positive Long ownerId,
+    @NotNull @Valid CoordinateDto center,
+    @NotNull @Positive @DecimalMax("100000.0") Double radius
+) implements SafeZoneDto { }
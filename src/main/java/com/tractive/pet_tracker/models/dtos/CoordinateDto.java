@@ -0,0 +1,10 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+public record CoordinateDto(
+    @NotNull @DecimalMin("-90.0") @DecimalMax("90.0") Double latitude,
+    @NotNull @DecimalMin("-180.0") @DecimalMax("180.0") Double longitude
+) { }
@@ -0,0 +1,16 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * A GPS fix of a tracker. {@code timestamp} is in epoch milliseconds.
+ */
+public record LocationFixDto(
+    @NotNull @Positive Long petId,
+    @NotNull @Positive Long timestamp,
+    @NotNull @DecimalMin("-90.0") @DecimalMax("90.0") Double latitude,
+    @NotNull @DecimalMin("-180.0") @DecimalMax("180.0") Double longitude
+) { }
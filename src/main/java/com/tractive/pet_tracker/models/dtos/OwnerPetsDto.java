@@ -0,0 +1,8 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import java.util.List;
+
+/**
+ * The pets of an owner in id order, with the number of them outside the zone per tracker type
+ */
+public record OwnerPetsDto(long ownerId, List<PetDto> pets, PetsOutsideZoneDto petsOutsideZone) { }
@@ -0,0 +1,8 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import java.util.List;
+
+/**
+ * Pet counts grouped by the {@code groupBy} fields; {@code count} is the number of pets matching the filters
+ */
+public record PetAggregationDto(List<String> groupBy, long count, List<PetGroupDto> groups) { }
@@ -0,0 +1,8 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import java.util.List;
+
+/**
+ * A page of pets in id order. {@code nextCursor} is {@code null} on the last page.
+ */
+public record PetCursorPageDto(List<PetDto> content, String nextCursor) { }
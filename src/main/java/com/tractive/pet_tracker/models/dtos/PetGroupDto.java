@@ -0,0 +1,17 @@
+package com.tractive.pet_tracker.models.dtos;
+
+/**
+ * One group of an aggregation. Only the fields grouped by are set; {@code lostTracker} stays unset for dogs,
+ * and {@code ownerId} is the first owner id of the bucket. The counts are the pets of the group, those of them
+ * in the zone and those with a lost tracker.
+ */
+public record PetGroupDto(
+    String petType,
+    String trackerType,
+    Boolean inZone,
+    Boolean lostTracker,
+    Long ownerId,
+    long count,
+    long inZoneCount,
+    long lostTrackerCount
+) { }
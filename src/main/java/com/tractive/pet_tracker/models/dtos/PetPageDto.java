@@ -0,0 +1,9 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import java.util.List;
+
+/**
+ * A page of pets by page number, with the total number of pets and pages. The content is declared as
+ * {@code List<PetDto>}, so Jackson writes {@code petType} for every pet without a workaround.
+ */
+public record PetPageDto(List<PetDto> content, int number, int size, long totalElements, int totalPages) { }
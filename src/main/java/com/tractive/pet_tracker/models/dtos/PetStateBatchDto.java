@@ -0,0 +1,12 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record PetStateBatchDto(
+    @NotEmpty @Size(max = 100_000) List<@NotNull @Valid PetStateUpdateDto> updates
+) { }
@@ -0,0 +1,13 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * A single tracker state change. {@code lostTracker} is optional and only applicable to cats.
+ */
+public record PetStateUpdateDto(
+    @NotNull @Positive Long id,
+    @NotNull Boolean inZone,
+    Boolean lostTracker
+) { }
@@ -0,0 +1,5 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import com.tractive.pet_tracker.models.enums.PetStateUpdateStatus;
+
+public record PetStateUpdateResultDto(long id, PetStateUpdateStatus status) { }
@@ -0,0 +1,18 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * A polygonal safe zone. The {@code vertices} are in order and the polygon is closed implicitly.
+ */
+public record PolygonZoneDto(
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) Long id,
+    @NotNull @Positive Long ownerId,
+    @NotNull @Size(min = 3, max = 1000) List<@NotNull @Valid CoordinateDto> vertices
+) implements SafeZoneDto { }
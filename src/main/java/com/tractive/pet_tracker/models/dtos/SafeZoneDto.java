@@ -0,0 +1,14 @@
+package com.tractive.pet_tracker.models.dtos;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "shape")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = CircleZoneDto.class, name = "circle"),
+        @JsonSubTypes.Type(value = PolygonZoneDto.class, name = "polygon")
+})
+public sealed interface SafeZoneDto permits CircleZoneDto, PolygonZoneDto {
+    Long id();
+    Long ownerId();
+}
@@ -0,0 +1,6 @@
+package com.tractive.pet_tracker.models.dtos;
+
+/**
+ * A pet entered ({@code inZone} is true) or left its zone. {@code timestamp} is in epoch milliseconds.
+ */
+public record ZoneTransitionDto(long petId, long ownerId, boolean inZone, long timestamp) { }
@@ -15,9 +15,11 @@ import lombok.experimental.SuperBuilder;
 @ToString
 @SuperBuilder
 @Entity
+@Table(indexes = @Index(name = "idx_pet_owner_id", columnList = "owner_id"))
 public abstract class Pet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pet_seq")
+    @SequenceGenerator(name = "pet_seq", sequenceName = "pet_seq", allocationSize = 50)
     private long id;
 
     @NotNull
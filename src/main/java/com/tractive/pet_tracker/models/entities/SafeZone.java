@@ -0,0 +1,49 @@
+package com.tractive.pet_tracker.models.entities;
+
+import com.tractive.pet_tracker.models.enums.ZoneShape;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A safe zone of an owner: a circle ({@code latitude}, {@code longitude} and {@code radius} in meters) or a
+ * polygon ({@code vertices}, in order)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@Entity
+@Table(indexes = @Index(name = "idx_safe_zone_owner_id", columnList = "owner_id"))
+public class SafeZone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "safe_zone_seq")
+    @SequenceGenerator(name = "safe_zone_seq", sequenceName = "safe_zone_seq", allocationSize = 1)
+    private long id;
+
+    @NotNull
+    @Positive
+    private long ownerId;
+
+    @Enumerated(value = EnumType.STRING)
+    @NotNull
+    private ZoneShape shape;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    private Double radius;
+
+    @ElementCollection
+    @CollectionTable(name = "safe_zone_vertex", joinColumns = @JoinColumn(name = "zone_id"))
+    @OrderColumn(name = "position")
+    @Builder.Default
+    private List<ZoneVertex> vertices = new ArrayList<>();
+}
@@ -0,0 +1,19 @@
+package com.tractive.pet_tracker.models.entities;
+
+import jakarta.persistence.Embeddable;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Embeddable
+public class ZoneVertex {
+    @NotNull
+    private Double latitude;
+
+    @NotNull
+    private Double longitude;
+}
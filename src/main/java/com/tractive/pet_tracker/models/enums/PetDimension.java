@@ -0,0 +1,38 @@
+package com.tractive.pet_tracker.models.enums;
+
+/**
+ * A field pets can be grouped by in an aggregation, named as in the pet JSON
+ */
+public enum PetDimension {
+    PET_TYPE("petType"),
+    TRACKER_TYPE("trackerType"),
+    IN_ZONE("inZone"),
+    LOST_TRACKER("lostTracker"),
+    OWNER_ID("ownerId");
+
+    private final String field;
+
+    PetDimension(String field) {
+        this.field = field;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @param field the JSON field name, case-insensitive
+     * @return the dimension of the field
+     *
+     * @throws IllegalArgumentException if pets cannot be grouped by the field
+     */
+    public static PetDimension of(String field) {
+        for (PetDimension dimension : values()) {
+            if (dimension.field.equalsIgnoreCase(field.trim())) {
+                return dimension;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown dimension: " + field);
+    }
+}
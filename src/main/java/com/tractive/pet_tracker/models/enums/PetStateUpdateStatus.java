@@ -0,0 +1,8 @@
+package com.tractive.pet_tracker.models.enums;
+
+public enum PetStateUpdateStatus {
+    UPDATED,
+    NOT_FOUND,
+    REJECTED,
+    ACCEPTED
+}
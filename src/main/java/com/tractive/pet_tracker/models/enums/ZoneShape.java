@@ -0,0 +1,6 @@
+package com.tractive.pet_tracker.models.enums;
+
+public enum ZoneShape {
+    CIRCLE,
+    POLYGON
+}
@@ -0,0 +1,24 @@
+package com.tractive.pet_tracker.models.events;
+
+/**
+ * Published after a Pet is created, updated or deleted. {@code previous} is {@code null} for a created
+ * pet and {@code current} is {@code null} for a deleted one.
+ */
+public record PetChangedEvent(PetState previous, PetState current) {
+
+    public static PetChangedEvent created(PetState current) {
+        return new PetChangedEvent(null, current);
+    }
+
+    public static PetChangedEvent updated(PetState previous, PetState current) {
+        return new PetChangedEvent(previous, current);
+    }
+
+    public static PetChangedEvent deleted(PetState previous) {
+        return new PetChangedEvent(previous, null);
+    }
+
+    public long petId() {
+        return current != null ? current.id() : previous.id();
+    }
+}
@@ -0,0 +1,60 @@
+package com.tractive.pet_tracker.models.events;
+
+import com.tractive.pet_tracker.models.entities.Cat;
+import com.tractive.pet_tracker.models.entities.Dog;
+import com.tractive.pet_tracker.models.entities.Pet;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+
+/**
+ * Immutable copy of the tracked fields of a Pet, taken at a point in time
+ */
+public sealed interface PetState permits PetState.CatState, PetState.DogState {
+    long id();
+    long ownerId();
+    boolean inZone();
+
+    record CatState(long id, long ownerId, boolean inZone, CatTrackerType trackerType, boolean lostTracker)
+        implements PetState { }
+
+    record DogState(long id, long ownerId, boolean inZone, DogTrackerType trackerType)
+        implements PetState { }
+
+    /**
+     * @param inZone the zone state of the copy
+     * @return a copy of this state with the given {@code inZone}
+     */
+    default PetState withInZone(boolean inZone) {
+        return switch (this) {
+            case CatState cat -> new CatState(cat.id(), cat.ownerId(), inZone, cat.trackerType(), cat.lostTracker());
+            case DogState dog -> new DogState(dog.id(), dog.ownerId(), inZone, dog.trackerType());
+        };
+    }
+
+    /**
+     * Copies the tracked fields of the {@code pet}
+     *
+     * @param pet The Pet Entity
+     * @return PetState (CatState or DogState)
+     *
+     * @throws IllegalArgumentException if the {@code pet} type is not known
+     */
+    static PetState of(Pet pet) {
+        return switch (pet) {
+            case Cat cat -> new CatState(
+                cat.getId(),
+                cat.getOwnerId(),
+                Boolean.TRUE.equals(cat.getInZone()),
+                cat.getTrackerType(),
+                Boolean.TRUE.equals(cat.getLostTracker())
+            );
+            case Dog dog -> new DogState(
+                dog.getId(),
+                dog.getOwnerId(),
+                Boolean.TRUE.equals(dog.getInZone()),
+                dog.getTrackerType()
+            );
+            default -> throw new IllegalArgumentException("Unknown Pet type: " + pet.getClass().getSimpleName());
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.dtos.PetsOutsideZoneDto;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.StringJoiner;
+
+/**
+ * Strong entity tags, quoted as they go into the {@code ETag} header. A tag is computed from what the response
+ * is made of, without serializing it again: the serialized bytes of a single pet, the counters of
+ * {@code zone-info}, or a version that moves on with every change.
+ */
+public final class ETags {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final int DIGEST_BYTES = 12;
+
+    private ETags() { }
+
+    /**
+     * @return a tag of the first 96 bits of the SHA-256 of the {@code body}
+     */
+    public static String of(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return quote(ENCODER.encodeToString(Arrays.copyOf(digest, DIGEST_BYTES)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every JVM", e);
+        }
+    }
+
+    /**
+     * @return a tag listing the count of every tracker type, cats first, in the order of the enums
+     */
+    public static String of(PetsOutsideZoneDto petsOutsideZone) {
+        StringJoiner counts = new StringJoiner(".");
+        for (CatTrackerType trackerType : CatTrackerType.values()) {
+            counts.add(Long.toString(petsOutsideZone.cats().getOrDefault(trackerType, 0L)));
+        }
+        for (DogTrackerType trackerType : DogTrackerType.values()) {
+            counts.add(Long.toString(petsOutsideZone.dogs().getOrDefault(trackerType, 0L)));
+        }
+
+        return quote(counts.toString());
+    }
+
+    /**
+     * @param epoch tells apart the versions of different runs of the application
+     * @param version the number of changes within the run
+     */
+    public static String of(String epoch, long version) {
+        return quote(epoch + "-" + version);
+    }
+
+    private static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+}
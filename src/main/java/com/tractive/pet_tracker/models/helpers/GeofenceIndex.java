@@ -0,0 +1,277 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.dtos.CircleZoneDto;
+import com.tractive.pet_tracker.models.dtos.CoordinateDto;
+import com.tractive.pet_tracker.models.dtos.PolygonZoneDto;
+import com.tractive.pet_tracker.models.dtos.SafeZoneDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable spatial index of safe zones on a grid of {@code cellSize} degrees. Every cell lists the zones
+ * whose bounding box overlaps it, so a lookup only tests the zones around the point, and of those only the
+ * ones of the pet's owner. Zones are kept in flat primitive arrays and {@link #contains} does not allocate.
+ * <p>
+ * A zone covering more than {@link #MAX_CELLS_PER_ZONE} cells is not put into the grid but tested on every
+ * lookup, so the size of the index stays bounded by the number of zones whatever their extent.
+ * <p>
+ * Coordinates are treated as planar within a zone (equirectangular distances for circles), which is accurate
+ * for zones of up to a few kilometers. Circles may cross the antimeridian; polygons are taken as the area
+ * their vertices enclose without crossing it.
+ */
+public final class GeofenceIndex {
+    public static final double METERS_PER_DEGREE = 111_320.0;
+    static final int MAX_CELLS_PER_ZONE = 4096;
+
+    private final double cellSize;
+    private final long lonCells;
+
+    private final LongIntArrayMap zonesByCell;
+    private final LongIntArrayMap zonesByOwner;
+    /** The zones covering too many cells to be put into the grid */
+    private final int[] unindexed;
+
+    private final long[] owner;
+    private final double[] minLat;
+    private final double[] maxLat;
+    private final double[] minLon;
+    private final double[] maxLon;
+
+    // Circles: radius > 0, polygons: radius == 0
+    private final double[] centerLat;
+    private final double[] centerLon;
+    private final double[] metersPerDegreeLon;
+    private final double[] radiusSquared;
+
+    private final int[] vertexStart;
+    private final int[] vertexCount;
+    private final double[] vertexLat;
+    private final double[] vertexLon;
+
+    private GeofenceIndex(Collection<? extends SafeZoneDto> zones, double cellSize) {
+        if (!(cellSize > 0 && cellSize <= 180)) {
+            throw new IllegalArgumentException("Invalid cell size: " + cellSize);
+        }
+
+        int size = zones.size();
+        int vertices = zones.stream()
+            .mapToInt(zone -> zone instanceof PolygonZoneDto polygon ? polygon.vertices().size() : 0)
+            .sum();
+
+        this.cellSize = cellSize;
+        this.lonCells = (long) Math.ceil(360 / cellSize) + 1;
+
+        owner = new long[size];
+        minLat = new double[size];
+        maxLat = new double[size];
+        minLon = new double[size];
+        maxLon = new double[size];
+        centerLat = new double[size];
+        centerLon = new double[size];
+        metersPerDegreeLon = new double[size];
+        radiusSquared = new double[size];
+        vertexStart = new int[size];
+        vertexCount = new int[size];
+        vertexLat = new double[vertices];
+        vertexLon = new double[vertices];
+
+        LongIntArrayMap.Builder cells = new LongIntArrayMap.Builder();
+        LongIntArrayMap.Builder owners = new LongIntArrayMap.Builder();
+        List<Integer> large = new ArrayList<>();
+
+        int zone = 0;
+        int vertex = 0;
+        for (SafeZoneDto zoneDto : zones) {
+            owner[zone] = zoneDto.ownerId();
+
+            switch (zoneDto) {
+                case CircleZoneDto circle -> {
+                    double lat = circle.center().latitude();
+                    double lon = circle.center().longitude();
+                    double metersPerLon = METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 1e-6);
+
+                    centerLat[zone] = lat;
+                    centerLon[zone] = lon;
+                    metersPerDegreeLon[zone] = metersPerLon;
+                    radiusSquared[zone] = circle.radius() * circle.radius();
+
+                    minLat[zone] = lat - circle.radius() / METERS_PER_DEGREE;
+                    maxLat[zone] = lat + circle.radius() / METERS_PER_DEGREE;
+                    minLon[zone] = lon - circle.radius() / metersPerLon;
+                    maxLon[zone] = lon + circle.radius() / metersPerLon;
+                }
+                case PolygonZoneDto polygon -> {
+                    List<CoordinateDto> points = polygon.vertices();
+                    vertexStart[zone] = vertex;
+                    vertexCount[zone] = points.size();
+                    minLat[zone] = Double.POSITIVE_INFINITY;
+                    maxLat[zone] = Double.NEGATIVE_INFINITY;
+                    minLon[zone] = Double.POSITIVE_INFINITY;
+                    maxLon[zone] = Double.NEGATIVE_INFINITY;
+
+                    for (CoordinateDto point : points) {
+                        vertexLat[vertex] = point.latitude();
+                        vertexLon[vertex] = point.longitude();
+                        minLat[zone] = Math.min(minLat[zone], point.latitude());
+                        maxLat[zone] = Math.max(maxLat[zone], point.latitude());
+                        minLon[zone] = Math.min(minLon[zone], point.longitude());
+                        maxLon[zone] = Math.max(maxLon[zone], point.longitude());
+                        vertex++;
+                    }
+                }
+            }
+
+            long firstLatCell = latCell(Math.max(minLat[zone], -90));
+            long lastLatCell = latCell(Math.min(maxLat[zone], 90));
+            long[] lonCellRanges = lonCellRanges(minLon[zone], maxLon[zone]);
+            long lonCellCount = 0;
+            for (int range = 0; range < lonCellRanges.length; range += 2) {
+                lonCellCount += lonCellRanges[range + 1] - lonCellRanges[range] + 1;
+            }
+
+            if ((lastLatCell - firstLatCell + 1) * lonCellCount > MAX_CELLS_PER_ZONE) {
+                large.add(zone);
+            } else {
+                for (long latCell = firstLatCell; latCell <= lastLatCell; latCell++) {
+                    for (int range = 0; range < lonCellRanges.length; range += 2) {
+                        for (long lonCell = lonCellRanges[range]; lonCell <= lonCellRanges[range + 1]; lonCell++) {
+                            cells.add(latCell * lonCells + lonCell, zone);
+                        }
+                    }
+                }
+            }
+            owners.add(zoneDto.ownerId(), zone);
+            zone++;
+        }
+
+        zonesByCell = cells.build();
+        zonesByOwner = owners.build();
+        unindexed = large.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Indexes the {@code zones}
+     *
+     * @param zones the zones, with valid coordinates
+     * @param cellSize the edge of a grid cell in degrees
+     * @return GeofenceIndex
+     *
+     * @throws IllegalArgumentException if the {@code cellSize} is not in (0, 180]
+     */
+    public static GeofenceIndex of(Collection<? extends SafeZoneDto> zones, double cellSize) {
+        return new GeofenceIndex(zones, cellSize);
+    }
+
+    public boolean hasZones(long ownerId) {
+        return zonesByOwner.get(ownerId).length > 0;
+    }
+
+    public int size() {
+        return owner.length;
+    }
+
+    /**
+     * Checks whether a point is in any safe zone of the owner
+     *
+     * @param ownerId the owner whose zones count
+     * @param latitude the latitude of the point
+     * @param longitude the longitude of the point
+     * @return {@code true} if the point is inside one of the owner's zones
+     */
+    public boolean contains(long ownerId, double latitude, double longitude) {
+        int[] candidates = zonesByCell.get(latCell(latitude) * lonCells + lonCell(longitude));
+
+        for (int zone : candidates) {
+            if (matches(zone, ownerId, latitude, longitude)) {
+                return true;
+            }
+        }
+        for (int zone : unindexed) {
+            if (matches(zone, ownerId, latitude, longitude)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean matches(int zone, long ownerId, double latitude, double longitude) {
+        return owner[zone] == ownerId
+            && latitude >= minLat[zone] && latitude <= maxLat[zone]
+            && inLonRange(zone, longitude)
+            && (radiusSquared[zone] > 0 ? inCircle(zone, latitude, longitude) : inPolygon(zone, latitude, longitude));
+    }
+
+    /**
+     * Checks the longitude against the zone's bounding box, which may extend past the antimeridian
+     */
+    private boolean inLonRange(int zone, double longitude) {
+        double span = maxLon[zone] - minLon[zone];
+        return span >= 360 || ((longitude - minLon[zone]) % 360 + 360) % 360 <= span;
+    }
+
+    private boolean inCircle(int zone, double latitude, double longitude) {
+        double dLon = longitude - centerLon[zone];
+        if (dLon > 180) {
+            dLon -= 360;
+        } else if (dLon < -180) {
+            dLon += 360;
+        }
+
+        double dy = (latitude - centerLat[zone]) * METERS_PER_DEGREE;
+        double dx = dLon * metersPerDegreeLon[zone];
+        return dx * dx + dy * dy <= radiusSquared[zone];
+    }
+
+    /**
+     * Even-odd ray casting towards increasing longitude
+     */
+    private boolean inPolygon(int zone, double latitude, double longitude) {
+        int start = vertexStart[zone];
+        int end = start + vertexCount[zone];
+        boolean inside = false;
+
+        for (int i = start, j = end - 1; i < end; j = i++) {
+            double latI = vertexLat[i];
+            double latJ = vertexLat[j];
+
+            if ((latI > latitude) != (latJ > latitude)) {
+                double crossing = vertexLon[i] + (latitude - latI) * (vertexLon[j] - vertexLon[i]) / (latJ - latI);
+                if (longitude < crossing) {
+                    inside = !inside;
+                }
+            }
+        }
+
+        return inside;
+    }
+
+    /**
+     * Splits the longitudes of a bounding box into ranges of cells within {@code [0, lonCells)}, wrapping the
+     * part beyond the antimeridian around to the other side
+     *
+     * @return pairs of first and last cell, inclusive
+     */
+    private long[] lonCellRanges(double minLon, double maxLon) {
+        if (maxLon - minLon >= 360) {
+            return new long[] {0, lonCells - 1};
+        }
+        if (minLon < -180) {
+            return new long[] {lonCell(minLon + 360), lonCells - 1, 0, lonCell(maxLon)};
+        }
+        if (maxLon > 180) {
+            return new long[] {lonCell(minLon), lonCells - 1, 0, lonCell(maxLon - 360)};
+        }
+        return new long[] {lonCell(minLon), lonCell(maxLon)};
+    }
+
+    private long latCell(double latitude) {
+        return (long) Math.floor((latitude + 90) / cellSize);
+    }
+
+    private long lonCell(double longitude) {
+        return (long) Math.floor((longitude + 180) / cellSize);
+    }
+}
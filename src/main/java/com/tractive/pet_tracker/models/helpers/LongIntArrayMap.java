@@ -0,0 +1,84 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable map from {@code long} keys to {@code int[]} values with open addressing over primitive arrays,
+ * so a lookup neither boxes the key nor allocates
+ */
+public final class LongIntArrayMap {
+    private static final int[] EMPTY = new int[0];
+
+    private final long[] keys;
+    private final int[][] values;
+    private final int mask;
+
+    private LongIntArrayMap(Map<Long, int[]> entries) {
+        int capacity = Integer.highestOneBit(Math.max(2, entries.size() * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity][];
+        this.mask = capacity - 1;
+
+        entries.forEach((key, value) -> {
+            int slot = slot(key);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+        });
+    }
+
+    /**
+     * Returns the values of the {@code key}
+     *
+     * @param key the key
+     * @return the values, or an empty array if the key is not in the map. Not to be modified.
+     */
+    public int[] get(long key) {
+        int slot = slot(key);
+
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return EMPTY;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Collects values per key. Not thread-safe.
+     */
+    public static final class Builder {
+        private final Map<Long, int[]> entries = new HashMap<>();
+        private final Map<Long, Integer> sizes = new HashMap<>();
+
+        public Builder add(long key, int value) {
+            int size = sizes.getOrDefault(key, 0);
+            int[] current = entries.getOrDefault(key, EMPTY);
+            if (size == current.length) {
+                current = Arrays.copyOf(current, Math.max(4, size * 2));
+                entries.put(key, current);
+            }
+
+            current[size] = value;
+            sizes.put(key, size + 1);
+            return this;
+        }
+
+        public LongIntArrayMap build() {
+            Map<Long, int[]> trimmed = new HashMap<>(entries.size());
+            entries.forEach((key, values) -> trimmed.put(key, Arrays.copyOf(values, sizes.get(key))));
+            return new LongIntArrayMap(trimmed);
+        }
+    }
+}
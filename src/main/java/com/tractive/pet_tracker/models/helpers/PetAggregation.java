@@ -0,0 +1,205 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.dtos.PetAggregationDto;
+import com.tractive.pet_tracker.models.dtos.PetGroupDto;
+import com.tractive.pet_tracker.models.enums.PetDimension;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Counts the pets of {@link PetColumns} that match a {@link PetFilter} and owner, grouped by any of the
+ * {@link PetDimension}s. The filter is applied to 64 pets at a time on the bitsets, and only the remaining
+ * pets are looked at. The columns are scanned in parallel chunks, each counting its pets per
+ * tracker code, {@code inZone} and {@code lostTracker} (and per owner bucket if grouped by owner); these
+ * counts are merged and folded into the requested groups at the end.
+ */
+public final class PetAggregation {
+    public static final int MAX_GROUPS = 10_000;
+
+    private static final int CHUNK_WORDS = 1024;
+    private static final int FINE_KEYS = PetColumns.CODES << 2;
+
+    private final List<PetDimension> groupBy;
+    private final Set<PetDimension> dimensions;
+    private final PetFilter filter;
+    private final Long ownerId;
+    private final long ownerBucketSize;
+
+    /**
+     * @param groupBy the dimensions to group by, repeated ones are ignored
+     * @param petType {@code cat} or {@code dog}, or {@code null} for both
+     * @param trackerType the tracker type name, or {@code null} for any
+     * @param inZone the {@code inZone} value, or {@code null} for any
+     * @param lostTracker the {@code lostTracker} value, or {@code null} for any. Only cats have one, so
+     *                    filtering by it leaves out dogs.
+     * @param ownerId the owner, or {@code null} for all
+     * @param ownerBucketSize the number of consecutive owner ids that form one group when grouping by owner
+     *
+     * @throws IllegalArgumentException if a pet or tracker type is unknown or the bucket size is not positive
+     */
+    public PetAggregation(
+        List<PetDimension> groupBy,
+        String petType,
+        String trackerType,
+        Boolean inZone,
+        Boolean lostTracker,
+        Long ownerId,
+        long ownerBucketSize
+    ) {
+        if (ownerBucketSize < 1) {
+            throw new IllegalArgumentException("Owner bucket size must be positive");
+        }
+
+        this.filter = new PetFilter(petType, trackerType, inZone, lostTracker);
+        this.groupBy = groupBy.stream().distinct().toList();
+        this.dimensions = groupBy.isEmpty() ? EnumSet.noneOf(PetDimension.class) : EnumSet.copyOf(groupBy);
+        this.ownerId = ownerId;
+        this.ownerBucketSize = ownerBucketSize;
+    }
+
+    /**
+     * Scans the {@code columns}, which must not change during the call
+     *
+     * @return the groups ordered by owner bucket, species and tracker type, {@code inZone} and {@code lostTracker}
+     *
+     * @throws IllegalArgumentException if there are more than {@link #MAX_GROUPS} groups
+     */
+    public PetAggregationDto apply(PetColumns columns) {
+        int words = columns.words();
+
+        Map<Long, long[]> counts = IntStream.range(0, (words + CHUNK_WORDS - 1) / CHUNK_WORDS)
+            .parallel()
+            .mapToObj(chunk -> scan(columns, chunk * CHUNK_WORDS, Math.min(words, (chunk + 1) * CHUNK_WORDS)))
+            .reduce(PetAggregation::merge)
+            .orElseGet(HashMap::new);
+
+        return fold(counts);
+    }
+
+    /**
+     * @return the counts per fine key ({@code trackerCode << 2 | inZone << 1 | lostTracker}) per owner bucket,
+     * all under bucket 0 if not grouped by owner
+     */
+    private Map<Long, long[]> scan(PetColumns columns, int fromWord, int toWord) {
+        boolean byOwner = dimensions.contains(PetDimension.OWNER_ID);
+        Map<Long, long[]> counts = new HashMap<>();
+        long[] all = new long[FINE_KEYS];
+
+        for (int word = fromWord; word < toWord; word++) {
+            long bits = filter.matches(columns, word);
+            long inZoneBits = columns.inZoneWord(word);
+            long lostTrackerBits = columns.lostTrackerWord(word);
+
+            for (; bits != 0; bits &= bits - 1) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                byte code = columns.trackerCode(slot);
+
+                if (ownerId != null && columns.ownerId(slot) != ownerId) {
+                    continue;
+                }
+
+                int key = code << 2 | (int) (inZoneBits >>> slot & 1) << 1 | (int) (lostTrackerBits >>> slot & 1);
+                long[] group = byOwner ? counts.computeIfAbsent(bucket(columns.ownerId(slot)), b -> new long[FINE_KEYS]) : all;
+                group[key]++;
+            }
+
+            checkGroups(counts.size());
+        }
+
+        if (!byOwner) {
+            counts.put(0L, all);
+        }
+
+        return counts;
+    }
+
+    private PetAggregationDto fold(Map<Long, long[]> counts) {
+        Map<PetGroupDto, long[]> groups = new LinkedHashMap<>();
+        long total = 0;
+
+        for (Map.Entry<Long, long[]> bucket : new TreeMap<>(counts).entrySet()) {
+            for (int key = 0; key < FINE_KEYS; key++) {
+                long count = bucket.getValue()[key];
+                if (count == 0) {
+                    continue;
+                }
+
+                byte code = (byte) (key >>> 2);
+                boolean cat = PetColumns.isCat(code);
+                boolean petInZone = (key & 2) != 0;
+                boolean petLostTracker = (key & 1) != 0;
+
+                // The counts of a key are left at zero, they are summed up in the value
+                PetGroupDto group = new PetGroupDto(
+                    dimensions.contains(PetDimension.PET_TYPE) ? (cat ? "cat" : "dog") : null,
+                    dimensions.contains(PetDimension.TRACKER_TYPE) ? PetFilter.trackerTypeName(code) : null,
+                    dimensions.contains(PetDimension.IN_ZONE) ? petInZone : null,
+                    dimensions.contains(PetDimension.LOST_TRACKER) && cat ? petLostTracker : null,
+                    dimensions.contains(PetDimension.OWNER_ID) ? bucket.getKey() : null,
+                    0, 0, 0
+                );
+
+                long[] sums = groups.computeIfAbsent(group, g -> new long[3]);
+                sums[0] += count;
+                sums[1] += petInZone ? count : 0;
+                sums[2] += petLostTracker ? count : 0;
+                total += count;
+            }
+        }
+        checkGroups(groups.size());
+
+        return new PetAggregationDto(
+            groupBy.stream().map(PetDimension::getField).toList(),
+            total,
+            groups.entrySet().stream()
+                .map(entry -> new PetGroupDto(
+                    entry.getKey().petType(),
+                    entry.getKey().trackerType(),
+                    entry.getKey().inZone(),
+                    entry.getKey().lostTracker(),
+                    entry.getKey().ownerId(),
+                    entry.getValue()[0],
+                    entry.getValue()[1],
+                    entry.getValue()[2]
+                ))
+                .toList()
+        );
+    }
+
+    /**
+     * @return the first owner id of the bucket of the {@code ownerId}
+     */
+    private long bucket(long ownerId) {
+        return ownerId - Math.floorMod(ownerId, ownerBucketSize);
+    }
+
+    private static Map<Long, long[]> merge(Map<Long, long[]> left, Map<Long, long[]> right) {
+        Map<Long, long[]> into = left.size() >= right.size() ? left : right;
+        Map<Long, long[]> from = into == left ? right : left;
+
+        from.forEach((bucket, counts) -> into.merge(bucket, counts, (a, b) -> {
+            for (int key = 0; key < FINE_KEYS; key++) {
+                a[key] += b[key];
+            }
+            return a;
+        }));
+        checkGroups(into.size());
+
+        return into;
+    }
+
+    private static void checkGroups(int groups) {
+        if (groups > MAX_GROUPS) {
+            throw new IllegalArgumentException(
+                String.format("More than %d groups, use a larger owner bucket size or more filters", MAX_GROUPS)
+            );
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetState;
+
+import java.util.Arrays;
+
+/**
+ * Columnar copy of the tracked fields of all pets, addressed by pet id. Every id is a slot in a {@code long}
+ * array of owner ids and a {@code byte} array of tracker codes, and in bitsets for presence, {@code inZone},
+ * {@code lostTracker} and each tracker code, which is about 10 bytes per slot. Pet ids come from a sequence
+ * in blocks of 50, so the slots are dense unless many pets are deleted or the application restarts very often
+ * (a restart skips what is left of its block). Not thread-safe.
+ * <p>
+ * A tracker code is {@link #ABSENT} for a free slot, otherwise it encodes the species and the tracker type;
+ * see {@link #catCode} and {@link #dogCode}.
+ */
+public final class PetColumns {
+    public static final byte ABSENT = 0;
+    public static final int MAX_ID = Integer.MAX_VALUE - 64;
+
+    private static final CatTrackerType[] CAT_TRACKER_TYPES = CatTrackerType.values();
+    private static final DogTrackerType[] DOG_TRACKER_TYPES = DogTrackerType.values();
+    private static final int FIRST_DOG_CODE = 1 + CAT_TRACKER_TYPES.length;
+
+    /** The number of distinct tracker codes, {@link #ABSENT} included */
+    public static final int CODES = FIRST_DOG_CODE + DOG_TRACKER_TYPES.length;
+
+    private long[] ownerIds;
+    private byte[] trackerCodes;
+    private long[] present;
+    private long[] inZone;
+    private long[] lostTracker;
+    /** One bitset per tracker code, {@code null} for {@link #ABSENT} */
+    private final long[][] trackerCodeBits = new long[CODES][];
+
+    private int slots;
+    private int size;
+
+    public PetColumns(int initialCapacity) {
+        int capacity = Math.max(64, initialCapacity);
+        ownerIds = new long[capacity];
+        trackerCodes = new byte[capacity];
+        present = new long[words(capacity)];
+        inZone = new long[words(capacity)];
+        lostTracker = new long[words(capacity)];
+        for (int code = 1; code < CODES; code++) {
+            trackerCodeBits[code] = new long[words(capacity)];
+        }
+    }
+
+    public static byte catCode(CatTrackerType trackerType) {
+        return (byte) (1 + trackerType.ordinal());
+    }
+
+    public static byte dogCode(DogTrackerType trackerType) {
+        return (byte) (FIRST_DOG_CODE + trackerType.ordinal());
+    }
+
+    public static boolean isCat(byte code) {
+        return code != ABSENT && code < FIRST_DOG_CODE;
+    }
+
+    public static byte trackerCode(PetState state) {
+        return switch (state) {
+            case PetState.CatState cat -> catCode(cat.trackerType());
+            case PetState.DogState dog -> dogCode(dog.trackerType());
+        };
+    }
+
+    public static CatTrackerType catTrackerType(byte code) {
+        return CAT_TRACKER_TYPES[code - 1];
+    }
+
+    public static DogTrackerType dogTrackerType(byte code) {
+        return DOG_TRACKER_TYPES[code - FIRST_DOG_CODE];
+    }
+
+    /**
+     * Inserts or overwrites the pet with the id of the {@code state}
+     *
+     * @throws IllegalArgumentException if the id is not between 1 and {@link #MAX_ID}
+     */
+    public void put(PetState state) {
+        int slot = slot(state.id());
+        ensureCapacity(slot + 1);
+
+        if (trackerCodes[slot] == ABSENT) {
+            size++;
+        } else {
+            set(trackerCodeBits[trackerCodes[slot]], slot, false);
+        }
+        slots = Math.max(slots, slot + 1);
+
+        byte code = trackerCode(state);
+        ownerIds[slot] = state.ownerId();
+        trackerCodes[slot] = code;
+        set(present, slot, true);
+        set(inZone, slot, state.inZone());
+        set(lostTracker, slot, state instanceof PetState.CatState cat && cat.lostTracker());
+        set(trackerCodeBits[code], slot, true);
+    }
+
+    /**
+     * @return whether there was a pet with this id
+     */
+    public boolean remove(long id) {
+        if (!contains(id)) {
+            return false;
+        }
+
+        int slot = (int) id;
+        set(trackerCodeBits[trackerCodes[slot]], slot, false);
+        ownerIds[slot] = 0;
+        trackerCodes[slot] = ABSENT;
+        set(present, slot, false);
+        set(inZone, slot, false);
+        set(lostTracker, slot, false);
+        size--;
+
+        return true;
+    }
+
+    /**
+     * @return whether a pet with this id has a slot, which is the case for ids between 1 and {@link #MAX_ID}
+     */
+    public static boolean fits(long id) {
+        return id >= 1 && id <= MAX_ID;
+    }
+
+    public boolean contains(long id) {
+        return id > 0 && id < slots && trackerCodes[(int) id] != ABSENT;
+    }
+
+    /**
+     * @return the state of the pet, or {@code null} if there is no pet with this id
+     */
+    public PetState get(long id) {
+        if (!contains(id)) {
+            return null;
+        }
+
+        int slot = (int) id;
+        byte code = trackerCodes[slot];
+
+        return isCat(code)
+            ? new PetState.CatState(id, ownerIds[slot], inZone(slot), catTrackerType(code), lostTracker(slot))
+            : new PetState.DogState(id, ownerIds[slot], inZone(slot), dogTrackerType(code));
+    }
+
+    public void clear() {
+        Arrays.fill(ownerIds, 0, slots, 0);
+        Arrays.fill(trackerCodes, 0, slots, ABSENT);
+        Arrays.fill(present, 0);
+        Arrays.fill(inZone, 0);
+        Arrays.fill(lostTracker, 0);
+        for (int code = 1; code < CODES; code++) {
+            Arrays.fill(trackerCodeBits[code], 0);
+        }
+        slots = 0;
+        size = 0;
+    }
+
+    /**
+     * @return the number of pets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return one more than the highest id in use, the upper bound of a scan
+     */
+    public int slots() {
+        return slots;
+    }
+
+    /**
+     * @return the number of 64-bit words a scan over the bitsets has to visit
+     */
+    public int words() {
+        return words(slots);
+    }
+
+    public long ownerId(int slot) {
+        return ownerIds[slot];
+    }
+
+    public byte trackerCode(int slot) {
+        return trackerCodes[slot];
+    }
+
+    public boolean inZone(int slot) {
+        return (inZone[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    public boolean lostTracker(int slot) {
+        return (lostTracker[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * @return the presence bits of the slots {@code 64 * word} to {@code 64 * word + 63}
+     */
+    public long presentWord(int word) {
+        return present[word];
+    }
+
+    public long inZoneWord(int word) {
+        return inZone[word];
+    }
+
+    public long lostTrackerWord(int word) {
+        return lostTracker[word];
+    }
+
+    /**
+     * @param code a tracker code other than {@link #ABSENT}
+     */
+    public long trackerCodeWord(byte code, int word) {
+        return trackerCodeBits[code][word];
+    }
+
+    /**
+     * @return the heap size of the columns in bytes, array headers left out
+     */
+    public long memoryBytes() {
+        return 8L * ownerIds.length + trackerCodes.length + 8L * (CODES + 2) * present.length;
+    }
+
+    private static int slot(long id) {
+        if (!fits(id)) {
+            throw new IllegalArgumentException("Pet id out of range: " + id);
+        }
+
+        return (int) id;
+    }
+
+    private static int words(int slots) {
+        return (slots + 63) >>> 6;
+    }
+
+    private static void set(long[] bits, int slot, boolean value) {
+        if (value) {
+            bits[slot >>> 6] |= 1L << slot;
+        } else {
+            bits[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ownerIds.length) {
+            return;
+        }
+
+        int grown = (int) Math.min(MAX_ID + 1L, Math.max(capacity, ownerIds.length + (ownerIds.length >> 1)));
+        ownerIds = Arrays.copyOf(ownerIds, grown);
+        trackerCodes = Arrays.copyOf(trackerCodes, grown);
+        present = Arrays.copyOf(present, words(grown));
+        inZone = Arrays.copyOf(inZone, words(grown));
+        lostTracker = Arrays.copyOf(lostTracker, words(grown));
+        for (int code = 1; code < CODES; code++) {
+            trackerCodeBits[code] = Arrays.copyOf(trackerCodeBits[code], words(grown));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Encodes the position of a keyset page as an opaque, URL-safe continuation token
+ */
+public final class PetCursor {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private PetCursor() { }
+
+    /**
+     * Encodes the id of the last pet of a page
+     *
+     * @param lastId the id of the last returned pet
+     * @return the continuation token
+     */
+    public static String encode(long lastId) {
+        return ENCODER.encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(lastId).array());
+    }
+
+    /**
+     * Decodes a continuation token created by {@link #encode(long)}
+     *
+     * @param cursor the continuation token
+     * @return the id of the last pet of the previous page
+     *
+     * @throws IllegalArgumentException if the {@code cursor} is malformed
+     */
+    public static long decode(String cursor) {
+        byte[] bytes = DECODER.decode(cursor);
+        if (bytes.length != Long.BYTES) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+
+        long lastId = ByteBuffer.wrap(bytes).getLong();
+        if (lastId < 0) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+
+        return lastId;
+    }
+}
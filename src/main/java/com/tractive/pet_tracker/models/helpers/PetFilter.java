@@ -0,0 +1,119 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.events.PetState;
+
+import java.util.Arrays;
+
+/**
+ * Filter on the low-cardinality fields of pets: species, tracker type, {@code inZone} and {@code lostTracker}.
+ * On {@link PetColumns} it is evaluated for 64 pets at a time by combining the bitsets of the columns.
+ * Only cats have a lost tracker, so filtering by {@code lostTracker} leaves out dogs.
+ */
+public final class PetFilter {
+    private final boolean[] allowed = new boolean[PetColumns.CODES];
+    /** The allowed tracker codes, or {@code null} if all of them are */
+    private final byte[] codes;
+    private final Boolean inZone;
+    private final Boolean lostTracker;
+
+    /**
+     * @param petType {@code cat} or {@code dog}, case-insensitive, or {@code null} for both
+     * @param trackerType the tracker type name, case-insensitive, or {@code null} for any
+     * @param inZone the {@code inZone} value, or {@code null} for any
+     * @param lostTracker the {@code lostTracker} value, or {@code null} for any
+     *
+     * @throws IllegalArgumentException if the pet or tracker type is unknown
+     */
+    public PetFilter(String petType, String trackerType, Boolean inZone, Boolean lostTracker) {
+        if (petType != null && !petType.equalsIgnoreCase("cat") && !petType.equalsIgnoreCase("dog")) {
+            throw new IllegalArgumentException("Unknown pet type: " + petType);
+        }
+
+        boolean knownTrackerType = trackerType == null;
+        byte[] matching = new byte[PetColumns.CODES];
+        int count = 0;
+
+        for (byte code = 1; code < PetColumns.CODES; code++) {
+            boolean cat = PetColumns.isCat(code);
+            boolean trackerTypeMatches = trackerType == null || trackerTypeName(code).equalsIgnoreCase(trackerType);
+
+            knownTrackerType |= trackerTypeMatches;
+            allowed[code] = trackerTypeMatches
+                && (petType == null || petType.equalsIgnoreCase("cat") == cat)
+                && (lostTracker == null || cat);
+            if (allowed[code]) {
+                matching[count++] = code;
+            }
+        }
+        if (!knownTrackerType) {
+            throw new IllegalArgumentException("Unknown tracker type: " + trackerType);
+        }
+
+        this.codes = count == PetColumns.CODES - 1 ? null : Arrays.copyOf(matching, count);
+        this.inZone = inZone;
+        this.lostTracker = lostTracker;
+    }
+
+    public static String trackerTypeName(byte code) {
+        return PetColumns.isCat(code) ? PetColumns.catTrackerType(code).name() : PetColumns.dogTrackerType(code).name();
+    }
+
+    public boolean matches(PetState state) {
+        return allowed[PetColumns.trackerCode(state)]
+            && (inZone == null || inZone == state.inZone())
+            && (lostTracker == null || state instanceof PetState.CatState cat && cat.lostTracker() == lostTracker);
+    }
+
+    /**
+     * @return the matching pets among the slots {@code 64 * word} to {@code 64 * word + 63}, one bit per slot
+     */
+    public long matches(PetColumns columns, int word) {
+        long bits = columns.presentWord(word);
+
+        if (inZone != null) {
+            bits &= inZone ? columns.inZoneWord(word) : ~columns.inZoneWord(word);
+        }
+        if (lostTracker != null) {
+            bits &= lostTracker ? columns.lostTrackerWord(word) : ~columns.lostTrackerWord(word);
+        }
+        if (codes != null && bits != 0) {
+            long anyCode = 0;
+            for (byte code : codes) {
+                anyCode |= columns.trackerCodeWord(code, word);
+            }
+            bits &= anyCode;
+        }
+
+        return bits;
+    }
+
+    /**
+     * Finds the first matching pets after a given id, in id order
+     *
+     * @param afterId the id to start after, 0 to start at the beginning
+     * @param limit the maximum number of ids
+     * @return the ids of up to {@code limit} matching pets
+     */
+    public long[] next(PetColumns columns, long afterId, int limit) {
+        if (afterId + 1 >= columns.slots()) {
+            return new long[0];
+        }
+
+        long[] ids = new long[limit];
+        int count = 0;
+
+        int first = (int) Math.max(0, afterId + 1);
+        for (int word = first >>> 6, words = columns.words(); word < words && count < limit; word++) {
+            long bits = matches(columns, word);
+            if (word == first >>> 6) {
+                bits &= -1L << first;
+            }
+
+            for (; bits != 0 && count < limit; bits &= bits - 1) {
+                ids[count++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+
+        return count == limit ? ids : Arrays.copyOf(ids, count);
+    }
+}
@@ -0,0 +1,14 @@
+package com.tractive.pet_tracker.models.helpers;
+
+/**
+ * The serialized JSON of a pet with its entity tag
+ *
+ * @param body the JSON, shared between callers and therefore not to be modified
+ * @param etag the quoted strong entity tag of the {@code body}, see {@link ETags#of(byte[])}
+ */
+public record PetJson(byte[] body, String etag) {
+
+    public static PetJson of(byte[] body) {
+        return new PetJson(body, ETags.of(body));
+    }
+}
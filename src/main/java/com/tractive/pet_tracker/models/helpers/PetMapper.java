@@ -6,43 +6,71 @@ import com.tractive.pet_tracker.models.dtos.PetDto;
 import com.tractive.pet_tracker.models.entities.Cat;
 import com.tractive.pet_tracker.models.entities.Dog;
 import com.tractive.pet_tracker.models.entities.Pet;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import com.tractive.pet_tracker.models.events.PetState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps between the pet DTOs and entities field by field. The entity id is never overwritten from a DTO.
+ * Every call is recorded in the {@code pet.mapper} timer, tagged with the method name.
+ */
 @Component
-@RequiredArgsConstructor
 public class PetMapper {
-    private final ModelMapper modelMapper;
+    private final Timer dtoToEntityTimer;
+    private final Timer dtoOntoEntityTimer;
+    private final Timer entityToDtoTimer;
+    private final Timer stateToDtoTimer;
+
+    /**
+     * Creates a mapper whose timers record nothing, since a composite registry without registries is a no-op
+     */
+    public PetMapper() {
+        this(new CompositeMeterRegistry());
+    }
+
+    @Autowired
+    public PetMapper(MeterRegistry meterRegistry) {
+        this.dtoToEntityTimer = timer(meterRegistry, "mapDtoToEntity");
+        this.dtoOntoEntityTimer = timer(meterRegistry, "mapDtoOntoEntity");
+        this.entityToDtoTimer = timer(meterRegistry, "mapEntityToDto");
+        this.stateToDtoTimer = timer(meterRegistry, "mapStateToDto");
+    }
 
     /**
      * Maps the {@code petDto} to corresponding entity type
      *
      * @param petDto the PetDto
-     * @return PetDto
-     *
-     * @throws IllegalArgumentException if the {@code petDto} type is not known
+     * @return Pet (Cat or Dog)
      */
     public Pet mapDtoToEntity(PetDto petDto) {
-        return modelMapper.map(petDto, getPetClass(petDto));
+        long start = System.nanoTime();
+        try {
+            return toEntity(petDto);
+        } finally {
+            record(dtoToEntityTimer, start);
+        }
     }
 
-
     /**
-     * Maps the {@code petDto} to {@code pet}
+     * Maps the {@code petDto} onto the given {@code pet}
      *
      * @param petDto the PetDto
      * @param pet The Pet Entity
      *
-     * @throws IllegalArgumentException if the {@code petDto} and {@code pet} type is the same
+     * @throws IllegalArgumentException if the {@code petDto} and {@code pet} types do not match
      */
     public void mapDtoToEntity(PetDto petDto, Pet pet) {
-        if (getPetClass(petDto).isInstance(pet)) {
-            modelMapper.map(petDto, pet);
-            return;
+        long start = System.nanoTime();
+        try {
+            copy(petDto, pet);
+        } finally {
+            record(dtoOntoEntityTimer, start);
         }
-
-        throw new IllegalArgumentException("Unknown pet type: " + pet.getClass().getSimpleName());
     }
 
     /**
@@ -54,42 +82,110 @@ public class PetMapper {
      * @throws IllegalArgumentException if the {@code pet} type is not known
      */
     public PetDto mapEntityToDto(Pet pet) {
-        return modelMapper.map(pet, getPetDtoClass(pet));
+        long start = System.nanoTime();
+        try {
+            return toDto(pet);
+        } finally {
+            record(entityToDtoTimer, start);
+        }
     }
 
     /**
-     * Gets the {@code petDto}'s corresponding entity class
+     * Maps the {@code state} to corresponding DTO type
      *
-     * @param petDto the PetDto
-     * @return Pet (Cat or Dog)
-     *
-     * @throws IllegalArgumentException if the {@code petDto} type is not known
+     * @param state The PetState
+     * @return PetDto
      */
-    private Class<? extends Pet> getPetClass(PetDto petDto) {
-        if (petDto instanceof CatDto) {
-            return Cat.class;
-        } else if (petDto instanceof DogDto) {
-            return Dog.class;
+    public PetDto mapStateToDto(PetState state) {
+        long start = System.nanoTime();
+        try {
+            return toDto(state);
+        } finally {
+            record(stateToDtoTimer, start);
         }
+    }
 
-        throw new IllegalArgumentException("Unknown PetDto type: " + petDto.getClass().getSimpleName());
+    private static Pet toEntity(PetDto petDto) {
+        return switch (petDto) {
+            case CatDto catDto -> {
+                Cat cat = new Cat();
+                copyCat(catDto, cat);
+                yield cat;
+            }
+            case DogDto dogDto -> {
+                Dog dog = new Dog();
+                copyDog(dogDto, dog);
+                yield dog;
+            }
+        };
     }
 
-    /**
-     * Gets the {@code petDto}'s corresponding entity class
-     *
-     * @param pet The Pet Entity
-     * @return PetDto (CatDto or DogDto)
-     *
-     * @throws IllegalArgumentException if the {@code pet} type is not known
-     */
-    private Class<? extends PetDto> getPetDtoClass(Pet pet) {
-        if (pet instanceof Cat) {
-            return CatDto.class;
-        } else if (pet instanceof Dog) {
-            return DogDto.class;
+    private static void copy(PetDto petDto, Pet pet) {
+        switch (petDto) {
+            case CatDto catDto when pet instanceof Cat cat -> copyCat(catDto, cat);
+            case DogDto dogDto when pet instanceof Dog dog -> copyDog(dogDto, dog);
+            default -> throw new IllegalArgumentException("Unknown pet type: " + pet.getClass().getSimpleName());
         }
+    }
+
+    private static PetDto toDto(Pet pet) {
+        return switch (pet) {
+            case Cat cat -> CatDto.builder()
+                .id(cat.getId())
+                .ownerId(cat.getOwnerId())
+                .inZone(cat.getInZone())
+                .trackerType(cat.getTrackerType())
+                .lostTracker(cat.getLostTracker())
+                .build();
+            case Dog dog -> DogDto.builder()
+                .id(dog.getId())
+                .ownerId(dog.getOwnerId())
+                .inZone(dog.getInZone())
+                .trackerType(dog.getTrackerType())
+                .build();
+            default -> throw new IllegalArgumentException("Unknown Pet type: " + pet.getClass().getSimpleName());
+        };
+    }
+
+    private static PetDto toDto(PetState state) {
+        return switch (state) {
+            case PetState.CatState cat -> CatDto.builder()
+                .id(cat.id())
+                .ownerId(cat.ownerId())
+                .inZone(cat.inZone())
+                .trackerType(cat.trackerType())
+                .lostTracker(cat.lostTracker())
+                .build();
+            case PetState.DogState dog -> DogDto.builder()
+                .id(dog.id())
+                .ownerId(dog.ownerId())
+                .inZone(dog.inZone())
+                .trackerType(dog.trackerType())
+                .build();
+        };
+    }
+
+    private static void copyCat(CatDto catDto, Cat cat) {
+        cat.setOwnerId(catDto.getOwnerId());
+        cat.setInZone(catDto.getInZone());
+        cat.setTrackerType(catDto.getTrackerType());
+        cat.setLostTracker(catDto.getLostTracker());
+    }
+
+    private static void copyDog(DogDto dogDto, Dog dog) {
+        dog.setOwnerId(dogDto.getOwnerId());
+        dog.setInZone(dogDto.getInZone());
+        dog.setTrackerType(dogDto.getTrackerType());
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String method) {
+        return Timer.builder("pet.mapper")
+            .description("Time spent mapping between pet DTOs, entities and states")
+            .tag("method", method)
+            .register(meterRegistry);
+    }
 
-        throw new IllegalArgumentException("Unknown Pet type: " + pet.getClass().getSimpleName());
+    private static void record(Timer timer, long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
 }
@@ -0,0 +1,68 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.dtos.CircleZoneDto;
+import com.tractive.pet_tracker.models.dtos.CoordinateDto;
+import com.tractive.pet_tracker.models.dtos.PolygonZoneDto;
+import com.tractive.pet_tracker.models.dtos.SafeZoneDto;
+import com.tractive.pet_tracker.models.entities.SafeZone;
+import com.tractive.pet_tracker.models.entities.ZoneVertex;
+import com.tractive.pet_tracker.models.enums.ZoneShape;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+
+/**
+ * Maps between the safe zone DTOs and the SafeZone entity. The entity id is never taken from a DTO.
+ */
+@Component
+public class SafeZoneMapper {
+
+    /**
+     * Maps the {@code zoneDto} to a new entity
+     *
+     * @param zoneDto the SafeZoneDto
+     * @return SafeZone
+     */
+    public SafeZone mapDtoToEntity(SafeZoneDto zoneDto) {
+        return switch (zoneDto) {
+            case CircleZoneDto circle -> SafeZone.builder()
+                .ownerId(circle.ownerId())
+                .shape(ZoneShape.CIRCLE)
+                .latitude(circle.center().latitude())
+                .longitude(circle.center().longitude())
+                .radius(circle.radius())
+                .build();
+            case PolygonZoneDto polygon -> SafeZone.builder()
+                .ownerId(polygon.ownerId())
+                .shape(ZoneShape.POLYGON)
+                .vertices(new ArrayList<>(polygon.vertices().stream()
+                    .map(vertex -> new ZoneVertex(vertex.latitude(), vertex.longitude()))
+                    .toList()))
+                .build();
+        };
+    }
+
+    /**
+     * Maps the {@code zone} to corresponding DTO type
+     *
+     * @param zone The SafeZone Entity
+     * @return SafeZoneDto (CircleZoneDto or PolygonZoneDto)
+     */
+    public SafeZoneDto mapEntityToDto(SafeZone zone) {
+        return switch (zone.getShape()) {
+            case CIRCLE -> new CircleZoneDto(
+                zone.getId(),
+                zone.getOwnerId(),
+                new CoordinateDto(zone.getLatitude(), zone.getLongitude()),
+                zone.getRadius()
+            );
+            case POLYGON -> new PolygonZoneDto(
+                zone.getId(),
+                zone.getOwnerId(),
+                zone.getVertices().stream()
+                    .map(vertex -> new CoordinateDto(vertex.getLatitude(), vertex.getLongitude()))
+                    .toList()
+            );
+        };
+    }
+}
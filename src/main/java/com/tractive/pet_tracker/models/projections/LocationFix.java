@@ -0,0 +1,6 @@
+package com.tractive.pet_tracker.models.projections;
+
+/**
+ * A record of the location log. {@code timestamp} is in epoch milliseconds.
+ */
+public record LocationFix(long petId, long timestamp, double latitude, double longitude) { }
@@ -0,0 +1,3 @@
+package com.tractive.pet_tracker.models.projections;
+
+public record PetZoneProjection(long id, long ownerId, Boolean inZone) { }
@@ -0,0 +1,43 @@
+package com.tractive.pet_tracker.repositories;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Forces the file-backed H2 database of the {@code durable} profile to the disk. H2 writes committed changes
+ * to the file within its write delay, so a process crash loses at most that delay; these periodic
+ * checkpoints bound what a power loss can take to one checkpoint interval. Nothing depends on it, so it is
+ * never lazy, or the checkpoints would not be scheduled under lazy initialization.
+ */
+@Slf4j
+@Component
+@Profile("durable")
+@Lazy(false)
+public class DatabaseCheckpoints {
+    private final JdbcClient jdbcClient;
+    private final Timer timer;
+
+    @Autowired
+    public DatabaseCheckpoints(JdbcClient jdbcClient, MeterRegistry meterRegistry) {
+        this.jdbcClient = jdbcClient;
+        this.timer = Timer.builder("pet.storage.checkpoint")
+            .description("Time spent forcing the database file to the disk")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(
+        initialDelayString = "${pet-tracker.storage.checkpoint-interval:PT1M}",
+        fixedDelayString = "${pet-tracker.storage.checkpoint-interval:PT1M}"
+    )
+    public void checkpoint() {
+        timer.record(() -> jdbcClient.sql("CHECKPOINT SYNC").update());
+        log.debug("Checkpointed the database");
+    }
+}
@@ -0,0 +1,386 @@
+package com.tractive.pet_tracker.repositories;
+
+import com.tractive.pet_tracker.models.projections.LocationFix;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only store of location fixes in memory-mapped {@link LocationSegment}s. Every record has a global
+ * position in append order; a new segment is started whenever the last one is full. An in-memory index keeps
+ * the positions of every pet, so reads never scan other pets' records. The index is rebuilt from the
+ * segments on startup, which also finds the end of the log after a crash.
+ * <p>
+ * Only the last {@code retained-segments} segments are kept: once a new segment takes the log past that,
+ * the oldest segments are deleted and their positions are dropped from the index, which bounds both the
+ * disk and the heap used by the log.
+ * <p>
+ * Appends are serialized by a lock, reads do not lock. A batch is only added to the index once all of its
+ * records are written, so a failed append leaves no trace. Written pages reach the disk periodically, on
+ * rollover and on shutdown; a process crash loses nothing, a power loss up to one flush interval.
+ */
+@Slf4j
+@Repository
+public class LocationLog {
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final int retainedSegments;
+
+    /** The retained segments by number; a segment's first position is its number times its capacity */
+    private final Map<Long, LocationSegment> segments = new ConcurrentHashMap<>();
+    private final Map<Long, Positions> index = new ConcurrentHashMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private volatile LocationSegment lastSegment;
+    private volatile long firstSegment;
+    private volatile long size;
+
+    @Autowired
+    public LocationLog(
+        @Value("${pet-tracker.telemetry.directory}") Path directory,
+        @Value("${pet-tracker.telemetry.records-per-segment:1048576}") int recordsPerSegment,
+        @Value("${pet-tracker.telemetry.retained-segments:64}") int retainedSegments
+    ) throws IOException {
+        if (recordsPerSegment <= 0 || recordsPerSegment > Integer.MAX_VALUE / LocationSegment.RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid number of records per segment: " + recordsPerSegment);
+        }
+        if (retainedSegments <= 0) {
+            throw new IllegalArgumentException("Invalid number of retained segments: " + retainedSegments);
+        }
+
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.retainedSegments = retainedSegments;
+
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Appends the {@code fixes} in order
+     *
+     * @param fixes the fixes to append
+     *
+     * @throws IllegalArgumentException if a fix has a non-positive pet id
+     */
+    public void appendAll(List<LocationFix> fixes) {
+        for (LocationFix fix : fixes) {
+            if (fix.petId() <= 0) {
+                throw new IllegalArgumentException("Pet id must be positive: " + fix.petId());
+            }
+        }
+
+        appendLock.lock();
+        try {
+            long start = size;
+            long position = start;
+
+            try {
+                for (LocationFix fix : fixes) {
+                    segmentForAppend(position).write(slot(position), fix);
+                    position++;
+                }
+            } catch (RuntimeException e) {
+                // The next append writes over these slots, but a restart before that must not recover them
+                for (long written = start; written < position; written++) {
+                    segments.get(written / recordsPerSegment).clear(slot(written));
+                }
+                throw e;
+            }
+
+            for (int i = 0; i < fixes.size(); i++) {
+                index.computeIfAbsent(fixes.get(i).petId(), petId -> new Positions()).add(start + i);
+            }
+            size = position;
+
+            dropExpiredSegments();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the last appended fixes of a pet
+     *
+     * @param petId the id of the Pet
+     * @param limit the maximum number of fixes
+     * @return the fixes, oldest first
+     */
+    public List<LocationFix> findRecent(long petId, int limit) {
+        Positions positions = index.get(petId);
+        if (positions == null) {
+            return List.of();
+        }
+
+        long[] last = positions.last(limit);
+        List<LocationFix> fixes = new ArrayList<>(last.length);
+
+        for (long position : last) {
+            LocationSegment segment = segment(position);
+            if (segment != null) {
+                fixes.add(segment.read(slot(position)));
+            }
+        }
+
+        fixes.sort(Comparator.comparingLong(LocationFix::timestamp));
+        return fixes;
+    }
+
+    /**
+     * Reads the fixes of a pet within a time range. Fixes can arrive out of order, so all positions of
+     * the pet are checked, but only the timestamps of those outside the range are read.
+     *
+     * @param petId the id of the Pet
+     * @param from the start of the range in epoch milliseconds, inclusive
+     * @param to the end of the range in epoch milliseconds, exclusive
+     * @param limit the maximum number of fixes
+     * @return the earliest {@code limit} fixes in the range, oldest first
+     */
+    public List<LocationFix> findBetween(long petId, long from, long to, int limit) {
+        Positions positions = index.get(petId);
+        if (positions == null) {
+            return List.of();
+        }
+
+        List<LocationFix> fixes = new ArrayList<>();
+        for (long position : positions.snapshot()) {
+            LocationSegment segment = segment(position);
+            if (segment == null) {
+                continue;
+            }
+
+            long timestamp = segment.timestamp(slot(position));
+            if (timestamp >= from && timestamp < to) {
+                fixes.add(segment.read(slot(position)));
+            }
+        }
+
+        fixes.sort(Comparator.comparingLong(LocationFix::timestamp));
+        return fixes.size() > limit ? List.copyOf(fixes.subList(0, limit)) : fixes;
+    }
+
+    /**
+     * @return the number of fixes appended to the log, including those in segments that were since deleted
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Writes the pages of the segment being appended to to the disk
+     */
+    @Scheduled(
+        initialDelayString = "${pet-tracker.telemetry.flush-interval:PT1S}",
+        fixedDelayString = "${pet-tracker.telemetry.flush-interval:PT1S}"
+    )
+    public void flush() {
+        LocationSegment segment = lastSegment;
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        appendLock.lock();
+        try {
+            segments.values().forEach(LocationSegment::force);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return the segment holding the position, or {@code null} if it was deleted
+     */
+    private LocationSegment segment(long position) {
+        return segments.get(position / recordsPerSegment);
+    }
+
+    private int slot(long position) {
+        return (int) (position % recordsPerSegment);
+    }
+
+    private LocationSegment segmentForAppend(long position) {
+        long number = position / recordsPerSegment;
+        LocationSegment segment = segments.get(number);
+
+        if (segment == null) {
+            try {
+                segment = LocationSegment.open(segmentPath(number), recordsPerSegment);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create location segment " + segmentPath(number), e);
+            }
+            if (lastSegment != null) {
+                lastSegment.force();
+            }
+            segments.put(number, segment);
+            lastSegment = segment;
+            log.info("Started location segment {}", segment.path());
+        }
+
+        return segment;
+    }
+
+    /**
+     * Deletes the segments before the last {@code retainedSegments} ones and drops their positions from the
+     * index. A reader that still holds such a position skips it.
+     */
+    private void dropExpiredSegments() {
+        long first = size == 0 ? 0 : (size - 1) / recordsPerSegment - retainedSegments + 1;
+        if (first <= firstSegment) {
+            return;
+        }
+
+        for (long number = firstSegment; number < first; number++) {
+            LocationSegment segment = segments.remove(number);
+            if (segment == null) {
+                continue;
+            }
+
+            try {
+                Files.deleteIfExists(segment.path());
+                log.info("Deleted expired location segment {}", segment.path());
+            } catch (IOException e) {
+                log.warn("Cannot delete expired location segment {}", segment.path(), e);
+            }
+        }
+        firstSegment = first;
+
+        long firstPosition = first * recordsPerSegment;
+        index.replaceAll((petId, positions) -> positions.from(firstPosition));
+        index.values().removeIf(Positions::isEmpty);
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%020d%s", number, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Maps the existing segments, which may start after segment 0 if older ones were deleted, rebuilds the
+     * index and applies the retention
+     *
+     * @throws IllegalStateException if a segment is missing or a segment other than the last is not full
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+
+        long first = files.isEmpty() ? 0 : segmentNumber(files.getFirst());
+        long position = first * recordsPerSegment;
+
+        for (int i = 0; i < files.size(); i++) {
+            long number = first + i;
+            if (!files.get(i).equals(segmentPath(number))) {
+                throw new IllegalStateException("Missing location segment " + segmentPath(number));
+            }
+
+            LocationSegment segment = LocationSegment.open(segmentPath(number), recordsPerSegment);
+            int written = segment.written();
+
+            if (written < recordsPerSegment && i < files.size() - 1) {
+                throw new IllegalStateException("Location segment " + segment.path() + " is incomplete");
+            }
+
+            segments.put(number, segment);
+            lastSegment = segment;
+            for (int slot = 0; slot < written; slot++) {
+                index.computeIfAbsent(segment.petId(slot), petId -> new Positions()).add(position++);
+            }
+        }
+
+        firstSegment = first;
+        size = position;
+        dropExpiredSegments();
+        log.info("Recovered {} location fixes of {} pets from {} segments", size, index.size(), segments.size());
+    }
+
+    private long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Unexpected location segment name " + file, e);
+        }
+    }
+
+    /**
+     * Growable positions of one pet. Only the appending thread adds, and it publishes the array before
+     * the size, so a reader that sees a size also sees an array holding that many positions.
+     */
+    private static final class Positions {
+        private volatile long[] positions;
+        private volatile int size;
+
+        Positions() {
+            this(new long[8], 0);
+        }
+
+        private Positions(long[] positions, int size) {
+            this.positions = positions;
+            this.size = size;
+        }
+
+        void add(long position) {
+            long[] current = positions;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                positions = current;
+            }
+
+            current[size] = position;
+            size = size + 1;
+        }
+
+        long[] snapshot() {
+            int count = size;
+            return Arrays.copyOf(positions, count);
+        }
+
+        long[] last(int limit) {
+            int count = size;
+            int from = Math.max(0, count - limit);
+            return Arrays.copyOfRange(positions, from, count);
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * @return these positions if all are at or after {@code firstPosition}, otherwise a copy of those that are
+         */
+        Positions from(long firstPosition) {
+            int count = size;
+            long[] current = positions;
+            int from = Arrays.binarySearch(current, 0, count, firstPosition);
+            from = from < 0 ? -from - 1 : from;
+
+            if (from == 0) {
+                return this;
+            }
+
+            long[] kept = Arrays.copyOfRange(current, from, Math.max(count, from + 8));
+            return new Positions(kept, count - from);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.tractive.pet_tracker.repositories;
+
+import com.tractive.pet_tracker.models.projections.LocationFix;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A fixed-size, memory-mapped file of {@link LocationFix} records of {@value #RECORD_SIZE} bytes each:
+ * pet id, timestamp, latitude and longitude. A new segment is zero-filled, and since the pet id is written
+ * last and is never zero, the first slot with a zero pet id marks the end of the written records.
+ */
+final class LocationSegment {
+    static final int RECORD_SIZE = 32;
+
+    private static final int PET_ID = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int LATITUDE = 16;
+    private static final int LONGITUDE = 24;
+
+    private final Path path;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+
+    private LocationSegment(Path path, int capacity, MappedByteBuffer buffer) {
+        this.path = path;
+        this.capacity = capacity;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps the segment file, creating it if it does not exist
+     *
+     * @param path the segment file
+     * @param capacity the number of records of a segment
+     * @return LocationSegment
+     *
+     * @throws IllegalStateException if the file exists with a different capacity
+     */
+    static LocationSegment open(Path path, int capacity) throws IOException {
+        long bytes = (long) capacity * RECORD_SIZE;
+
+        try (FileChannel channel = FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        )) {
+            if (channel.size() != 0 && channel.size() != bytes) {
+                throw new IllegalStateException(String.format(
+                    "Location segment %s has %d bytes, expected %d", path, channel.size(), bytes
+                ));
+            }
+
+            // The mapping stays valid after the channel is closed
+            return new LocationSegment(path, capacity, channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes));
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    void write(int slot, LocationFix fix) {
+        int offset = slot * RECORD_SIZE;
+
+        buffer.putLong(offset + TIMESTAMP, fix.timestamp());
+        buffer.putDouble(offset + LATITUDE, fix.latitude());
+        buffer.putDouble(offset + LONGITUDE, fix.longitude());
+        buffer.putLong(offset + PET_ID, fix.petId());
+    }
+
+    /**
+     * Marks the slot as never written again
+     */
+    void clear(int slot) {
+        buffer.putLong(slot * RECORD_SIZE + PET_ID, 0);
+    }
+
+    LocationFix read(int slot) {
+        int offset = slot * RECORD_SIZE;
+
+        return new LocationFix(
+            buffer.getLong(offset + PET_ID),
+            buffer.getLong(offset + TIMESTAMP),
+            buffer.getDouble(offset + LATITUDE),
+            buffer.getDouble(offset + LONGITUDE)
+        );
+    }
+
+    long timestamp(int slot) {
+        return buffer.getLong(slot * RECORD_SIZE + TIMESTAMP);
+    }
+
+    long petId(int slot) {
+        return buffer.getLong(slot * RECORD_SIZE + PET_ID);
+    }
+
+    /**
+     * Counts the written records
+     *
+     * @return the slot of the first record that was never written, or the capacity if the segment is full
+     */
+    int written() {
+        int slot = 0;
+        while (slot < capacity && petId(slot) != 0) {
+            slot++;
+        }
+
+        return slot;
+    }
+
+    void force() {
+        buffer.force();
+    }
+}
@@ -1,6 +1,33 @@
 package com.tractive.pet_tracker.repositories;
 
 import com.tractive.pet_tracker.models.entities.Pet;
+import com.tractive.pet_tracker.models.projections.PetZoneProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface PetRepository extends JpaRepository<Pet, Long> { }
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface PetRepository extends JpaRepository<Pet, Long>, PetRepositoryCustom {
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = "SELECT p FROM Pet p ORDER BY p.id")
+    Stream<Pet> streamAll();
+
+    List<Pet> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    @Query(value =
+        "SELECT " +
+        "new com.tractive.pet_tracker.models.projections.PetZoneProjection(p.id, p.ownerId, p.inZone) " +
+        "FROM Pet p " +
+        "WHERE p.ownerId = :ownerId"
+    )
+    List<PetZoneProjection> findZoneStatesByOwnerId(@Param("ownerId") long ownerId);
+}
@@ -0,0 +1,47 @@
+package com.tractive.pet_tracker.repositories;
+
+import com.tractive.pet_tracker.models.events.PetState;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Queries and writes that go straight to the pet tables without loading entities
+ */
+public interface PetRepositoryCustom {
+    /**
+     * Locks and reads the pet with one select, then deletes it with one statement per table, three statements
+     * in all; a missing pet takes the select only
+     *
+     * @param id the id of the Pet
+     * @return the state of the deleted pet, or empty if there is no pet with this id
+     */
+    Optional<PetState> deleteByIdReturningState(long id);
+
+    /**
+     * Locks and reads the pet with one select, then overwrites its tracked fields with one statement per table
+     * whose columns change, one to three statements in all. Nothing is written if the pet has another type.
+     *
+     * @param state the new state, including the id of the Pet
+     * @param keepInZone whether to keep the stored {@code inZone} state instead of the one in {@code state}
+     * @return the state before the update, which has another type than {@code state} if nothing was written,
+     * or empty if there is no pet with this id
+     */
+    Optional<PetState> updateReturningPrevious(PetState state, boolean keepInZone);
+
+    /**
+     * Reads the pets of an owner with one indexed query, without loading entities
+     *
+     * @param ownerId the owner of the pets
+     * @return the states of the owner's pets, in id order
+     */
+    List<PetState> findStatesByOwnerId(long ownerId);
+
+    /**
+     * Reads all pets with one query, without loading entities. The stream holds a connection until it is closed.
+     *
+     * @return the states of all pets, in id order
+     */
+    Stream<PetState> streamStates();
+}
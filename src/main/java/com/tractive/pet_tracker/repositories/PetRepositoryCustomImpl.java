@@ -0,0 +1,146 @@
+package com.tractive.pet_tracker.repositories;
+
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Reads pets into {@link PetState}s with plain joins. A write first locks the pet and its child row with one
+ * {@code SELECT ... FOR UPDATE} on the outer join of {@code pet}, {@code cat} and {@code dog}, which also
+ * reads the type and the state it replaces, and then changes only the tables whose columns change with a
+ * plain {@code UPDATE} or {@code DELETE} in the same transaction. An update therefore takes one to three
+ * statements, a delete three and a missing pet one. Databases that refuse to lock the nullable side of an
+ * outer join need {@code FOR UPDATE OF p}, which is enough because every write of a pet locks its row.
+ * Child tables are written first, so a delete never violates the foreign key from {@code cat}/{@code dog}
+ * to {@code pet}. The writes go around the JPA persistence context, so a transaction that calls them must
+ * not keep working with a managed {@code Pet} of the same id.
+ */
+@RequiredArgsConstructor
+public class PetRepositoryCustomImpl implements PetRepositoryCustom {
+    private static final String DELETE_CAT = "DELETE FROM cat WHERE id = :id";
+    private static final String DELETE_DOG = "DELETE FROM dog WHERE id = :id";
+    private static final String DELETE_PET = "DELETE FROM pet WHERE id = :id";
+
+    private static final String UPDATE_CAT =
+        "UPDATE cat SET tracker_type = :trackerType, lost_tracker = :lostTracker WHERE id = :id";
+    private static final String UPDATE_DOG = "UPDATE dog SET tracker_type = :trackerType WHERE id = :id";
+    private static final String UPDATE_PET = "UPDATE pet SET owner_id = :ownerId, in_zone = :inZone WHERE id = :id";
+
+    /** Every pet as a {@link PetState}, also read by the startup recovery benchmark */
+    static final String SELECT_STATES =
+        "SELECT p.id, p.owner_id, p.in_zone, p.pet_type, c.tracker_type, c.lost_tracker, d.tracker_type " +
+        "FROM pet p " +
+        "LEFT JOIN cat c ON c.id = p.id " +
+        "LEFT JOIN dog d ON d.id = p.id ";
+    private static final String SELECT_BY_OWNER = SELECT_STATES + "WHERE p.owner_id = :ownerId ORDER BY p.id";
+    private static final String SELECT_ALL = SELECT_STATES + "ORDER BY p.id";
+    private static final String LOCK = SELECT_STATES + "WHERE p.id = :id FOR UPDATE";
+
+    private static final RowMapper<PetState> STATE_MAPPER = (rs, rowNum) -> switch (rs.getString(4)) {
+        case "CAT" -> new PetState.CatState(
+            rs.getLong(1), rs.getLong(2), rs.getBoolean(3), CatTrackerType.valueOf(rs.getString(5)), rs.getBoolean(6)
+        );
+        case "DOG" -> new PetState.DogState(
+            rs.getLong(1), rs.getLong(2), rs.getBoolean(3), DogTrackerType.valueOf(rs.getString(7))
+        );
+        default -> throw new IllegalStateException("Unknown pet type: " + rs.getString(4));
+    };
+
+    private final JdbcClient jdbcClient;
+
+    @Override
+    @Transactional
+    public Optional<PetState> deleteByIdReturningState(long id) {
+        Optional<PetState> locked = lock(id);
+        locked.ifPresent(state -> {
+            delete(state instanceof PetState.CatState ? DELETE_CAT : DELETE_DOG, id);
+            delete(DELETE_PET, id);
+        });
+        return locked;
+    }
+
+    @Override
+    @Transactional
+    public Optional<PetState> updateReturningPrevious(PetState state, boolean keepInZone) {
+        return lock(state.id()).map(previous -> {
+            if (previous.getClass() == state.getClass()) {
+                PetState next = keepInZone ? state.withInZone(previous.inZone()) : state;
+                updateChild(previous, next);
+                if (previous.ownerId() != next.ownerId() || previous.inZone() != next.inZone()) {
+                    updatePet(next);
+                }
+            }
+            return previous;
+        });
+    }
+
+    @Override
+    public List<PetState> findStatesByOwnerId(long ownerId) {
+        return jdbcClient.sql(SELECT_BY_OWNER)
+            .param("ownerId", ownerId)
+            .query(STATE_MAPPER)
+            .list();
+    }
+
+    @Override
+    public Stream<PetState> streamStates() {
+        return jdbcClient.sql(SELECT_ALL)
+            .query(STATE_MAPPER)
+            .stream();
+    }
+
+    /**
+     * @return the state of the pet with this id, whose rows stay locked until the transaction ends, or empty if
+     * there is no pet with this id
+     */
+    private Optional<PetState> lock(long id) {
+        return jdbcClient.sql(LOCK)
+            .param("id", id)
+            .query(STATE_MAPPER)
+            .optional();
+    }
+
+    /**
+     * Writes the child row of the pet if one of its columns changes
+     */
+    private void updateChild(PetState previous, PetState state) {
+        switch (state) {
+            case PetState.CatState cat when previous instanceof PetState.CatState old
+                && (old.trackerType() != cat.trackerType() || old.lostTracker() != cat.lostTracker()) ->
+                jdbcClient.sql(UPDATE_CAT)
+                    .param("id", cat.id())
+                    .param("trackerType", cat.trackerType().name())
+                    .param("lostTracker", cat.lostTracker())
+                    .update();
+            case PetState.DogState dog when previous instanceof PetState.DogState old
+                && old.trackerType() != dog.trackerType() ->
+                jdbcClient.sql(UPDATE_DOG)
+                    .param("id", dog.id())
+                    .param("trackerType", dog.trackerType().name())
+                    .update();
+            default -> { }
+        }
+    }
+
+    private void delete(String sql, long id) {
+        jdbcClient.sql(sql)
+            .param("id", id)
+            .update();
+    }
+
+    private void updatePet(PetState state) {
+        jdbcClient.sql(UPDATE_PET)
+            .param("id", state.id())
+            .param("ownerId", state.ownerId())
+            .param("inZone", state.inZone())
+            .update();
+    }
+}
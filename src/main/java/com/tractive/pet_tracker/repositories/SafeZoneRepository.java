@@ -0,0 +1,17 @@
+package com.tractive.pet_tracker.repositories;
+
+import com.tractive.pet_tracker.models.entities.SafeZone;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface SafeZoneRepository extends JpaRepository<SafeZone, Long> {
+    @EntityGraph(attributePaths = "vertices")
+    List<SafeZone> findByOwnerIdOrderById(long ownerId);
+
+    @EntityGraph(attributePaths = "vertices")
+    @Query(value = "SELECT z FROM SafeZone z")
+    List<SafeZone> findAllWithVertices();
+}
@@ -0,0 +1,184 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import com.tractive.pet_tracker.models.events.PetState;
+import com.tractive.pet_tracker.models.helpers.PetColumns;
+import com.tractive.pet_tracker.repositories.PetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * In-memory columnar copy of the whole fleet ({@link PetColumns}) for scans that would otherwise load every
+ * pet. It is loaded on a background thread once the application is ready, so a large fleet does not delay
+ * startup, and follows every {@link PetChangedEvent} afterward; its readers get a 503 until the load is done.
+ * Scans share a read lock and a change waits for running scans. A load fills new columns without holding
+ * the lock, so writes are not held up by it on a large fleet; the changes made meanwhile are replayed onto
+ * the new columns before they replace the old ones, so none of them is lost.
+ * <p>
+ * Events arrive after their transaction commits, so two concurrent changes of one pet can be applied in the
+ * opposite order of their commits and leave the older state behind. The snapshot is therefore reloaded every
+ * {@code reload-interval}, which bounds how long such a pet stays off.
+ * <p>
+ * A pet whose id does not {@link PetColumns#fits fit} the columns is left out and counted in
+ * {@code pet.fleet-snapshot.skipped}; scans do not see it.
+ */
+@Slf4j
+@Service
+public class FleetSnapshot {
+    private final PetRepository petRepository;
+    private final int initialCapacity;
+    private final Counter skipped;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private PetColumns columns;
+    private boolean loaded;
+    /** The changes made during a running load, {@code null} if there is none */
+    private List<PetChangedEvent> changesDuringLoad;
+
+    @Autowired
+    public FleetSnapshot(
+        PetRepository petRepository,
+        MeterRegistry meterRegistry,
+        @Value("${pet-tracker.fleet-snapshot.initial-capacity:1024}") int initialCapacity
+    ) {
+        this.petRepository = petRepository;
+        this.initialCapacity = initialCapacity;
+        this.columns = new PetColumns(initialCapacity);
+        this.skipped = Counter.builder("pet.fleet-snapshot.skipped")
+            .description("Pets left out of the fleet snapshot because their id does not fit the columns")
+            .register(meterRegistry);
+
+        Gauge.builder("pet.fleet-snapshot.size", this, snapshot -> snapshot.locked(PetColumns::size))
+            .description("Pets in the in-memory fleet snapshot")
+            .register(meterRegistry);
+        Gauge.builder("pet.fleet-snapshot.memory", this, snapshot -> snapshot.locked(PetColumns::memoryBytes))
+            .description("Heap used by the columns of the fleet snapshot")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread.ofVirtual().name("fleet-snapshot-loader").start(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.error("Loading the fleet snapshot failed, it stays unavailable", e);
+            }
+        });
+    }
+
+    /**
+     * Replaces the snapshot with the pets in the database, once the application is ready and every
+     * {@code reload-interval} afterward
+     */
+    @Scheduled(
+        initialDelayString = "${pet-tracker.fleet-snapshot.reload-interval:PT10M}",
+        fixedDelayString = "${pet-tracker.fleet-snapshot.reload-interval:PT10M}"
+    )
+    public synchronized void load() {
+        long start = System.nanoTime();
+        withWriteLock(() -> changesDuringLoad = new ArrayList<>());
+
+        PetColumns next = new PetColumns(initialCapacity);
+        try (Stream<PetState> states = petRepository.streamStates()) {
+            states.forEach(state -> put(next, state));
+        } catch (RuntimeException e) {
+            withWriteLock(() -> changesDuringLoad = null);
+            throw e;
+        }
+
+        withWriteLock(() -> {
+            changesDuringLoad.forEach(event -> apply(next, event));
+            log.info(
+                "Loaded {} pets into the fleet snapshot ({} bytes) in {} ms, replaying {} changes made meanwhile",
+                next.size(), next.memoryBytes(), (System.nanoTime() - start) / 1_000_000, changesDuringLoad.size()
+            );
+            changesDuringLoad = null;
+            columns = next;
+            loaded = true;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPetChanged(PetChangedEvent event) {
+        withWriteLock(() -> {
+            apply(columns, event);
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(event);
+            }
+        });
+    }
+
+    /**
+     * Runs the {@code reader} against a consistent view of the columns. The columns must not be kept or
+     * modified beyond the call.
+     *
+     * @param reader the scan
+     * @return the result of the {@code reader}
+     *
+     * @throws ResponseStatusException with 503 if the snapshot has not been loaded yet
+     */
+    public <T> T read(Function<PetColumns, T> reader) {
+        return locked(columns -> {
+            if (!loaded) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The fleet snapshot is still loading");
+            }
+            return reader.apply(columns);
+        });
+    }
+
+    private <T> T locked(Function<PetColumns, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(columns);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void withWriteLock(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(PetColumns columns, PetChangedEvent event) {
+        if (event.current() != null) {
+            put(columns, event.current());
+        } else {
+            columns.remove(event.previous().id());
+        }
+    }
+
+    private void put(PetColumns columns, PetState state) {
+        if (!PetColumns.fits(state.id())) {
+            skipped.increment();
+            log.warn("Leaving pet {} out of the fleet snapshot, its id is above {}", state.id(), PetColumns.MAX_ID);
+            return;
+        }
+
+        columns.put(state);
+    }
+}
@@ -0,0 +1,148 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.projections.LocationFix;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands stored location fixes to {@link GeofenceService#evaluate} on a background thread, so ingesting fixes
+ * never waits for the database. Only the newest queued fix of a pet is kept, which bounds the queue by the
+ * number of pets; a failed evaluation is queued again and retried after a short delay.
+ */
+@Slf4j
+@Service
+public class GeofenceEvaluator {
+    static final long RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final GeofenceService geofenceService;
+
+    /** The newest fix of each pet waiting for evaluation */
+    private final Map<Long, LocationFix> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queued = lock.newCondition();
+    private volatile Thread evaluator;
+
+    @Autowired
+    public GeofenceEvaluator(GeofenceService geofenceService, MeterRegistry meterRegistry) {
+        this.geofenceService = geofenceService;
+
+        Gauge.builder("pet.geofence.pending", pending, Map::size)
+            .description("Pets with a location fix waiting for geofence evaluation")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (evaluator == null) {
+            evaluator = Thread.ofVirtual().name("geofence-evaluator").start(this::evaluateLoop);
+        }
+    }
+
+    /**
+     * Queues the {@code fixes} for evaluation, keeping only the newest fix of each pet
+     *
+     * @param fixes the fixes that were just stored
+     */
+    public void submit(List<LocationFix> fixes) {
+        for (LocationFix fix : fixes) {
+            pending.merge(fix.petId(), fix, GeofenceEvaluator::newer);
+        }
+
+        lock.lock();
+        try {
+            queued.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evaluates everything queued so far. Evaluations do not overlap, so once this returns every fix queued
+     * before the call has been evaluated or queued again after a failure.
+     *
+     * @return the number of pets whose state changed
+     */
+    public synchronized int evaluatePending() {
+        List<LocationFix> batch = new ArrayList<>(pending.size());
+
+        for (Map.Entry<Long, LocationFix> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(entry.getValue());
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            return geofenceService.evaluate(batch);
+        } catch (RuntimeException e) {
+            log.error("Evaluating the geofence for {} pets failed, retrying", batch.size(), e);
+            batch.forEach(fix -> pending.merge(fix.petId(), fix, GeofenceEvaluator::newer));
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        Thread current = evaluator;
+        evaluator = null;
+
+        if (current != null) {
+            lock.lock();
+            try {
+                queued.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            current.join();
+        }
+    }
+
+    private void evaluateLoop() {
+        while (evaluator != null) {
+            lock.lock();
+            try {
+                while (pending.isEmpty() && evaluator != null) {
+                    queued.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                evaluatePending();
+            } catch (RuntimeException e) {
+                LockSupport.parkNanos(RETRY_DELAY_NANOS);
+            } catch (Error e) {
+                // The batch is lost, but the pets are evaluated again with their next fix
+                log.error("Evaluating the geofence failed, dropping the batch", e);
+                LockSupport.parkNanos(RETRY_DELAY_NANOS);
+            }
+        }
+    }
+
+    private static LocationFix newer(LocationFix queued, LocationFix fix) {
+        return fix.timestamp() >= queued.timestamp() ? fix : queued;
+    }
+}
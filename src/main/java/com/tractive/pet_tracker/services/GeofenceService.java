@@ -0,0 +1,244 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.CircleZoneDto;
+import com.tractive.pet_tracker.models.dtos.CoordinateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateDto;
+import com.tractive.pet_tracker.models.dtos.PolygonZoneDto;
+import com.tractive.pet_tracker.models.dtos.SafeZoneDto;
+import com.tractive.pet_tracker.models.entities.SafeZone;
+import com.tractive.pet_tracker.models.events.PetState;
+import com.tractive.pet_tracker.models.helpers.GeofenceIndex;
+import com.tractive.pet_tracker.models.helpers.SafeZoneMapper;
+import com.tractive.pet_tracker.models.projections.LocationFix;
+import com.tractive.pet_tracker.models.projections.PetZoneProjection;
+import com.tractive.pet_tracker.repositories.LocationLog;
+import com.tractive.pet_tracker.repositories.PetRepository;
+import com.tractive.pet_tracker.repositories.SafeZoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Owns the {@code inZone} state of pets whose owner has safe zones: it is derived from the latest location
+ * fix of the pet whenever fixes arrive or the owner's zones change, and the state sent by the client is
+ * ignored for them. Pets of owners without zones keep the state sent by the client. Arriving fixes are evaluated by {@link GeofenceEvaluator} in the background and
+ * read the pets from the {@link FleetSnapshot}, so ingesting fixes does not touch the database.
+ */
+@Slf4j
+@Service
+public class GeofenceService {
+    /** The stored fixes of a pet checked for a newer timestamp; a fix arriving later than that is not seen as stale */
+    static final int RECENT_FIXES = 16;
+    /** The largest latitude or longitude span of a polygon, about as wide as the largest circle */
+    static final double MAX_POLYGON_SPAN_DEGREES = 2.0;
+
+    private final SafeZoneRepository safeZoneRepository;
+    private final PetRepository petRepository;
+    private final PetStateBatchService petStateBatchService;
+    private final FleetSnapshot fleetSnapshot;
+    private final LocationLog locationLog;
+    private final SafeZoneMapper safeZoneMapper;
+    private final GeofenceZones geofenceZones;
+
+    @Autowired
+    public GeofenceService(
+        SafeZoneRepository safeZoneRepository,
+        PetRepository petRepository,
+        PetStateBatchService petStateBatchService,
+        FleetSnapshot fleetSnapshot,
+        LocationLog locationLog,
+        SafeZoneMapper safeZoneMapper,
+        GeofenceZones geofenceZones
+    ) {
+        this.safeZoneRepository = safeZoneRepository;
+        this.petRepository = petRepository;
+        this.petStateBatchService = petStateBatchService;
+        this.fleetSnapshot = fleetSnapshot;
+        this.locationLog = locationLog;
+        this.safeZoneMapper = safeZoneMapper;
+        this.geofenceZones = geofenceZones;
+    }
+
+    /**
+     * Replaces the indexed zones with the ones in the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadZones() {
+        geofenceZones.replaceAll(safeZoneRepository.findAllWithVertices().stream()
+            .map(safeZoneMapper::mapEntityToDto)
+            .toList());
+        log.info("Indexed {} safe zones", geofenceZones.size());
+    }
+
+    public List<SafeZoneDto> getZones(long ownerId) {
+        return safeZoneRepository.findByOwnerIdOrderById(ownerId).stream()
+            .map(safeZoneMapper::mapEntityToDto)
+            .toList();
+    }
+
+    /**
+     * Stores and indexes a zone and re-evaluates the pets of its owner
+     *
+     * @throws ResponseStatusException with 400 if a circle reaches a pole or a polygon spans more than
+     * {@link #MAX_POLYGON_SPAN_DEGREES}
+     */
+    public SafeZoneDto createZone(SafeZoneDto zoneDto) {
+        validateExtent(zoneDto);
+        SafeZone zone = safeZoneRepository.save(safeZoneMapper.mapDtoToEntity(zoneDto));
+        log.info("Created safe zone {}", zone);
+
+        SafeZoneDto created = safeZoneMapper.mapEntityToDto(zone);
+        geofenceZones.put(created);
+        reevaluateOwner(zone.getOwnerId());
+
+        return created;
+    }
+
+    public void deleteZone(long id) {
+        SafeZone zone = safeZoneRepository.findById(id).orElseThrow(() -> {
+            String message = String.format("Safe zone %s not found", id);
+            log.info(message);
+            return new ResponseStatusException(
+                    HttpStatus.NOT_FOUND,
+                    message
+            );
+        });
+
+        safeZoneRepository.delete(zone);
+        geofenceZones.remove(id);
+        reevaluateOwner(zone.getOwnerId());
+    }
+
+    /**
+     * Derives the zone state of the pets from the latest of their {@code fixes} and applies the changed
+     * states as one batch. A fix older than a stored fix of the same pet is skipped, so a late or slowly
+     * evaluated fix never overwrites the state of a newer one.
+     *
+     * @param fixes the fixes that were just stored
+     * @return the number of pets whose state changed
+     *
+     * @throws ResponseStatusException with 503 if the fleet snapshot has not been loaded yet
+     */
+    public int evaluate(List<LocationFix> fixes) {
+        GeofenceIndex current = geofenceZones.index();
+        if (current.size() == 0) {
+            return 0;
+        }
+
+        Map<Long, LocationFix> latest = new HashMap<>();
+        for (LocationFix fix : fixes) {
+            latest.merge(fix.petId(), fix, (previous, next) -> next.timestamp() >= previous.timestamp() ? next : previous);
+        }
+
+        List<PetZoneProjection> pets = fleetSnapshot.read(columns -> {
+            List<PetZoneProjection> states = new ArrayList<>();
+            for (Long id : latest.keySet()) {
+                PetState state = columns.get(id);
+                if (state != null && current.hasZones(state.ownerId())) {
+                    states.add(new PetZoneProjection(id, state.ownerId(), state.inZone()));
+                }
+            }
+            return states;
+        });
+
+        List<PetStateUpdateDto> updates = new ArrayList<>();
+        for (PetZoneProjection pet : pets) {
+            LocationFix fix = latest.get(pet.id());
+            LocationFix newest = newestStoredFix(pet.id());
+            if (newest == null || newest.timestamp() <= fix.timestamp()) {
+                collectChange(current, pet, fix, updates);
+            }
+        }
+
+        return apply(updates);
+    }
+
+    /**
+     * Derives the zone state of all pets of an owner from their latest stored fix
+     */
+    private void reevaluateOwner(long ownerId) {
+        GeofenceIndex current = geofenceZones.index();
+        List<PetStateUpdateDto> updates = new ArrayList<>();
+
+        for (PetZoneProjection pet : petRepository.findZoneStatesByOwnerId(ownerId)) {
+            collectChange(current, pet, newestStoredFix(pet.id()), updates);
+        }
+
+        apply(updates);
+    }
+
+    /**
+     * @return the fix with the newest timestamp among the last appended fixes of the pet, or {@code null} if
+     * it has none
+     */
+    private LocationFix newestStoredFix(long petId) {
+        LocationFix newest = null;
+        for (LocationFix fix : locationLog.findRecent(petId, RECENT_FIXES)) {
+            if (newest == null || fix.timestamp() >= newest.timestamp()) {
+                newest = fix;
+            }
+        }
+        return newest;
+    }
+
+    private static void validateExtent(SafeZoneDto zone) {
+        String problem = switch (zone) {
+            case CircleZoneDto circle ->
+                Math.abs(circle.center().latitude()) + circle.radius() / GeofenceIndex.METERS_PER_DEGREE >= 90
+                    ? "A circular zone must not reach a pole"
+                    : null;
+            case PolygonZoneDto polygon -> {
+                DoubleSummaryStatistics latitudes = polygon.vertices().stream().mapToDouble(CoordinateDto::latitude).summaryStatistics();
+                DoubleSummaryStatistics longitudes = polygon.vertices().stream().mapToDouble(CoordinateDto::longitude).summaryStatistics();
+                yield latitudes.getMax() - latitudes.getMin() > MAX_POLYGON_SPAN_DEGREES
+                    || longitudes.getMax() - longitudes.getMin() > MAX_POLYGON_SPAN_DEGREES
+                    ? String.format("A polygonal zone must not span more than %s degrees", MAX_POLYGON_SPAN_DEGREES)
+                    : null;
+            }
+        };
+
+        if (problem != null) {
+            log.info("Rejected safe zone: {}", problem);
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                problem
+            );
+        }
+    }
+
+    private static void collectChange(
+        GeofenceIndex index,
+        PetZoneProjection pet,
+        LocationFix fix,
+        List<PetStateUpdateDto> updates
+    ) {
+        if (fix == null || !index.hasZones(pet.ownerId())) {
+            return;
+        }
+
+        boolean inZone = index.contains(pet.ownerId(), fix.latitude(), fix.longitude());
+        if (!Boolean.valueOf(inZone).equals(pet.inZone())) {
+            updates.add(new PetStateUpdateDto(pet.id(), inZone, null));
+        }
+    }
+
+    private int apply(List<PetStateUpdateDto> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+
+        petStateBatchService.applyZoneStates(updates);
+        log.info("Geofence changed the zone state of {} pets", updates.size());
+        return updates.size();
+    }
+}
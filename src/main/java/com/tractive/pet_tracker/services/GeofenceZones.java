@@ -0,0 +1,70 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.SafeZoneDto;
+import com.tractive.pet_tracker.models.helpers.GeofenceIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The indexed safe zones of all owners. {@link GeofenceService} keeps them in sync with the database; the
+ * writes of client state read them to leave the {@code inZone} state of pets whose owner has zones to the
+ * geofence.
+ */
+@Service
+public class GeofenceZones {
+    private final double cellSize;
+
+    private final Map<Long, SafeZoneDto> zones = new ConcurrentHashMap<>();
+    private volatile GeofenceIndex index;
+
+    @Autowired
+    public GeofenceZones(@Value("${pet-tracker.geofence.cell-size:0.05}") double cellSize) {
+        this.cellSize = cellSize;
+        this.index = GeofenceIndex.of(List.of(), cellSize);
+    }
+
+    /**
+     * @return the current index, which stays unchanged while it is used
+     */
+    public GeofenceIndex index() {
+        return index;
+    }
+
+    /**
+     * @param ownerId the owner of the pets
+     * @return whether the {@code inZone} state of the owner's pets is derived by the geofence
+     */
+    public boolean hasZones(long ownerId) {
+        return index.hasZones(ownerId);
+    }
+
+    public synchronized void replaceAll(Collection<SafeZoneDto> loaded) {
+        zones.clear();
+        loaded.forEach(zone -> zones.put(zone.id(), zone));
+        rebuildIndex();
+    }
+
+    public synchronized void put(SafeZoneDto zone) {
+        zones.put(zone.id(), zone);
+        rebuildIndex();
+    }
+
+    public synchronized void remove(long id) {
+        zones.remove(id);
+        rebuildIndex();
+    }
+
+    public int size() {
+        return zones.size();
+    }
+
+    private void rebuildIndex() {
+        index = GeofenceIndex.of(List.copyOf(zones.values()), cellSize);
+    }
+}
@@ -0,0 +1,94 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.LocationFixDto;
+import com.tractive.pet_tracker.models.projections.LocationFix;
+import com.tractive.pet_tracker.repositories.LocationLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LocationService {
+    static final int MAX_TRACK_SIZE = 10_000;
+
+    private final LocationLog locationLog;
+    private final GeofenceEvaluator geofenceEvaluator;
+
+    /**
+     * Appends the {@code fixes} to the location log and queues them for the geofence, which derives the zone
+     * state of their pets in the background. Pets are not looked up before appending, so fixes of a tracker
+     * can be ingested before its pet is created.
+     *
+     * @param fixes the fixes, in the order they should be stored
+     */
+    public void ingest(List<LocationFixDto> fixes) {
+        List<LocationFix> records = new ArrayList<>(fixes.size());
+        for (LocationFixDto fix : fixes) {
+            records.add(new LocationFix(fix.petId(), fix.timestamp(), fix.latitude(), fix.longitude()));
+        }
+
+        locationLog.appendAll(records);
+        log.debug("Ingested {} location fixes", records.size());
+
+        geofenceEvaluator.submit(records);
+    }
+
+    /**
+     * Retrieves the last received fixes of a pet
+     *
+     * @param petId the id of the Pet
+     * @param limit the maximum number of fixes
+     * @return the fixes, oldest first
+     *
+     * @throws ResponseStatusException if the {@code limit} is out of range
+     */
+    public List<LocationFixDto> getRecentTrack(long petId, int limit) {
+        validateLimit(limit);
+        return toDtos(locationLog.findRecent(petId, limit));
+    }
+
+    /**
+     * Retrieves the fixes of a pet within a time range
+     *
+     * @param petId the id of the Pet
+     * @param from the start of the range in epoch milliseconds, inclusive
+     * @param to the end of the range in epoch milliseconds, exclusive
+     * @param limit the maximum number of fixes
+     * @return the earliest fixes in the range, oldest first
+     *
+     * @throws ResponseStatusException if the range is empty or the {@code limit} is out of range
+     */
+    public List<LocationFixDto> getTrack(long petId, long from, long to, int limit) {
+        validateLimit(limit);
+        if (from >= to) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                "from must be before to"
+            );
+        }
+
+        return toDtos(locationLog.findBetween(petId, from, to, limit));
+    }
+
+    private static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_TRACK_SIZE) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                String.format("Limit must be between 1 and %d", MAX_TRACK_SIZE)
+            );
+        }
+    }
+
+    private static List<LocationFixDto> toDtos(List<LocationFix> fixes) {
+        return fixes.stream()
+            .map(fix -> new LocationFixDto(fix.petId(), fix.timestamp(), fix.latitude(), fix.longitude()))
+            .toList();
+    }
+}
@@ -0,0 +1,279 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.PetsOutsideZoneDto;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import com.tractive.pet_tracker.models.events.PetState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory number of pets outside the zone per tracker type. The counters are loaded from the database
+ * once the application is ready, follow every {@link PetChangedEvent} afterward and are periodically
+ * reconciled against the database in case a write bypassed the service layer.
+ * <p>
+ * A change is counted once its transaction has committed, so it has to be published inside the transaction
+ * that writes it; one published after its own commit may be counted twice by a reset that runs in between.
+ * A reset only takes the aggregation if no change was in flight when it started and none was counted or left
+ * in flight until it is applied, so a change is never both in the aggregation and counted again, or lost
+ * from both.
+ * <p>
+ * The counters themselves are {@link LongAdder}s, but counting a change takes the shared side of a
+ * read-write lock: changes do not wait for each other, only for a reset while it is being applied.
+ */
+@Slf4j
+@Service
+public class OutsideZoneCounters {
+    private static final long RESET_RETRY_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Map<CatTrackerType, LongAdder> cats = newCounters(CatTrackerType.class);
+    private final Map<DogTrackerType, LongAdder> dogs = newCounters(DogTrackerType.class);
+
+    /** Changes published in a transaction that has not completed yet */
+    private final AtomicLong pendingChanges = new AtomicLong();
+    /** Changes counted so far, only advanced under the read lock */
+    private final AtomicLong countedChanges = new AtomicLong();
+    /** Held shared while a change is counted and exclusively while a reset is applied */
+    private final ReadWriteLock resetLock = new ReentrantReadWriteLock();
+
+    /** One reload per species, each resetting its own counters and returning the drift it corrected */
+    private final List<Callable<Long>> reloads;
+    private final Duration reloadTimeout;
+    private final PetChangeCounter petChangeCounter;
+
+    @Autowired
+    public OutsideZoneCounters(
+        CatTrackerService catTrackerService,
+        DogTrackerService dogTrackerService,
+        PetChangeCounter petChangeCounter,
+        @Value("${pet-tracker.zone-counters.reload-timeout:PT10S}") Duration reloadTimeout
+    ) {
+        if (reloadTimeout.isNegative() || reloadTimeout.isZero()) {
+            throw new IllegalArgumentException("Reload timeout must be positive: " + reloadTimeout);
+        }
+
+        this.reloads = List.of(
+            () -> reset(cats, catTrackerService::countCatsOutsideZone),
+            () -> reset(dogs, dogTrackerService::countDogsOutsideZone)
+        );
+        this.reloadTimeout = reloadTimeout;
+        this.petChangeCounter = petChangeCounter;
+    }
+
+    /**
+     * Reads the current counters without touching the database. Tracker types without any pet outside
+     * the zone are left out, as in the database aggregation.
+     *
+     * @return PetsOutsideZoneDto
+     */
+    public PetsOutsideZoneDto snapshot() {
+        return new PetsOutsideZoneDto(read(cats, CatTrackerType.class), read(dogs, DogTrackerType.class));
+    }
+
+    /**
+     * Counts the change once its transaction has committed, or at once outside a transaction. The change is
+     * in flight from here until the transaction completes.
+     */
+    @EventListener
+    public void onPetChanged(PetChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+            || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            count(event);
+            return;
+        }
+
+        pendingChanges.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                count(event);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                pendingChanges.decrementAndGet();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+        log.info("Loaded outside-zone counters {}", snapshot());
+    }
+
+    /**
+     * Compares the counters with the repository aggregations and corrects them. Under a steady stream of
+     * writes a species may not find a moment without changes in flight before the reload timeout; the run
+     * then fails and leaves its counters as they are.
+     */
+    @Scheduled(
+        initialDelayString = "${pet-tracker.zone-counters.reconcile-interval:PT5M}",
+        fixedDelayString = "${pet-tracker.zone-counters.reconcile-interval:PT5M}"
+    )
+    public void reconcile() {
+        long drift = reload();
+
+        if (drift != 0) {
+            // The pets changed without an event, so the lists tagged before are stale as well
+            petChangeCounter.advance();
+            log.warn("Outside-zone counters were off by {} and have been corrected", drift);
+        }
+    }
+
+    /**
+     * Resets the counters to the repository aggregations. The species are queried concurrently on virtual
+     * threads, so the reload takes as long as the slowest aggregation. All of them share one deadline and
+     * the remaining ones are cancelled as soon as one fails or the deadline passes; the species that were
+     * already reset keep their corrected counters. A species whose aggregation overlapped a change is queried
+     * again.
+     *
+     * @return the total absolute difference that was corrected
+     *
+     * @throws IllegalStateException if an aggregation fails or does not finish within the reload timeout
+     */
+    private long reload() {
+        long deadline = System.nanoTime() + reloadTimeout.toNanos();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CompletionService<Long> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<Long>> branches = new ArrayList<>(reloads.size());
+
+        try {
+            reloads.forEach(reload -> branches.add(completionService.submit(reload)));
+
+            long drift = 0;
+            for (int i = 0; i < branches.size(); i++) {
+                Future<Long> branch = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (branch == null) {
+                    throw new IllegalStateException("Reloading outside-zone counters timed out after " + reloadTimeout);
+                }
+                drift += branch.get();
+            }
+
+            return drift;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Reloading outside-zone counters failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reloading outside-zone counters", e);
+        } finally {
+            branches.forEach(branch -> branch.cancel(true));
+            executor.shutdown();
+        }
+    }
+
+    private void count(PetChangedEvent event) {
+        resetLock.readLock().lock();
+        try {
+            if (event.previous() != null) {
+                add(event.previous(), -1);
+            }
+            if (event.current() != null) {
+                add(event.current(), 1);
+            }
+            countedChanges.incrementAndGet();
+        } finally {
+            resetLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the counters to the aggregation, querying it again until no change overlapped it
+     *
+     * @return the total absolute difference that was corrected
+     */
+    private <T extends Enum<T>> long reset(Map<T, LongAdder> counters, Supplier<Map<T, Long>> aggregation) {
+        while (!Thread.currentThread().isInterrupted()) {
+            long counted = countedChanges.get();
+            if (pendingChanges.get() != 0) {
+                LockSupport.parkNanos(RESET_RETRY_PAUSE_NANOS);
+                continue;
+            }
+            Map<T, Long> actual = aggregation.get();
+
+            resetLock.writeLock().lock();
+            try {
+                if (pendingChanges.get() == 0 && countedChanges.get() == counted) {
+                    return reset(counters, actual);
+                }
+            } finally {
+                resetLock.writeLock().unlock();
+            }
+        }
+
+        throw new IllegalStateException("Interrupted while resetting outside-zone counters");
+    }
+
+    private void add(PetState state, long delta) {
+        if (state.inZone()) {
+            return;
+        }
+
+        switch (state) {
+            case PetState.CatState cat -> cats.get(cat.trackerType()).add(delta);
+            case PetState.DogState dog -> dogs.get(dog.trackerType()).add(delta);
+        }
+    }
+
+    private static <T extends Enum<T>> Map<T, LongAdder> newCounters(Class<T> trackerType) {
+        Map<T, LongAdder> counters = new EnumMap<>(trackerType);
+        for (T type : trackerType.getEnumConstants()) {
+            counters.put(type, new LongAdder());
+        }
+
+        return Collections.unmodifiableMap(counters);
+    }
+
+    private static <T extends Enum<T>> Map<T, Long> read(Map<T, LongAdder> counters, Class<T> trackerType) {
+        Map<T, Long> counts = new EnumMap<>(trackerType);
+        counters.forEach((type, counter) -> {
+            long count = counter.sum();
+            if (count != 0) {
+                counts.put(type, count);
+            }
+        });
+
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private static <T extends Enum<T>> long reset(Map<T, LongAdder> counters, Map<T, Long> actual) {
+        long drift = 0;
+
+        for (Map.Entry<T, LongAdder> counter : counters.entrySet()) {
+            long delta = actual.getOrDefault(counter.getKey(), 0L) - counter.getValue().sum();
+            counter.getValue().add(delta);
+            drift += Math.abs(delta);
+        }
+
+        return drift;
+    }
+}
@@ -0,0 +1,97 @@
+package com.tractive.pet_tracker.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import com.tractive.pet_tracker.models.helpers.PetJson;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded read-through cache of mapped pets by id, each kept together with its serialized JSON. An entry is
+ * invalidated by the {@link PetChangedEvent} of its pet: right away for changes made outside a transaction,
+ * after commit otherwise. Loads of the same id are atomic with the invalidation, so a load that read the old
+ * row cannot survive it. Hit, miss and eviction counts are published as {@code cache.*} metrics with
+ * {@code cache=pets}.
+ */
+@Service
+public class PetCache {
+    private final ObjectMapper objectMapper;
+    private final Cache<Long, Entry> pets;
+
+    private record Entry(PetDto pet, PetJson json) { }
+
+    @Autowired
+    public PetCache(
+        MeterRegistry meterRegistry,
+        ObjectMapper objectMapper,
+        @Value("${pet-tracker.pet-cache.maximum-size:10000}") long maximumSize,
+        @Value("${pet-tracker.pet-cache.expire-after-write:PT10M}") Duration expireAfterWrite
+    ) {
+        this.objectMapper = objectMapper;
+        this.pets = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, pets, "pets");
+    }
+
+    /**
+     * Returns the cached pet, loading and serializing it on a miss. A failing {@code loader} caches nothing.
+     *
+     * @param id the id of the Pet
+     * @param loader loads and maps the Pet
+     * @return PetDto, shared between callers and therefore not to be modified
+     */
+    public PetDto get(long id, LongFunction<PetDto> loader) {
+        return pets.get(id, key -> {
+            PetDto pet = loader.apply(key);
+            return new Entry(pet, serialize(pet));
+        }).pet();
+    }
+
+    /**
+     * Returns the JSON of the {@code pet}, without serializing it again if it is the instance currently
+     * cached for its id. The lookup is not recorded as a hit or miss, the {@link #get} before it already was.
+     *
+     * @param pet a pet returned by {@link #get(long, LongFunction)}, or one derived from it
+     * @return PetJson
+     */
+    public PetJson json(PetDto pet) {
+        Entry entry = pets.policy().getIfPresentQuietly(pet.getId());
+        return entry != null && entry.pet() == pet ? entry.json() : serialize(pet);
+    }
+
+    public void invalidate(long id) {
+        pets.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        pets.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPetChanged(PetChangedEvent event) {
+        invalidate(event.petId());
+    }
+
+    private PetJson serialize(PetDto pet) {
+        try {
+            return PetJson.of(objectMapper.writeValueAsBytes(pet));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize pet " + pet.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import com.tractive.pet_tracker.models.helpers.ETags;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the {@link PetChangedEvent}s since startup, as the version of every list of pets read from the
+ * database. The events follow the commit, so a list read after the count was taken is at least as new as
+ * that version and can be tagged with it. Write-behind flushes and a reconcile that found drift
+ * {@link #advance advance} it as well. The version only sees the writes of this instance: it assumes a
+ * single instance per database, and writes of another instance or outside the application may be answered
+ * with a stale {@code 304} until this instance next changes a pet or reconciles.
+ */
+@Service
+public class PetChangeCounter {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * @return the quoted entity tag of the current version, to be taken before reading the list it tags
+     */
+    public String etag() {
+        return ETags.of(epoch, changes.get());
+    }
+
+    /**
+     * Moves to a new version, for changes that may not have published a {@link PetChangedEvent}
+     */
+    public void advance() {
+        changes.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPetChanged(PetChangedEvent event) {
+        advance();
+    }
+}
@@ -0,0 +1,76 @@
+package com.tractive.pet_tracker.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.entities.Pet;
+import com.tractive.pet_tracker.models.helpers.PetMapper;
+import com.tractive.pet_tracker.repositories.PetRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class PetExportService {
+    private final PetRepository petRepository;
+    private final PetMapper petMapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter petWriter;
+
+    @Autowired
+    public PetExportService(
+        PetRepository petRepository,
+        PetMapper petMapper,
+        EntityManager entityManager,
+        ObjectMapper objectMapper
+    ) {
+        this.petRepository = petRepository;
+        this.petMapper = petMapper;
+        this.entityManager = entityManager;
+        // writerFor keeps petType in the output and the generator is flushed by its buffer, not per pet
+        this.petWriter = objectMapper.writerFor(PetDto.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes every pet to the {@code outputStream} as newline-delimited JSON, in id order. Pets are read
+     * through a forward-only cursor and detached once written, so memory does not grow with the fleet.
+     *
+     * @param outputStream the stream to write to, left open
+     * @return the number of exported pets
+     *
+     * @throws IOException if writing to the {@code outputStream} fails
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream outputStream) throws IOException {
+        long count = 0;
+
+        try (
+            Stream<Pet> pets = petRepository.streamAll();
+            JsonGenerator generator = petWriter.createGenerator(outputStream)
+        ) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            for (Iterator<Pet> iterator = pets.iterator(); iterator.hasNext(); count++) {
+                Pet pet = iterator.next();
+                petWriter.writeValue(generator, petMapper.mapEntityToDto(pet));
+                generator.writeRaw('\n');
+                entityManager.detach(pet);
+            }
+        }
+
+        log.info("Exported {} pets", count);
+        return count;
+    }
+}
@@ -0,0 +1,140 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateResultDto;
+import com.tractive.pet_tracker.models.entities.Cat;
+import com.tractive.pet_tracker.models.entities.Pet;
+import com.tractive.pet_tracker.models.enums.PetStateUpdateStatus;
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import com.tractive.pet_tracker.models.events.PetState;
+import com.tractive.pet_tracker.repositories.PetRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class PetStateBatchService {
+    private final PetRepository petRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GeofenceZones geofenceZones;
+    private final int chunkSize;
+
+    @Autowired
+    public PetStateBatchService(
+        PetRepository petRepository,
+        EntityManager entityManager,
+        ApplicationEventPublisher eventPublisher,
+        GeofenceZones geofenceZones,
+        @Value("${pet-tracker.batch.chunk-size:500}") int chunkSize
+    ) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Batch chunk size must be positive: " + chunkSize);
+        }
+
+        this.petRepository = petRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.geofenceZones = geofenceZones;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Applies the {@code updates} in a single transaction. Pets are loaded one chunk at a time and the
+     * persistence context is flushed and cleared after every chunk, so Hibernate sends the resulting
+     * UPDATE statements as JDBC batches and memory stays bounded by the chunk size. Change events reach
+     * transactional listeners once the whole batch is committed. The {@code inZone} state sent by a client
+     * is ignored for pets whose owner has safe zones, where the geofence derives it.
+     *
+     * @param updates the state changes, applied in order (the last change wins for a repeated id)
+     * @return one result per update, in the same order as {@code updates}
+     */
+    @Transactional
+    public List<PetStateUpdateResultDto> apply(List<PetStateUpdateDto> updates) {
+        return applyAll(updates, false);
+    }
+
+    /**
+     * Applies the {@code inZone} states derived by {@link GeofenceService} like {@link #apply}, including those
+     * of pets whose owner has safe zones
+     *
+     * @param updates the derived state changes
+     * @return one result per update, in the same order as {@code updates}
+     */
+    @Transactional
+    public List<PetStateUpdateResultDto> applyZoneStates(List<PetStateUpdateDto> updates) {
+        return applyAll(updates, true);
+    }
+
+    private List<PetStateUpdateResultDto> applyAll(List<PetStateUpdateDto> updates, boolean derived) {
+        List<PetStateUpdateResultDto> results = new ArrayList<>(updates.size());
+
+        for (int from = 0; from < updates.size(); from += chunkSize) {
+            applyChunk(updates.subList(from, Math.min(from + chunkSize, updates.size())), derived, results);
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        log.info("Applied {} pet state updates", updates.size());
+        return results;
+    }
+
+    private void applyChunk(List<PetStateUpdateDto> chunk, boolean derived, List<PetStateUpdateResultDto> results) {
+        Set<Long> ids = new HashSet<>(chunk.size());
+        chunk.forEach(update -> ids.add(update.id()));
+
+        Map<Long, Pet> pets = petRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Pet::getId, Function.identity()));
+
+        for (PetStateUpdateDto update : chunk) {
+            results.add(new PetStateUpdateResultDto(update.id(), applyUpdate(update, pets.get(update.id()), derived)));
+        }
+    }
+
+    /**
+     * Applies a single state change to an already loaded pet
+     *
+     * @param update the state change
+     * @param pet the managed Pet entity, or {@code null} if it does not exist
+     * @param derived whether {@code inZone} was derived by the geofence rather than sent by a client
+     * @return PetStateUpdateStatus
+     */
+    private PetStateUpdateStatus applyUpdate(PetStateUpdateDto update, Pet pet, boolean derived) {
+        if (pet == null) {
+            return PetStateUpdateStatus.NOT_FOUND;
+        }
+
+        PetState previous = PetState.of(pet);
+
+        if (update.lostTracker() != null) {
+            if (!(pet instanceof Cat cat)) {
+                return PetStateUpdateStatus.REJECTED;
+            }
+            cat.setLostTracker(update.lostTracker());
+        }
+
+        if (derived || !geofenceZones.hasZones(pet.getOwnerId())) {
+            pet.setInZone(update.inZone());
+        }
+
+        PetState current = PetState.of(pet);
+        if (!current.equals(previous)) {
+            eventPublisher.publishEvent(PetChangedEvent.updated(previous, current));
+        }
+
+        return PetStateUpdateStatus.UPDATED;
+    }
+}
@@ -0,0 +1,455 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.CatDto;
+import com.tractive.pet_tracker.models.dtos.DogDto;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateResultDto;
+import com.tractive.pet_tracker.models.enums.PetStateUpdateStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind buffer for tracker state updates. Updates are coalesced per pet, so only the latest
+ * {@code inZone} and the latest given {@code lostTracker} of a pet reach the database, and a background
+ * writer hands them to {@link PetStateBatchService} once per window, or sooner when the buffer is full.
+ * Callers wait for room when the buffer is full and get a 503 once the offer timeout passes. Buffered
+ * updates are not durable until they are written. A failed batch is split in halves until the updates that
+ * fail on their own are found; those are put back and retried, and dropped once they failed
+ * {@code max-attempts} times, so a single bad update cannot hold up the others forever. When no part of a
+ * batch can be written the database is taken to be unavailable: the batch is kept as far as the buffer has
+ * room, without counting an attempt, and the writer backs off before trying again. A full update or delete
+ * of a pet {@link #discard discards} its buffered state, which it replaces.
+ */
+@Slf4j
+@Service
+public class PetStateWriteBehind {
+    static final long RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final PetStateBatchService petStateBatchService;
+    private final GeofenceZones geofenceZones;
+    private final PetChangeCounter petChangeCounter;
+    private final boolean enabled;
+    private final Duration window;
+    private final int capacity;
+    private final Duration offerTimeout;
+    private final int maxAttempts;
+    private final Counter coalesced;
+    private final Counter dropped;
+
+    /** Updates waiting for the next write */
+    private final Map<Long, PetStateUpdateDto> pending = new ConcurrentHashMap<>();
+    /** Updates handed to the writer but not committed yet, still visible to {@link #overlay(PetDto)} */
+    private final Map<Long, PetStateUpdateDto> writing = new ConcurrentHashMap<>();
+    /** The failed writes of the pets whose update was put back */
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    /** Held while a batch is taken from the buffer and written */
+    private final ReentrantLock flushing = new ReentrantLock();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition full = lock.newCondition();
+    private volatile Thread writer;
+    /** Whether the last flush could not write any part of its batch */
+    private volatile boolean unavailable;
+
+    @Autowired
+    public PetStateWriteBehind(
+        PetStateBatchService petStateBatchService,
+        GeofenceZones geofenceZones,
+        PetChangeCounter petChangeCounter,
+        MeterRegistry meterRegistry,
+        @Value("${pet-tracker.write-behind.enabled:false}") boolean enabled,
+        @Value("${pet-tracker.write-behind.window:PT0.2S}") Duration window,
+        @Value("${pet-tracker.write-behind.capacity:100000}") int capacity,
+        @Value("${pet-tracker.write-behind.offer-timeout:PT1S}") Duration offerTimeout,
+        @Value("${pet-tracker.write-behind.max-attempts:10}") int maxAttempts
+    ) {
+        if (window.isNegative() || window.isZero() || capacity <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("Write-behind window, capacity and max attempts must be positive");
+        }
+
+        this.petStateBatchService = petStateBatchService;
+        this.geofenceZones = geofenceZones;
+        this.petChangeCounter = petChangeCounter;
+        this.enabled = enabled;
+        this.window = window;
+        this.capacity = capacity;
+        this.offerTimeout = offerTimeout;
+        this.maxAttempts = maxAttempts;
+        this.coalesced = Counter.builder("pet.state.write-behind.coalesced")
+            .description("State updates replaced by a later update of the same pet before being written")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("pet.state.write-behind.dropped")
+            .description("Buffered state updates dropped after failing max-attempts writes, or for lack of room while the database was unavailable")
+            .register(meterRegistry);
+
+        Gauge.builder("pet.state.write-behind.pending", pending, Map::size)
+            .description("Pets with a buffered state update")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled && writer == null) {
+            writer = Thread.ofVirtual().name("pet-state-writer").start(this::writeLoop);
+            log.info("Buffering pet state updates for {} with room for {} pets", window, capacity);
+        }
+    }
+
+    /**
+     * Buffers the {@code updates}, waiting for room if the buffer is full. Either all of them are buffered
+     * or, once the offer timeout passes, none.
+     *
+     * @param updates the state changes, coalesced in order (the last change wins for a repeated id)
+     * @return one {@link PetStateUpdateStatus#ACCEPTED} result per update, in the same order
+     *
+     * @throws ResponseStatusException with 503 if there is no room within the offer timeout
+     */
+    public List<PetStateUpdateResultDto> submit(List<PetStateUpdateDto> updates) {
+        awaitRoom(updates);
+
+        List<PetStateUpdateResultDto> results = new ArrayList<>(updates.size());
+        for (PetStateUpdateDto update : updates) {
+            pending.merge(update.id(), update, (older, newer) -> {
+                coalesced.increment();
+                return coalesce(older, newer);
+            });
+            results.add(new PetStateUpdateResultDto(update.id(), PetStateUpdateStatus.ACCEPTED));
+        }
+
+        if (pending.size() >= capacity) {
+            signal(full);
+        }
+
+        return results;
+    }
+
+    /**
+     * Applies the buffered state of the pet on top of the {@code pet} read from the database or cache.
+     * An update that the writer would reject (a lost tracker for a dog) is left out here as well, and so is
+     * the {@code inZone} state of a pet whose owner has safe zones.
+     *
+     * @param pet the Pet as last written, not modified
+     * @return the {@code pet} itself if nothing is buffered for it, a copy with the buffered state otherwise
+     */
+    public PetDto overlay(PetDto pet) {
+        // The writer adds to writing before it removes from pending, so reading in the opposite order never
+        // misses an update on its way to the database
+        PetStateUpdateDto buffered = pending.get(pet.getId());
+        PetStateUpdateDto written = writing.get(pet.getId());
+
+        if (written == null && buffered == null) {
+            return pet;
+        }
+
+        PetStateUpdateDto update = written == null ? buffered : buffered == null ? written : coalesce(written, buffered);
+        boolean inZone = geofenceZones.hasZones(pet.getOwnerId()) ? Boolean.TRUE.equals(pet.getInZone()) : update.inZone();
+
+        return switch (pet) {
+            case CatDto cat -> CatDto.builder()
+                .id(cat.getId())
+                .ownerId(cat.getOwnerId())
+                .inZone(inZone)
+                .trackerType(cat.getTrackerType())
+                .lostTracker(update.lostTracker() != null ? update.lostTracker() : cat.getLostTracker())
+                .build();
+            case DogDto dog when update.lostTracker() == null -> DogDto.builder()
+                .id(dog.getId())
+                .ownerId(dog.getOwnerId())
+                .inZone(inZone)
+                .trackerType(dog.getTrackerType())
+                .build();
+            case DogDto dog -> dog;
+        };
+    }
+
+    /**
+     * Drops the buffered state of a pet, waiting for a running write of it to finish. Called before the pet
+     * is updated or deleted as a whole, so an older buffered state can neither overwrite the new one nor show
+     * through {@link #overlay(PetDto)}.
+     *
+     * @param id the id of the Pet
+     */
+    public void discard(long id) {
+        pending.remove(id);
+        failedAttempts.remove(id);
+
+        if (writing.containsKey(id)) {
+            // A failed write puts its updates back before the lock is released
+            flushing.lock();
+            try {
+                pending.remove(id);
+                failedAttempts.remove(id);
+            } finally {
+                flushing.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes everything buffered so far in one {@link PetStateBatchService#apply} call, or in parts if that
+     * fails
+     *
+     * @return the number of written updates
+     */
+    public int flush() {
+        flushing.lock();
+        try {
+            return flushBuffered();
+        } finally {
+            flushing.unlock();
+        }
+    }
+
+    private int flushBuffered() {
+        List<PetStateUpdateDto> batch = new ArrayList<>(pending.size());
+
+        for (Map.Entry<Long, PetStateUpdateDto> entry : pending.entrySet()) {
+            // Visible in writing before it leaves pending, so overlay never misses it
+            writing.put(entry.getKey(), entry.getValue());
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.add(entry.getValue());
+            } else {
+                writing.remove(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        signal(notFull);
+
+        try {
+            List<PetStateUpdateDto> failed;
+            try {
+                write(batch);
+                failed = List.of();
+            } catch (RuntimeException e) {
+                log.error("Writing {} buffered pet state updates failed, writing them in parts", batch.size(), e);
+                failed = writeParts(batch);
+            }
+
+            Set<PetStateUpdateDto> unwritten = Set.copyOf(failed);
+            unavailable = unwritten.size() == batch.size();
+            if (unavailable) {
+                keep(batch);
+                return 0;
+            }
+
+            for (PetStateUpdateDto update : batch) {
+                if (unwritten.contains(update)) {
+                    putBack(update);
+                } else {
+                    failedAttempts.remove(update.id());
+                }
+            }
+            petChangeCounter.advance();
+            return batch.size() - unwritten.size();
+        } catch (Error e) {
+            batch.forEach(update -> pending.merge(update.id(), update, (newer, failedUpdate) -> coalesce(failedUpdate, newer)));
+            throw e;
+        } finally {
+            batch.forEach(update -> writing.remove(update.id(), update));
+        }
+    }
+
+    /**
+     * Writes the halves of a batch that failed as a whole, and the halves of a failing half in turn
+     *
+     * @return the updates that could not be written
+     */
+    private List<PetStateUpdateDto> writeParts(List<PetStateUpdateDto> failed) {
+        if (failed.size() == 1) {
+            return failed;
+        }
+
+        List<PetStateUpdateDto> first = failed.subList(0, failed.size() / 2);
+        List<PetStateUpdateDto> second = failed.subList(failed.size() / 2, failed.size());
+        boolean firstWritten = tryWrite(first);
+        boolean secondWritten = tryWrite(second);
+
+        if (!firstWritten && !secondWritten) {
+            // Every part fails, which points at the database rather than at single updates
+            return failed;
+        }
+
+        List<PetStateUpdateDto> unwritten = new ArrayList<>();
+        if (!firstWritten) {
+            unwritten.addAll(writeParts(first));
+        }
+        if (!secondWritten) {
+            unwritten.addAll(writeParts(second));
+        }
+        return unwritten;
+    }
+
+    private boolean tryWrite(List<PetStateUpdateDto> updates) {
+        try {
+            write(updates);
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("Writing {} buffered pet state updates failed", updates.size(), e);
+            return false;
+        }
+    }
+
+    private void write(List<PetStateUpdateDto> updates) {
+        long unapplied = petStateBatchService.apply(updates).stream()
+            .filter(result -> result.status() != PetStateUpdateStatus.UPDATED)
+            .count();
+
+        if (unapplied > 0) {
+            log.warn("{} of {} buffered pet state updates were rejected or had no pet", unapplied, updates.size());
+        }
+    }
+
+    /**
+     * Puts a batch that could not be written at all back underneath newer updates, without counting an
+     * attempt. Updates of pets that are not buffered again are dropped once the buffer is full.
+     */
+    private void keep(List<PetStateUpdateDto> batch) {
+        int lost = 0;
+        for (PetStateUpdateDto update : batch) {
+            if (pending.size() < capacity || pending.containsKey(update.id())) {
+                pending.merge(update.id(), update, (newer, failed) -> coalesce(failed, newer));
+            } else {
+                failedAttempts.remove(update.id());
+                lost++;
+            }
+        }
+
+        if (lost > 0) {
+            dropped.increment(lost);
+            log.error("Dropping {} buffered pet state updates, the buffer is full while the database is unavailable", lost);
+        }
+    }
+
+    /**
+     * Puts a failed update back underneath a newer update of the same pet, or drops it once it failed
+     * {@code max-attempts} times
+     */
+    private void putBack(PetStateUpdateDto update) {
+        int attempts = failedAttempts.merge(update.id(), 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            pending.merge(update.id(), update, (newer, failed) -> coalesce(failed, newer));
+            return;
+        }
+
+        failedAttempts.remove(update.id());
+        dropped.increment();
+        log.error("Dropping the buffered state update {} after {} failed writes", update, attempts);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        Thread current = writer;
+        writer = null;
+
+        if (current != null) {
+            signal(full);
+            LockSupport.unpark(current);
+            current.join();
+        }
+
+        flush();
+    }
+
+    private void writeLoop() {
+        while (writer != null) {
+            lock.lock();
+            try {
+                if (pending.size() < capacity) {
+                    full.await(window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                flush();
+            } catch (Error e) {
+                // The batch is back in the buffer, so the next round retries it
+                log.error("Writing buffered pet state updates failed, restarting the writer", e);
+            }
+
+            if (unavailable && writer != null) {
+                LockSupport.parkNanos(RETRY_DELAY_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Waits until the pets of {@code updates} that are not buffered yet fit. The bound is soft: concurrent
+     * callers that all see room may overshoot it by their own updates.
+     */
+    private void awaitRoom(List<PetStateUpdateDto> updates) {
+        long added = updates.stream().filter(update -> !pending.containsKey(update.id())).count();
+        long needed = Math.min(added, capacity);
+        long remaining = offerTimeout.toNanos();
+
+        lock.lock();
+        try {
+            while (pending.size() + needed > capacity) {
+                full.signal();
+                if (remaining <= 0) {
+                    throw new ResponseStatusException(
+                        HttpStatus.SERVICE_UNAVAILABLE,
+                        "Too many buffered pet state updates, try again later"
+                    );
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for room");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signal(Condition condition) {
+        lock.lock();
+        try {
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static PetStateUpdateDto coalesce(PetStateUpdateDto older, PetStateUpdateDto newer) {
+        return new PetStateUpdateDto(
+            newer.id(),
+            newer.inZone(),
+            newer.lostTracker() != null ? newer.lostTracker() : older.lostTracker()
+        );
+    }
+}
@@ -1,15 +1,48 @@
 package com.tractive.pet_tracker.services;
 
+import com.tractive.pet_tracker.models.dtos.OwnerPetsDto;
+import com.tractive.pet_tracker.models.dtos.PetAggregationDto;
+import com.tractive.pet_tracker.models.dtos.PetCursorPageDto;
 import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.dtos.PetPageDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateResultDto;
 import com.tractive.pet_tracker.models.dtos.PetsOutsideZoneDto;
-import org.springframework.data.domain.Page;
+import com.tractive.pet_tracker.models.helpers.PetJson;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
 public interface PetTrackerService {
     PetDto getPetById(long id);
-    Page<PetDto> getAllPets(Pageable pagination);
+    PetJson getPetJsonById(long id);
+    String getPetListETag();
+    PetPageDto getAllPets(Pageable pagination);
+    PetCursorPageDto getPetsAfter(String cursor, int size);
+    PetCursorPageDto getFilteredPetsAfter(
+        String cursor,
+        int size,
+        String petType,
+        String trackerType,
+        Boolean inZone,
+        Boolean lostTracker
+    );
+    void exportPets(OutputStream outputStream) throws IOException;
     PetsOutsideZoneDto countPetsOutsideZoneGroupByType();
+    OwnerPetsDto getOwnerPets(long ownerId);
+    PetAggregationDto aggregatePets(
+        List<String> groupBy,
+        String petType,
+        String trackerType,
+        Boolean inZone,
+        Boolean lostTracker,
+        Long ownerId,
+        long ownerBucketSize
+    );
     PetDto createPet(PetDto petDto);
     PetDto updatePet(long id, PetDto updatedPet);
+    List<PetStateUpdateResultDto> updatePetStates(List<PetStateUpdateDto> updates);
     void deletePet(Long id);
 }
@@ -1,87 +1,294 @@
 package com.tractive.pet_tracker.services;
 
+import com.tractive.pet_tracker.models.dtos.OwnerPetsDto;
+import com.tractive.pet_tracker.models.dtos.PetAggregationDto;
+import com.tractive.pet_tracker.models.dtos.PetCursorPageDto;
 import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.dtos.PetPageDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateResultDto;
 import com.tractive.pet_tracker.models.dtos.PetsOutsideZoneDto;
 import com.tractive.pet_tracker.models.entities.Pet;
 import com.tractive.pet_tracker.models.enums.CatTrackerType;
 import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.enums.PetDimension;
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import com.tractive.pet_tracker.models.events.PetState;
+import com.tractive.pet_tracker.models.helpers.PetAggregation;
+import com.tractive.pet_tracker.models.helpers.PetCursor;
+import com.tractive.pet_tracker.models.helpers.PetFilter;
+import com.tractive.pet_tracker.models.helpers.PetJson;
 import com.tractive.pet_tracker.models.helpers.PetMapper;
 import com.tractive.pet_tracker.repositories.PetRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.LongStream;
 
 @Slf4j
 @Service
 public class PetTrackerServiceImp implements PetTrackerService {
+    static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final PetRepository petRepository;
-    private final CatTrackerService catTrackerService;
-    private final DogTrackerService dogTrackerService;
+    private final OutsideZoneCounters outsideZoneCounters;
+    private final PetStateBatchService petStateBatchService;
+    private final PetStateWriteBehind petStateWriteBehind;
+    private final PetExportService petExportService;
+    private final PetCache petCache;
+    private final FleetSnapshot fleetSnapshot;
+    private final PetChangeCounter petChangeCounter;
+    private final GeofenceZones geofenceZones;
     private final PetMapper petMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public PetTrackerServiceImp(
         PetRepository petRepository,
-        CatTrackerService catTrackerService,
-        DogTrackerService dogTrackerService,
-        PetMapper petMapper
+        OutsideZoneCounters outsideZoneCounters,
+        PetStateBatchService petStateBatchService,
+        PetStateWriteBehind petStateWriteBehind,
+        PetExportService petExportService,
+        PetCache petCache,
+        FleetSnapshot fleetSnapshot,
+        PetChangeCounter petChangeCounter,
+        GeofenceZones geofenceZones,
+        PetMapper petMapper,
+        ApplicationEventPublisher eventPublisher
     ) {
         this.petRepository = petRepository;
-        this.catTrackerService = catTrackerService;
-        this.dogTrackerService = dogTrackerService;
+        this.outsideZoneCounters = outsideZoneCounters;
+        this.petStateBatchService = petStateBatchService;
+        this.petStateWriteBehind = petStateWriteBehind;
+        this.petExportService = petExportService;
+        this.petCache = petCache;
+        this.fleetSnapshot = fleetSnapshot;
+        this.petChangeCounter = petChangeCounter;
+        this.geofenceZones = geofenceZones;
         this.petMapper = petMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public PetDto getPetById(long id) {
-        Pet pet = findPetById(id);
-        return petMapper.mapEntityToDto(pet);
+        return petStateWriteBehind.overlay(petCache.get(id, key -> petMapper.mapEntityToDto(findPetById(key))));
     }
 
+    /**
+     * Same as {@link #getPetById(long)}, as JSON. A cached pet without a buffered state update is served
+     * from the bytes serialized when it was cached.
+     */
     @Override
-    public Page<PetDto> getAllPets(Pageable pagination) {
-        Page<PetDto> petsDtoPage =  petRepository.findAll(pagination).map(petMapper::mapEntityToDto);
+    public PetJson getPetJsonById(long id) {
+        return petCache.json(getPetById(id));
+    }
 
-        // There a bug with Jackson serializer to include @JsonTypeInfo in Page case.
-        // To solve it, I used this workaround to have petType in paginated JSON.
-        return new PageImpl<>(petsDtoPage.getContent(), pagination, petsDtoPage.getTotalElements()) {};
+    /**
+     * @return the entity tag of the lists of pets read from the database, to be taken before reading them
+     */
+    @Override
+    public String getPetListETag() {
+        return petChangeCounter.etag();
+    }
+
+    @Override
+    public PetPageDto getAllPets(Pageable pagination) {
+        Page<Pet> pets = petRepository.findAll(pagination);
+
+        List<PetDto> content = pets.stream()
+            .map(petMapper::mapEntityToDto)
+            .toList();
+
+        return new PetPageDto(content, pets.getNumber(), pets.getSize(), pets.getTotalElements(), pets.getTotalPages());
+    }
+
+    @Override
+    public PetCursorPageDto getPetsAfter(String cursor, int size) {
+        validateCursorPageSize(size);
+
+        // Fetch one extra row to know whether there is a next page without a count query
+        List<Pet> pets = petRepository.findByIdGreaterThanOrderByIdAsc(decodeCursor(cursor), Limit.of(size + 1));
+        boolean hasNext = pets.size() > size;
+
+        List<PetDto> content = pets.stream()
+            .limit(size)
+            .map(petMapper::mapEntityToDto)
+            .toList();
+
+        return new PetCursorPageDto(content, hasNext ? PetCursor.encode(pets.get(size - 1).getId()) : null);
+    }
+
+    @Override
+    public PetCursorPageDto getFilteredPetsAfter(
+        String cursor,
+        int size,
+        String petType,
+        String trackerType,
+        Boolean inZone,
+        Boolean lostTracker
+    ) {
+        validateCursorPageSize(size);
+        PetFilter filter;
+        try {
+            filter = new PetFilter(petType, trackerType, inZone, lostTracker);
+        } catch (IllegalArgumentException e) {
+            log.info("Rejected filter: {}", e.getMessage());
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                e.getMessage()
+            );
+        }
+
+        // The ids come from the fleet snapshot, one extra to know whether there is a next page
+        long afterId = decodeCursor(cursor);
+        long[] ids = fleetSnapshot.read(columns -> filter.next(columns, afterId, size + 1));
+        boolean hasNext = ids.length > size;
+
+        List<Pet> pets = ids.length == 0
+            ? List.of()
+            : petRepository.findAllById(LongStream.of(ids).limit(size).boxed().toList());
+
+        // A pet may have changed between reading the snapshot and the database
+        List<PetDto> content = pets.stream()
+            .filter(pet -> filter.matches(PetState.of(pet)))
+            .sorted(Comparator.comparing(Pet::getId))
+            .map(petMapper::mapEntityToDto)
+            .toList();
+
+        return new PetCursorPageDto(content, hasNext ? PetCursor.encode(ids[size - 1]) : null);
+    }
+
+    @Override
+    public void exportPets(OutputStream outputStream) throws IOException {
+        petExportService.export(outputStream);
     }
 
     @Override
     public PetsOutsideZoneDto countPetsOutsideZoneGroupByType() {
-        Map<CatTrackerType, Long> catsOutsideZone = catTrackerService.countCatsOutsideZone();
-        Map<DogTrackerType, Long> dogsOutsideZone = dogTrackerService.countDogsOutsideZone();
+        return outsideZoneCounters.snapshot();
+    }
 
-        return new PetsOutsideZoneDto(
-            catsOutsideZone,
-            dogsOutsideZone
-        );
+    @Override
+    public OwnerPetsDto getOwnerPets(long ownerId) {
+        List<PetState> states = petRepository.findStatesByOwnerId(ownerId);
+
+        List<PetDto> pets = new ArrayList<>(states.size());
+        Map<CatTrackerType, Long> cats = new EnumMap<>(CatTrackerType.class);
+        Map<DogTrackerType, Long> dogs = new EnumMap<>(DogTrackerType.class);
+
+        for (PetState state : states) {
+            pets.add(petMapper.mapStateToDto(state));
+
+            if (!state.inZone()) {
+                switch (state) {
+                    case PetState.CatState cat -> cats.merge(cat.trackerType(), 1L, Long::sum);
+                    case PetState.DogState dog -> dogs.merge(dog.trackerType(), 1L, Long::sum);
+                }
+            }
+        }
+
+        return new OwnerPetsDto(ownerId, pets, new PetsOutsideZoneDto(cats, dogs));
     }
 
     @Override
+    public PetAggregationDto aggregatePets(
+        List<String> groupBy,
+        String petType,
+        String trackerType,
+        Boolean inZone,
+        Boolean lostTracker,
+        Long ownerId,
+        long ownerBucketSize
+    ) {
+        try {
+            PetAggregation aggregation = new PetAggregation(
+                groupBy == null ? List.of() : groupBy.stream().map(PetDimension::of).toList(),
+                petType,
+                trackerType,
+                inZone,
+                lostTracker,
+                ownerId,
+                ownerBucketSize
+            );
+
+            return fleetSnapshot.read(aggregation::apply);
+        } catch (IllegalArgumentException e) {
+            log.info("Rejected aggregation: {}", e.getMessage());
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                e.getMessage()
+            );
+        }
+    }
+
+    // The writes publish their change inside the transaction, so listeners see it as in flight until it commits
+    @Override
+    @Transactional
     public PetDto createPet(PetDto incomingPet) {
         Pet pet = petRepository.save(petMapper.mapDtoToEntity(incomingPet));
         log.info("Created pet {}", pet);
+        eventPublisher.publishEvent(PetChangedEvent.created(PetState.of(pet)));
 
         return petMapper.mapEntityToDto(pet);
     }
 
     @Override
+    @Transactional
     public PetDto updatePet(long id, PetDto updatedPet) {
-        var pet = updatePetEntry(updatedPet, findPetById(id));
+        Pet pet = petMapper.mapDtoToEntity(updatedPet);
+        pet.setId(id);
+        PetState requested = PetState.of(pet);
+        // The geofence derives the zone state of pets whose owner has zones, so the one sent is ignored
+        boolean keepInZone = geofenceZones.hasZones(pet.getOwnerId());
+
+        petStateWriteBehind.discard(id);
+        PetState previous = petRepository.updateReturningPrevious(requested, keepInZone).orElseThrow(() -> petNotFound(id));
+        if (previous.getClass() != requested.getClass()) {
+            log.error("Error updating pet {}: the pet type cannot change", id);
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                "Pet cannot get updated"
+            );
+        }
+        PetState current = keepInZone ? requested.withInZone(previous.inZone()) : requested;
+        pet.setInZone(current.inZone());
+        log.info("Updated pet {}", pet);
+        eventPublisher.publishEvent(PetChangedEvent.updated(previous, current));
+
         return petMapper.mapEntityToDto(pet);
     }
 
     @Override
+    public List<PetStateUpdateResultDto> updatePetStates(List<PetStateUpdateDto> updates) {
+        if (petStateWriteBehind.isEnabled()) {
+            return petStateWriteBehind.submit(updates);
+        }
+
+        return petStateBatchService.apply(updates);
+    }
+
+    @Override
+    @Transactional
     public void deletePet(Long id) {
-        petRepository.delete(findPetById(id));
+        petStateWriteBehind.discard(id);
+        PetState deleted = petRepository.deleteByIdReturningState(id).orElseThrow(() -> petNotFound(id));
+        log.info("Deleted pet {}", id);
+        eventPublisher.publishEvent(PetChangedEvent.deleted(deleted));
     }
 
     /**
@@ -93,34 +300,47 @@ public class PetTrackerServiceImp implements PetTrackerService {
      * @throws ResponseStatusException if the pet is not found
      */
     private Pet findPetById(long id) {
-        return petRepository.findById(id).orElseThrow(() -> {
-            String message = String.format("Pet %s not found", id);
-            log.info(message);
-            return new ResponseStatusException(
-                    HttpStatus.NOT_FOUND,
-                    message
+        return petRepository.findById(id).orElseThrow(() -> petNotFound(id));
+    }
+
+    private ResponseStatusException petNotFound(long id) {
+        String message = String.format("Pet %s not found", id);
+        log.info(message);
+        return new ResponseStatusException(
+                HttpStatus.NOT_FOUND,
+                message
+        );
+    }
+
+    private static void validateCursorPageSize(int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                String.format("Page size must be between 1 and %d", MAX_CURSOR_PAGE_SIZE)
             );
-        });
+        }
     }
 
     /**
-     * Retrieve a Pet using ID
+     * Decodes the continuation token of a keyset page
      *
-     * @param updatedPet The DTO of the updated Pet data
-     * @param existingPet The Pet entry already exists in DB
-     * @return Pet
+     * @param cursor the continuation token, or {@code null} for the first page
+     * @return the id after which the page starts
      *
-     * @throws ResponseStatusException if the pet is not found
+     * @throws ResponseStatusException if the {@code cursor} is malformed
      */
-    private Pet updatePetEntry(PetDto updatedPet, Pet existingPet) {
+    private long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+
         try {
-            petMapper.mapDtoToEntity(updatedPet, existingPet);
-            return petRepository.save(existingPet);
+            return PetCursor.decode(cursor);
         } catch (IllegalArgumentException e) {
-            log.error("Error updating pet {}", existingPet.getId(), e);
+            log.info("Rejected cursor {}", cursor);
             throw new ResponseStatusException(
                 HttpStatus.BAD_REQUEST,
-                "Pet cannot get updated"
+                "Invalid cursor"
             );
         }
     }
@@ -0,0 +1,286 @@
+package com.tractive.pet_tracker.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional JIT warm-up before the application reports readiness. Once the application is ready, it sends a
+ * synthetic mix of create, get, list, update, delete and zone-info requests to the application's own HTTP
+ * port, so the whole path through Tomcat, Jackson, the mapper and Hibernate gets compiled. The requests only
+ * touch the pets of a scratch owner, which are deleted afterward. Every run draws its own scratch owner id
+ * from {@link #SCRATCH_OWNER_IDS_FROM} upward, so instances warming up against the same database never
+ * touch each other's pets, and the leftovers of a killed run can be found by that range. Requests are sent in rounds until a round
+ * adds less than {@code settled-compile-time} of JIT compilation, twice in a row, or {@code max-duration}
+ * has passed. Spring Boot only reports readiness once every {@link ApplicationReadyEvent} listener has
+ * returned, so the readiness probe stays down until the warm-up is done; a failing warm-up is logged and
+ * does not keep the application from starting.
+ */
+@Slf4j
+@Service
+public class StartupWarmUp {
+    /** Start of the range of scratch owner ids, far above any owner id in use */
+    static final long SCRATCH_OWNER_IDS_FROM = 1L << 62;
+
+    private static final String[] CAT_TRACKER_TYPES = {"SMALL", "BIG"};
+    private static final String[] DOG_TRACKER_TYPES = {"SMALL", "MEDIUM", "BIG"};
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration maxDuration;
+    private final int roundRequests;
+    private final int concurrency;
+    private final int scratchPets;
+    private final Duration settledCompileTime;
+    private final Timer timer;
+
+    @Autowired
+    public StartupWarmUp(
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${pet-tracker.warm-up.enabled:false}") boolean enabled,
+        @Value("${pet-tracker.warm-up.max-duration:PT60S}") Duration maxDuration,
+        @Value("${pet-tracker.warm-up.round-requests:2000}") int roundRequests,
+        @Value("${pet-tracker.warm-up.concurrency:16}") int concurrency,
+        @Value("${pet-tracker.warm-up.scratch-pets:100}") int scratchPets,
+        @Value("${pet-tracker.warm-up.settled-compile-time:PT0.05S}") Duration settledCompileTime
+    ) {
+        if (maxDuration.isNegative() || maxDuration.isZero() || roundRequests <= 0 || concurrency <= 0 || scratchPets <= 0) {
+            throw new IllegalArgumentException("Warm-up duration, round requests, concurrency and scratch pets must be positive");
+        }
+
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxDuration = maxDuration;
+        this.roundRequests = roundRequests;
+        this.concurrency = concurrency;
+        this.scratchPets = scratchPets;
+        this.settledCompileTime = settledCompileTime;
+        this.timer = Timer.builder("pet.warm-up")
+            .description("Time spent warming up before reporting readiness")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext context) || context.getWebServer() == null) {
+            log.info("Skipping the warm-up without a web server");
+            return;
+        }
+
+        URI baseUri = URI.create("http://localhost:" + context.getWebServer().getPort() + "/api/v1/pet-tracker");
+        long scratchOwnerId = ThreadLocalRandom.current().nextLong(SCRATCH_OWNER_IDS_FROM, Long.MAX_VALUE);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+
+            timer.record(() -> run(new Session(httpClient, baseUri, scratchOwnerId), executor));
+        } catch (RuntimeException e) {
+            log.warn("Warm-up failed, reporting readiness anyway", e);
+        }
+    }
+
+    private void run(Session session, ExecutorService executor) {
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean measurable = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        long compileMillis = measurable ? compiler.getTotalCompilationTime() : 0;
+        int settledRounds = 0;
+        int rounds = 0;
+
+        List<long[]> pets;
+        try {
+            pets = session.createScratchPets(scratchPets);
+        } catch (RuntimeException e) {
+            session.deleteScratchPets();
+            throw e;
+        }
+
+        try {
+            while (settledRounds < 2 && System.nanoTime() < deadline) {
+                session.round(pets, roundRequests, concurrency, executor, new Random(rounds++));
+
+                if (measurable) {
+                    long previous = compileMillis;
+                    compileMillis = compiler.getTotalCompilationTime();
+                    settledRounds = compileMillis - previous < settledCompileTime.toMillis() ? settledRounds + 1 : 0;
+                }
+            }
+        } finally {
+            session.deleteScratchPets();
+        }
+
+        log.info(
+            "Warmed up with {} rounds of {} requests ({} failed), {} ms of JIT compilation in total{}",
+            rounds, roundRequests, session.failures.get(), compileMillis,
+            settledRounds < 2 ? ", stopped by the time limit" : ""
+        );
+    }
+
+    /**
+     * The requests of one warm-up against the application's own port. The scratch pets are kept as
+     * {@code {id, 1 if cat}}.
+     */
+    private final class Session {
+        private final HttpClient httpClient;
+        private final URI baseUri;
+        private final long ownerId;
+        private final AtomicLong failures = new AtomicLong();
+
+        private Session(HttpClient httpClient, URI baseUri, long ownerId) {
+            this.httpClient = httpClient;
+            this.baseUri = baseUri;
+            this.ownerId = ownerId;
+        }
+
+        private List<long[]> createScratchPets(int count) {
+            Random random = new Random(0);
+            List<long[]> pets = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                boolean cat = i % 2 == 0;
+                JsonNode pet = send(request("").POST(petBody(ownerId, cat, random)));
+                if (pet != null) {
+                    pets.add(new long[] {pet.get("id").asLong(), cat ? 1 : 0});
+                }
+            }
+            if (pets.isEmpty()) {
+                throw new IllegalStateException("No scratch pet could be created");
+            }
+
+            return pets;
+        }
+
+        private void deleteScratchPets() {
+            JsonNode owner = send(request("/owners/" + ownerId).GET());
+            if (owner == null) {
+                return;
+            }
+
+            for (JsonNode pet : owner.get("pets")) {
+                send(request("/" + pet.get("id").asLong()).DELETE());
+            }
+        }
+
+        private void round(List<long[]> pets, int requests, int concurrency, ExecutorService executor, Random random) {
+            Semaphore permits = new Semaphore(concurrency);
+
+            try {
+                for (int i = 0; i < requests; i++) {
+                    long[] pet = pets.get(random.nextInt(pets.size()));
+                    int operation = random.nextInt(100);
+                    Random bodies = new Random(random.nextLong());
+
+                    permits.acquire();
+                    executor.execute(() -> {
+                        try {
+                            send(pet, operation, bodies);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+                permits.acquire(concurrency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during the warm-up", e);
+            }
+        }
+
+        /**
+         * Sends one request of the mix: 10% create and delete, 40% get, 15% list, 20% update and 15% zone-info
+         */
+        private void send(long[] pet, int operation, Random random) {
+            boolean cat = pet[1] == 1;
+
+            if (operation < 10) {
+                JsonNode created = send(request("").POST(petBody(ownerId, cat, random)));
+                if (created != null) {
+                    send(request("/" + created.get("id").asLong()).DELETE());
+                }
+            } else if (operation < 50) {
+                send(request("/" + pet[0]).GET());
+            } else if (operation < 65) {
+                send(request(operation % 2 == 0 ? "/scroll?size=20" : "/owners/" + ownerId).GET());
+            } else if (operation < 85) {
+                send(request("/" + pet[0]).PUT(petBody(ownerId, cat, random)));
+            } else {
+                send(request("/zone-info").GET());
+            }
+        }
+
+        /**
+         * @return the response body, or {@code null} if the request failed
+         */
+        private JsonNode send(HttpRequest.Builder request) {
+            try {
+                HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() / 100 != 2) {
+                    failures.incrementAndGet();
+                    return null;
+                }
+
+                return response.body().isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+            } catch (IOException e) {
+                failures.incrementAndGet();
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during the warm-up", e);
+            }
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUri + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json");
+        }
+    }
+
+    private static HttpRequest.BodyPublisher petBody(long ownerId, boolean cat, Random random) {
+        boolean inZone = random.nextInt(10) < 8;
+
+        String body = cat
+            ? String.format(
+                "{\"petType\":\"cat\",\"ownerId\":%d,\"inZone\":%b,\"trackerType\":\"%s\",\"lostTracker\":%b}",
+                ownerId, inZone, CAT_TRACKER_TYPES[random.nextInt(CAT_TRACKER_TYPES.length)], random.nextInt(20) == 0
+            )
+            : String.format(
+                "{\"petType\":\"dog\",\"ownerId\":%d,\"inZone\":%b,\"trackerType\":\"%s\"}",
+                ownerId, inZone, DOG_TRACKER_TYPES[random.nextInt(DOG_TRACKER_TYPES.length)]
+            );
+
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+}
@@ -0,0 +1,118 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.ZoneTransitionDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A zone event stream of one owner with its pending transitions. The buffer is coalescing: a pet has at
+ * most one pending transition, the latest, and once {@code capacity} pets are pending the oldest one is
+ * dropped and counted. Producers therefore never wait for a slow subscriber.
+ */
+final class ZoneEventSubscriber {
+    private final long ownerId;
+    private final SseEmitter emitter;
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ready = lock.newCondition();
+    private final LinkedHashMap<Long, ZoneTransitionDto> pending = new LinkedHashMap<>();
+    private long dropped;
+    private boolean closed;
+
+    /**
+     * @param transitions the pending transitions, oldest first
+     * @param dropped the number of transitions dropped since the previous batch
+     */
+    record Batch(List<ZoneTransitionDto> transitions, long dropped) {
+        boolean isEmpty() {
+            return transitions.isEmpty() && dropped == 0;
+        }
+    }
+
+    ZoneEventSubscriber(long ownerId, SseEmitter emitter, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Subscriber capacity must be positive: " + capacity);
+        }
+
+        this.ownerId = ownerId;
+        this.emitter = emitter;
+        this.capacity = capacity;
+    }
+
+    long ownerId() {
+        return ownerId;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    void offer(ZoneTransitionDto transition) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+
+            // Re-inserting moves the pet to the end, so eviction always drops the least recently changed pet
+            if (pending.remove(transition.petId()) == null && pending.size() == capacity) {
+                Iterator<Long> eldest = pending.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                dropped++;
+            }
+
+            pending.put(transition.petId(), transition);
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for pending transitions and takes all of them
+     *
+     * @param timeout the longest time to wait
+     * @return the taken batch, empty if the timeout elapsed first, or {@code null} once the subscriber is closed
+     */
+    Batch take(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = timeout.toNanos();
+            while (!closed && pending.isEmpty() && dropped == 0 && nanos > 0) {
+                nanos = ready.awaitNanos(nanos);
+            }
+
+            if (closed) {
+                return null;
+            }
+
+            Batch batch = new Batch(new ArrayList<>(pending.values()), dropped);
+            pending.clear();
+            dropped = 0;
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            pending.clear();
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
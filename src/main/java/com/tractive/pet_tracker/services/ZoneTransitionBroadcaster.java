@@ -0,0 +1,135 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.ZoneTransitionDto;
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import com.tractive.pet_tracker.models.events.PetState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes zone transitions of pets to server-sent event streams of their owner. Every subscriber has its own
+ * coalescing buffer ({@link ZoneEventSubscriber}) and its own virtual thread that writes the buffer to the
+ * connection, so a slow subscriber only delays itself. Idle streams get a heartbeat comment, which also
+ * detects closed connections.
+ */
+@Slf4j
+@Service
+public class ZoneTransitionBroadcaster {
+    private final Map<Long, Set<ZoneEventSubscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Duration heartbeatInterval;
+
+    @Autowired
+    public ZoneTransitionBroadcaster(
+        @Value("${pet-tracker.zone-events.buffer-size:256}") int bufferSize,
+        @Value("${pet-tracker.zone-events.timeout:PT1H}") Duration timeout,
+        @Value("${pet-tracker.zone-events.heartbeat-interval:PT30S}") Duration heartbeatInterval
+    ) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Zone event buffer size must be positive: " + bufferSize);
+        }
+
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * Opens a stream of the zone transitions of the owner's pets
+     *
+     * @param ownerId the owner of the pets
+     * @return SseEmitter
+     */
+    public SseEmitter subscribe(long ownerId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        ZoneEventSubscriber subscriber = new ZoneEventSubscriber(ownerId, emitter, bufferSize);
+
+        subscribers.compute(ownerId, (id, owners) -> {
+            Set<ZoneEventSubscriber> current = owners != null ? owners : ConcurrentHashMap.newKeySet();
+            current.add(subscriber);
+            return current;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        Thread.ofVirtual().name("zone-events-" + ownerId).start(() -> drain(subscriber));
+        return emitter;
+    }
+
+    /**
+     * @return the number of open streams
+     */
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPetChanged(PetChangedEvent event) {
+        PetState previous = event.previous();
+        PetState current = event.current();
+
+        if (previous == null || current == null || previous.inZone() == current.inZone()) {
+            return;
+        }
+
+        Set<ZoneEventSubscriber> owners = subscribers.get(current.ownerId());
+        if (owners == null) {
+            return;
+        }
+
+        var transition = new ZoneTransitionDto(current.id(), current.ownerId(), current.inZone(), System.currentTimeMillis());
+        owners.forEach(subscriber -> subscriber.offer(transition));
+    }
+
+    private void drain(ZoneEventSubscriber subscriber) {
+        SseEmitter emitter = subscriber.emitter();
+
+        try {
+            ZoneEventSubscriber.Batch batch;
+            while ((batch = subscriber.take(heartbeatInterval)) != null) {
+                if (batch.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    continue;
+                }
+
+                if (batch.dropped() > 0) {
+                    emitter.send(SseEmitter.event().name("overflow").data(batch.dropped()));
+                }
+                for (ZoneTransitionDto transition : batch.transitions()) {
+                    emitter.send(SseEmitter.event().name("zone-transition").data(transition, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Zone event stream of owner {} closed: {}", subscriber.ownerId(), e.getMessage());
+            emitter.completeWithError(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } finally {
+            unsubscribe(subscriber);
+        }
+    }
+
+    private void unsubscribe(ZoneEventSubscriber subscriber) {
+        subscriber.close();
+        subscribers.computeIfPresent(subscriber.ownerId(), (id, owners) -> {
+            owners.remove(subscriber);
+            return owners.isEmpty() ? null : owners;
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.tractive.pet_tracker;
+
+import com.tractive.pet_tracker.services.FleetSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles({"test", "fast-startup"})
+@SpringBootTest
+@AutoConfigureMockMvc
+@Sql(scripts = {"/insert_pets.sql"})
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class FastStartupProfileTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FleetSnapshot fleetSnapshot;
+
+    @Test
+    @DisplayName("Should serve pets with lazily initialized beans and deferred repositories")
+    void shouldServePetsWithLazyBeansAndDeferredRepositories() throws Exception {
+        fleetSnapshot.load();
+
+        mockMvc.perform(get("/api/v1/pet-tracker/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ownerId").value(1));
+        mockMvc.perform(get("/api/v1/pet-tracker/zone-info"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/pet-tracker/filter").param("inZone", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5));
+    }
+}
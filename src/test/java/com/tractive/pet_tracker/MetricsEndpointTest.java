@@ -0,0 +1,51 @@
+package com.tractive.pet_tracker;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Sql(scripts = {"/insert_pets.sql"})
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Nested
+    @DisplayName("GET /actuator/prometheus")
+    class Prometheus {
+
+        @Test
+        @DisplayName("Should expose endpoint, mapper, repository and Hibernate timings")
+        void shouldExposeHotPathTimings() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/{id}", 1L))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/actuator/prometheus"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(Matchers.containsString("http_server_requests_seconds{")))
+                    .andExpect(content().string(Matchers.containsString("uri=\"/api/v1/pet-tracker/{id}\"")))
+                    .andExpect(content().string(Matchers.containsString("quantile=\"0.999\"")))
+                    .andExpect(content().string(Matchers.containsString("pet_mapper_seconds_count{method=\"mapEntityToDto\"")))
+                    .andExpect(content().string(Matchers.containsString("spring_data_repository_invocations_seconds_count{")))
+                    .andExpect(content().string(Matchers.containsString("hibernate_statements_total{")))
+                    .andExpect(content().string(Matchers.containsString("hibernate_transactions_total{")))
+                    .andExpect(content().string(Matchers.containsString("hikaricp_connections_acquire_seconds_count{")));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.tractive.pet_tracker.controllers.v1;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LocationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Nested
+    @DisplayName("POST /api/v1/pet-tracker/locations")
+    class IngestLocations {
+
+        @Test
+        @DisplayName("Should store fixes and return them as the recent track and by time range")
+        void shouldStoreFixesAndReturnThem() throws Exception {
+            var fixes = """
+            {"fixes":[
+              {"petId":101,"timestamp":1000,"latitude":48.30,"longitude":14.28},
+              {"petId":102,"timestamp":1500,"latitude":47.07,"longitude":15.43},
+              {"petId":101,"timestamp":2000,"latitude":48.31,"longitude":14.29},
+              {"petId":101,"timestamp":3000,"latitude":48.32,"longitude":14.30}
+            ]}
+            """;
+
+            mockMvc.perform(post("/api/v1/pet-tracker/locations")
+                            .content(fixes)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isNoContent());
+
+            mockMvc.perform(get("/api/v1/pet-tracker/{id}/locations/recent", 101)
+                            .param("limit", "2")
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].timestamp").value(2000))
+                    .andExpect(jsonPath("$[1].timestamp").value(3000))
+                    .andExpect(jsonPath("$[1].latitude").value(48.32));
+
+            mockMvc.perform(get("/api/v1/pet-tracker/{id}/locations", 101)
+                            .param("from", "1000")
+                            .param("to", "3000")
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].timestamp").value(1000))
+                    .andExpect(jsonPath("$[1].timestamp").value(2000));
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request when a fix is out of range")
+        void shouldReturn400WhenFixIsOutOfRange() throws Exception {
+            var fixes = """
+            {"fixes":[{"petId":101,"timestamp":1000,"latitude":95.0,"longitude":14.28}]}
+            """;
+
+            mockMvc.perform(post("/api/v1/pet-tracker/locations")
+                            .content(fixes)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/v1/pet-tracker/{id}/locations")
+    class GetTrack {
+
+        @Test
+        @DisplayName("Should return an empty track for a pet without fixes")
+        void shouldReturnEmptyTrackForPetWithoutFixes() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/{id}/locations/recent", 999)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(0));
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request when the range is empty")
+        void shouldReturn400WhenRangeIsEmpty() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/{id}/locations", 101)
+                            .param("from", "3000")
+                            .param("to", "1000")
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+}
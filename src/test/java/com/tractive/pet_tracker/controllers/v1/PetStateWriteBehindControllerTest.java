@@ -0,0 +1,87 @@
+package com.tractive.pet_tracker.controllers.v1;
+
+import com.tractive.pet_tracker.services.PetCache;
+import com.tractive.pet_tracker.services.PetStateWriteBehind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The window is long enough that only the explicit flushes write
+@ActiveProfiles("test")
+@SpringBootTest(properties = {"pet-tracker.write-behind.enabled=true", "pet-tracker.write-behind.window=PT1H"})
+@AutoConfigureMockMvc
+@Sql(scripts = {"/insert_pets.sql"})
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class PetStateWriteBehindControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PetStateWriteBehind petStateWriteBehind;
+
+    @Autowired
+    private PetCache petCache;
+
+    @BeforeEach
+    void setUp() {
+        petCache.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Should keep a full update when a buffered state update of the pet is written afterward")
+    void shouldKeepFullUpdateOverOlderBufferedState() throws Exception {
+        mockMvc.perform(put("/api/v1/pet-tracker/batch")
+                        .content("""
+                        {"updates":[{"id":1,"inZone":false}]}
+                        """)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("ACCEPTED"));
+
+        mockMvc.perform(put("/api/v1/pet-tracker/1")
+                        .content("""
+                        {"petType":"cat","ownerId":1,"inZone":true,"trackerType":"SMALL","lostTracker":false}
+                        """)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inZone").value(true));
+
+        mockMvc.perform(get("/api/v1/pet-tracker/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inZone").value(true));
+
+        petStateWriteBehind.flush();
+
+        mockMvc.perform(get("/api/v1/pet-tracker/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inZone").value(true));
+    }
+
+    @Test
+    @DisplayName("Should not write a buffered state update of a pet deleted afterward")
+    void shouldDropBufferedStateOfDeletedPet() throws Exception {
+        mockMvc.perform(put("/api/v1/pet-tracker/batch")
+                        .content("""
+                        {"updates":[{"id":2,"inZone":true}]}
+                        """)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/v1/pet-tracker/{id}", 2L))
+                .andExpect(status().isNoContent());
+
+        assertEquals(0, petStateWriteBehind.flush());
+    }
+}
@@ -8,8 +8,14 @@ import com.tractive.pet_tracker.models.enums.CatTrackerType;
 import com.tractive.pet_tracker.models.enums.DogTrackerType;
 import com.tractive.pet_tracker.services.CatTrackerService;
 import com.tractive.pet_tracker.services.DogTrackerService;
+import com.tractive.pet_tracker.services.FleetSnapshot;
+import com.tractive.pet_tracker.services.OutsideZoneCounters;
+import com.tractive.pet_tracker.services.PetCache;
 import com.tractive.pet_tracker.services.PetTrackerService;
+import com.tractive.pet_tracker.support.SqlStatementRecorder;
+import com.tractive.pet_tracker.support.SqlStatementRecorder.RecordedStatement;
 import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -19,14 +25,21 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +47,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ActiveProfiles("test")
 @SpringBootTest
 @AutoConfigureMockMvc
+@Import(SqlStatementRecorder.class)
 @Sql(scripts = {"/insert_pets.sql"})
 @Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
 public class PetTrackerControllerTest {
@@ -53,6 +67,24 @@ public class PetTrackerControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private OutsideZoneCounters outsideZoneCounters;
+
+    @Autowired
+    private PetCache petCache;
+
+    @Autowired
+    private FleetSnapshot fleetSnapshot;
+
+    @Autowired
+    private SqlStatementRecorder sqlStatementRecorder;
+
+    // The seed scripts write to the database directly, so no change event clears the cache between tests
+    @BeforeEach
+    void setUp() {
+        petCache.invalidateAll();
+    }
+
     @Nested
     @DisplayName("GET /api/v1/pet-tracker/{id}")
     class GetPetById {
@@ -117,9 +149,14 @@ public class PetTrackerControllerTest {
                     .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                     .andExpect(jsonPath("$.content", Matchers.hasSize(10)))
                     .andExpect(jsonPath("$.content[0].id").value(1))
+                    .andExpect(jsonPath("$.content[0].petType").value("cat"))
                     .andExpect(jsonPath("$.content[1].id").value(2))
+                    .andExpect(jsonPath("$.number").value(0))
+                    .andExpect(jsonPath("$.size").value(10))
                     .andExpect(jsonPath("$.totalElements").value(10))
-                    .andExpect(jsonPath("$.totalPages").value(1));
+                    .andExpect(jsonPath("$.totalPages").value(1))
+                    .andExpect(jsonPath("$.pageable").doesNotExist())
+                    .andExpect(jsonPath("$.sort").doesNotExist());
 
             verify(petTrackerService, times(1)).getAllPets(any(Pageable.class));
         }
@@ -141,6 +178,272 @@ public class PetTrackerControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("GET /api/v1/pet-tracker/scroll")
+    class GetPetsAfter {
+
+        @Test
+        @DisplayName("Should page through all pets by following the cursor")
+        void shouldPageThroughAllPetsByFollowingCursor() throws Exception {
+            String firstPage = mockMvc.perform(get("/api/v1/pet-tracker/scroll").param("size", "4"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.content", Matchers.hasSize(4)))
+                    .andExpect(jsonPath("$.content[0].id").value(1))
+                    .andExpect(jsonPath("$.content[0].petType").value("cat"))
+                    .andExpect(jsonPath("$.content[3].id").value(4))
+                    .andExpect(jsonPath("$.nextCursor").isString())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+
+            String secondPage = mockMvc.perform(get("/api/v1/pet-tracker/scroll")
+                            .param("size", "4")
+                            .param("cursor", objectMapper.readTree(firstPage).get("nextCursor").asText()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", Matchers.hasSize(4)))
+                    .andExpect(jsonPath("$.content[0].id").value(5))
+                    .andExpect(jsonPath("$.content[0].petType").value("dog"))
+                    .andExpect(jsonPath("$.nextCursor").isString())
+                    .andReturn().getResponse().getContentAsString();
+
+            mockMvc.perform(get("/api/v1/pet-tracker/scroll")
+                            .param("size", "4")
+                            .param("cursor", objectMapper.readTree(secondPage).get("nextCursor").asText()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content", Matchers.hasSize(2)))
+                    .andExpect(jsonPath("$.content[1].id").value(10))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+            verify(petTrackerService, times(3)).getPetsAfter(any(), eq(4));
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request when cursor is malformed")
+        void shouldReturn400WhenCursorIsMalformed() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/scroll").param("cursor", "not a cursor"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request when size is out of range")
+        void shouldReturn400WhenSizeIsOutOfRange() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/scroll").param("size", "0"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/v1/pet-tracker/filter")
+    class GetFilteredPetsAfter {
+
+        // The seed script bypasses the change events the snapshot follows
+        @BeforeEach
+        void setUp() {
+            fleetSnapshot.load();
+        }
+
+        @Test
+        @DisplayName("Should page through the pets outside the zone")
+        void shouldPageThroughPetsOutsideZone() throws Exception {
+            MvcResult firstPage = mockMvc.perform(get("/api/v1/pet-tracker/filter")
+                        .param("inZone", "false")
+                        .param("size", "3"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.content[*].id", Matchers.contains(2, 4, 6)))
+                    .andExpect(jsonPath("$.content[0].petType").value("cat"))
+                    .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                    .andReturn();
+            String cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("nextCursor").asText();
+
+            mockMvc.perform(get("/api/v1/pet-tracker/filter")
+                        .param("inZone", "false")
+                        .param("size", "3")
+                        .param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[*].id", Matchers.contains(8, 10)))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+            verify(petTrackerService, times(1)).getFilteredPetsAfter(null, 3, null, null, false, null);
+        }
+
+        @Test
+        @DisplayName("Should combine the species, tracker type and lost tracker filters")
+        void shouldCombineFilters() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/filter").param("lostTracker", "true"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[*].id", Matchers.contains(4)));
+
+            mockMvc.perform(get("/api/v1/pet-tracker/filter").param("petType", "dog").param("trackerType", "big"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[*].id", Matchers.contains(5, 6)));
+        }
+
+        @Test
+        @DisplayName("Should follow pets updated through the API")
+        void shouldFollowPetsUpdatedThroughApi() throws Exception {
+            DogDto dog = DogDto.builder().ownerId(2L).inZone(true).trackerType(DogTrackerType.MEDIUM).build();
+
+            mockMvc.perform(put("/api/v1/pet-tracker/{id}", 6L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dog)))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/api/v1/pet-tracker/filter").param("trackerType", "medium"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content[*].id", Matchers.contains(6, 7, 8)));
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request for an unknown tracker type")
+        void shouldReturn400ForUnknownTrackerType() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/filter").param("trackerType", "huge"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/v1/pet-tracker/export")
+    class ExportPets {
+
+        @Test
+        @DisplayName("Should stream every pet as newline-delimited JSON")
+        void shouldStreamEveryPetAsNdjson() throws Exception {
+            MvcResult asyncResult = mockMvc.perform(get("/api/v1/pet-tracker/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String body = mockMvc.perform(asyncDispatch(asyncResult))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+
+            List<String> lines = body.lines().toList();
+
+            assertEquals(10, lines.size());
+            assertTrue(body.endsWith("\n"));
+            assertTrue(lines.get(0).contains("\"petType\":\"cat\""));
+            assertTrue(lines.get(0).contains("\"id\":1,"));
+            assertTrue(lines.get(9).contains("\"petType\":\"dog\""));
+            assertTrue(lines.get(9).contains("\"id\":10,"));
+
+            verify(petTrackerService, times(1)).exportPets(any(OutputStream.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/v1/pet-tracker/owners/{ownerId}")
+    class GetOwnerPets {
+
+        @Test
+        @DisplayName("Should return the owner's pets with their outside-zone counts")
+        void shouldReturnOwnerPetsWithOutsideZoneCounts() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/owners/{ownerId}", 22L))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.ownerId").value(22))
+                    .andExpect(jsonPath("$.pets", Matchers.hasSize(1)))
+                    .andExpect(jsonPath("$.pets[0].id").value(6))
+                    .andExpect(jsonPath("$.pets[0].petType").value("dog"))
+                    .andExpect(jsonPath("$.pets[0].inZone").value(false))
+                    .andExpect(content().json("""
+                        {"petsOutsideZone":{"cats":{},"dogs":{"BIG":1}}}
+                        """)
+                    );
+
+            verify(petTrackerService, times(1)).getOwnerPets(22L);
+        }
+
+        @Test
+        @DisplayName("Should return no outside-zone counts when all pets are in the zone")
+        void shouldReturnNoCountsWhenAllPetsAreInZone() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/owners/{ownerId}", 1L))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.pets", Matchers.hasSize(1)))
+                    .andExpect(jsonPath("$.pets[0].id").value(1))
+                    .andExpect(jsonPath("$.pets[0].petType").value("cat"))
+                    .andExpect(jsonPath("$.pets[0].lostTracker").value(false))
+                    .andExpect(content().json("""
+                        {"ownerId":1,"petsOutsideZone":{"cats":{},"dogs":{}}}
+                        """)
+                    );
+        }
+
+        @Test
+        @DisplayName("Should return an empty listing for an owner without pets")
+        void shouldReturnEmptyListingForOwnerWithoutPets() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/owners/{ownerId}", 999L))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.pets", Matchers.hasSize(0)));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /api/v1/pet-tracker/aggregate")
+    class AggregatePets {
+
+        // The seed script bypasses the change events the snapshot follows
+        @BeforeEach
+        void setUp() {
+            fleetSnapshot.load();
+        }
+
+        @Test
+        @DisplayName("Should count pets grouped by species and zone")
+        void shouldCountPetsGroupedBySpeciesAndZone() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/aggregate").param("groupBy", "petType,inZone"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(content().json("""
+                        {
+                          "groupBy": ["petType", "inZone"],
+                          "count": 10,
+                          "groups": [
+                            {"petType": "cat", "inZone": false, "count": 2, "inZoneCount": 0, "lostTrackerCount": 1},
+                            {"petType": "cat", "inZone": true, "count": 2, "inZoneCount": 2, "lostTrackerCount": 0},
+                            {"petType": "dog", "inZone": false, "count": 3, "inZoneCount": 0, "lostTrackerCount": 0},
+                            {"petType": "dog", "inZone": true, "count": 3, "inZoneCount": 3, "lostTrackerCount": 0}
+                          ]
+                        }
+                        """, true)
+                    );
+
+            verify(petTrackerService, times(1)).aggregatePets(List.of("petType", "inZone"), null, null, null, null, null, 1L);
+        }
+
+        @Test
+        @DisplayName("Should apply the filters and follow changes made through the API")
+        void shouldApplyFiltersAndFollowChanges() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/aggregate")
+                        .param("groupBy", "trackerType")
+                        .param("petType", "dog")
+                        .param("inZone", "false"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.count").value(3))
+                    .andExpect(jsonPath("$.groups[*].trackerType", Matchers.contains("SMALL", "MEDIUM", "BIG")));
+
+            mockMvc.perform(delete("/api/v1/pet-tracker/{id}", 6L))
+                    .andExpect(status().isNoContent());
+
+            mockMvc.perform(get("/api/v1/pet-tracker/aggregate").param("petType", "dog").param("inZone", "false"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.count").value(2));
+        }
+
+        @Test
+        @DisplayName("Should return 400 for an unknown dimension or filter value")
+        void shouldReturnBadRequestForUnknownDimensionOrFilterValue() throws Exception {
+            mockMvc.perform(get("/api/v1/pet-tracker/aggregate").param("groupBy", "name"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/v1/pet-tracker/aggregate").param("trackerType", "huge"))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/v1/pet-tracker/aggregate").param("groupBy", "ownerId").param("ownerBucketSize", "0"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/v1/pet-tracker/zone-info")
     class GetPetsOutsideZoneCount {
@@ -154,6 +457,7 @@ public class PetTrackerControllerTest {
             Mockito.when(dogTrackerService.countDogsOutsideZone()).thenReturn(
                 Map.of(DogTrackerType.BIG, 2L, DogTrackerType.MEDIUM, 5L, DogTrackerType.SMALL, 1L)
             );
+            outsideZoneCounters.reconcile();
 
             mockMvc.perform(get("/api/v1/pet-tracker/zone-info"))
                     .andExpect(status().isOk())
@@ -175,6 +479,7 @@ public class PetTrackerControllerTest {
             Mockito.when(dogTrackerService.countDogsOutsideZone()).thenReturn(
                     Map.of(DogTrackerType.BIG, 0L, DogTrackerType.MEDIUM, 0L, DogTrackerType.SMALL, 0L)
             );
+            outsideZoneCounters.reconcile();
 
             mockMvc.perform(get("/api/v1/pet-tracker/zone-info"))
                     .andExpect(status().isOk())
@@ -204,7 +509,7 @@ public class PetTrackerControllerTest {
                                 .accept(MediaType.APPLICATION_JSON))
                         .andExpect(status().isCreated())
                         .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                        .andExpect(jsonPath("$.id").value(11))
+                        .andExpect(jsonPath("$.id").value(Matchers.greaterThan(10)))
                         .andExpect(jsonPath("$.petType").value("cat"))
                         .andExpect(jsonPath("$.trackerType").value("BIG"))
                         .andExpect(jsonPath("$.ownerId").value(101))
@@ -227,7 +532,7 @@ public class PetTrackerControllerTest {
                                 .accept(MediaType.APPLICATION_JSON))
                         .andExpect(status().isCreated())
                         .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                        .andExpect(jsonPath("$.id").value(11))
+                        .andExpect(jsonPath("$.id").value(Matchers.greaterThan(10)))
                         .andExpect(jsonPath("$.petType").value("dog"))
                         .andExpect(jsonPath("$.trackerType").value("MEDIUM"))
                         .andExpect(jsonPath("$.ownerId").value(101))
@@ -316,6 +621,26 @@ public class PetTrackerControllerTest {
                 verify(petTrackerService, times(1)).updatePet(eq(notExistingPetId), any(PetDto.class));
             }
 
+            @Test
+            @DisplayName("Should return 400 and keep the pet unchanged when the pet type does not match")
+            void shouldReturn400WhenPetTypeDoesNotMatch() throws Exception {
+                var updatingDog = """
+                {"petType":"dog","ownerId":101,"inZone":false,"trackerType":"BIG"}
+                """;
+
+                mockMvc.perform(put("/api/v1/pet-tracker/1")
+                                .content(updatingDog)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isBadRequest());
+
+                mockMvc.perform(get("/api/v1/pet-tracker/1").accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.petType").value("cat"))
+                        .andExpect(jsonPath("$.ownerId").value(1))
+                        .andExpect(jsonPath("$.inZone").value(true));
+            }
+
             @Test
             @DisplayName("Should return 400 Bad Request when input is invalid")
             void shouldReturn400WhenUpdateInputIsInvalid() throws Exception {
@@ -333,6 +658,75 @@ public class PetTrackerControllerTest {
             }
         }
 
+        @Nested
+        @DisplayName("PUT /api/v1/pet-tracker/batch")
+        class UpdatePetStates {
+
+            @Test
+            @DisplayName("Should apply state updates and report a result per item")
+            void shouldApplyStateUpdatesAndReportResultPerItem() throws Exception {
+                var batch = """
+                {"updates":[
+                    {"id":1,"inZone":false,"lostTracker":true},
+                    {"id":6,"inZone":true},
+                    {"id":7,"inZone":true,"lostTracker":true},
+                    {"id":500,"inZone":true}
+                ]}
+                """;
+
+                mockMvc.perform(put("/api/v1/pet-tracker/batch").content(batch)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$", Matchers.hasSize(4)))
+                        .andExpect(jsonPath("$[0].id").value(1))
+                        .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                        .andExpect(jsonPath("$[1].id").value(6))
+                        .andExpect(jsonPath("$[1].status").value("UPDATED"))
+                        .andExpect(jsonPath("$[2].id").value(7))
+                        .andExpect(jsonPath("$[2].status").value("REJECTED"))
+                        .andExpect(jsonPath("$[3].id").value(500))
+                        .andExpect(jsonPath("$[3].status").value("NOT_FOUND"));
+
+                mockMvc.perform(get("/api/v1/pet-tracker/{id}", 1L))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.inZone").value(false))
+                        .andExpect(jsonPath("$.lostTracker").value(true));
+
+                mockMvc.perform(get("/api/v1/pet-tracker/{id}", 6L))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.inZone").value(true));
+
+                verify(petTrackerService, times(1)).updatePetStates(anyList());
+            }
+
+            @Test
+            @DisplayName("Should return 400 Bad Request when batch is empty")
+            void shouldReturn400WhenBatchIsEmpty() throws Exception {
+                mockMvc.perform(put("/api/v1/pet-tracker/batch").content("""
+                                {"updates":[]}
+                                """)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isBadRequest());
+
+                verify(petTrackerService, times(0)).updatePetStates(anyList());
+            }
+
+            @Test
+            @DisplayName("Should return 400 Bad Request when an item is invalid")
+            void shouldReturn400WhenItemIsInvalid() throws Exception {
+                mockMvc.perform(put("/api/v1/pet-tracker/batch").content("""
+                                {"updates":[{"id":1}]}
+                                """)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isBadRequest());
+
+                verify(petTrackerService, times(0)).updatePetStates(anyList());
+            }
+        }
+
         @Nested
         @DisplayName("DELETE /api/v1/pet-tracker/{id}")
         class DeletePet {
@@ -363,6 +757,19 @@ public class PetTrackerControllerTest {
                 verify(petTrackerService, times(1)).deletePet(petId);
             }
 
+            @Test
+            @DisplayName("Should remove the deleted pet from all tables")
+            void shouldRemoveDeletedPetFromAllTables() throws Exception {
+                mockMvc.perform(delete("/api/v1/pet-tracker/{id}", 6L))
+                        .andExpect(status().isNoContent());
+
+                mockMvc.perform(get("/api/v1/pet-tracker/{id}", 6L).accept(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isNotFound());
+
+                mockMvc.perform(delete("/api/v1/pet-tracker/{id}", 6L))
+                        .andExpect(status().isNotFound());
+            }
+
             @Test
             @DisplayName("Should return 404 when deleting non-existent pet")
             void shouldReturn404WhenDeletingNonExistentPet() throws Exception {
@@ -375,4 +782,298 @@ public class PetTrackerControllerTest {
             }
         }
     }
+
+    @Nested
+    @DisplayName("Conditional GET")
+    class ConditionalGet {
+
+        private String etagOf(MockHttpServletRequestBuilder request) throws Exception {
+            String etag = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+
+            assertNotNull(etag);
+            return etag;
+        }
+
+        @Test
+        @DisplayName("GET /{id} should answer a matching If-None-Match with 304 and no SQL until the pet changes")
+        void getPetByIdShouldAnswer304UntilPetChanges() throws Exception {
+            String etag = etagOf(get("/api/v1/pet-tracker/{id}", 1L));
+
+            assertEquals(List.of(), SqlStatementRecorder.shapes(sqlStatementRecorder.record(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker/{id}", 1L).header("If-None-Match", etag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string("ETag", etag))
+                        .andExpect(content().string(""))
+            )));
+
+            mockMvc.perform(put("/api/v1/pet-tracker/{id}", 1L)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                {"petType":"cat","ownerId":1,"inZone":false,"trackerType":"SMALL","lostTracker":false}
+                            """))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/api/v1/pet-tracker/{id}", 1L).header("If-None-Match", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", Matchers.not(etag)))
+                    .andExpect(jsonPath("$.inZone").value(false));
+        }
+
+        @Test
+        @DisplayName("GET /scroll should answer a matching If-None-Match with 304 until any pet changes")
+        void getPetsAfterShouldAnswer304UntilAnyPetChanges() throws Exception {
+            String etag = etagOf(get("/api/v1/pet-tracker/scroll").param("size", "3"));
+
+            mockMvc.perform(get("/api/v1/pet-tracker/scroll").param("size", "3").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified());
+            verify(petTrackerService, times(1)).getPetsAfter(null, 3);
+
+            mockMvc.perform(delete("/api/v1/pet-tracker/{id}", 10L))
+                    .andExpect(status().isNoContent());
+
+            mockMvc.perform(get("/api/v1/pet-tracker/scroll").param("size", "3").header("If-None-Match", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", Matchers.not(etag)));
+        }
+
+        @Test
+        @DisplayName("GET /zone-info should answer a matching If-None-Match with 304 until a count changes")
+        void getPetsOutsideZoneCountShouldAnswer304UntilCountChanges() throws Exception {
+            Mockito.when(catTrackerService.countCatsOutsideZone()).thenReturn(Map.of(CatTrackerType.BIG, 1L));
+            Mockito.when(dogTrackerService.countDogsOutsideZone()).thenReturn(Map.of());
+            outsideZoneCounters.reconcile();
+            String etag = etagOf(get("/api/v1/pet-tracker/zone-info"));
+
+            mockMvc.perform(get("/api/v1/pet-tracker/zone-info").header("If-None-Match", etag))
+                    .andExpect(status().isNotModified());
+
+            Mockito.when(dogTrackerService.countDogsOutsideZone()).thenReturn(Map.of(DogTrackerType.SMALL, 1L));
+            outsideZoneCounters.reconcile();
+
+            mockMvc.perform(get("/api/v1/pet-tracker/zone-info").header("If-None-Match", etag))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json("""
+                        {"cats":{"BIG":1},"dogs":{"SMALL":1}}
+                        """)
+                    );
+        }
+    }
+
+    /**
+     * Pins the statements every endpoint sends to the database, so an extra round trip fails the build.
+     * Update the expectations only together with a change that is meant to alter the queries.
+     */
+    @Nested
+    @DisplayName("SQL statements per endpoint")
+    class SqlStatements {
+
+        private List<String> shapesOf(SqlStatementRecorder.Action action) throws Exception {
+            return SqlStatementRecorder.shapes(sqlStatementRecorder.record(action));
+        }
+
+        @Test
+        @DisplayName("GET /{id} should load a pet with one select and serve the next read from the cache")
+        void getPetById() throws Exception {
+            assertEquals(List.of("select pet"), shapesOf(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker/{id}", 1L)).andExpect(status().isOk())
+            ));
+            assertEquals(List.of(), shapesOf(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker/{id}", 1L)).andExpect(status().isOk())
+            ));
+        }
+
+        @Test
+        @DisplayName("GET /{id} should run one select for a missing pet")
+        void getMissingPetById() throws Exception {
+            assertEquals(List.of("select pet"), shapesOf(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker/{id}", 100L)).andExpect(status().isNotFound())
+            ));
+        }
+
+        @Test
+        @DisplayName("GET / should run one select for the page and count only when the page is full")
+        void getAllPets() throws Exception {
+            assertEquals(List.of("select pet", "select pet"), shapesOf(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker").param("page", "0").param("size", "2"))
+                    .andExpect(status().isOk())
+            ));
+            assertEquals(List.of("select pet"), shapesOf(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker").param("page", "1").param("size", "8"))
+                    .andExpect(status().isOk())
+            ));
+        }
+
+        @Test
+        @DisplayName("GET /aggregate should be answered from the fleet snapshot without SQL")
+        void aggregatePets() throws Exception {
+            assertEquals(List.of(), shapesOf(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker/aggregate").param("groupBy", "petType,trackerType,inZone"))
+                    .andExpect(status().isOk())
+            ));
+        }
+
+        @Test
+        @DisplayName("GET /scroll should run one select and no count")
+        void getPetsAfter() throws Exception {
+            assertEquals(List.of("select pet"), shapesOf(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker/scroll").param("size", "3")).andExpect(status().isOk())
+            ));
+        }
+
+        @Test
+        @DisplayName("GET /filter should read only the matching pets with one select")
+        void getFilteredPetsAfter() throws Exception {
+            fleetSnapshot.load();
+
+            assertEquals(List.of("select pet"), shapesOf(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker/filter").param("inZone", "false")).andExpect(status().isOk())
+            ));
+        }
+
+        @Test
+        @DisplayName("GET /export should stream every pet from one select")
+        void exportPets() throws Exception {
+            assertEquals(List.of("select pet"), shapesOf(() -> {
+                MvcResult asyncResult = mockMvc.perform(get("/api/v1/pet-tracker/export"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+                mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk());
+            }));
+        }
+
+        @Test
+        @DisplayName("GET /zone-info should not touch the database")
+        void getPetsOutsideZoneCount() throws Exception {
+            assertEquals(List.of(), shapesOf(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker/zone-info")).andExpect(status().isOk())
+            ));
+        }
+
+        @Test
+        @DisplayName("GET /owners/{ownerId} should run one select")
+        void getOwnerPets() throws Exception {
+            assertEquals(List.of("select pet"), shapesOf(() ->
+                mockMvc.perform(get("/api/v1/pet-tracker/owners/{ownerId}", 22L)).andExpect(status().isOk())
+            ));
+        }
+
+        @Test
+        @DisplayName("POST / should insert into pet and cat, taking ids from the sequence once per 50 pets")
+        void createPet() throws Exception {
+            CatDto catDto = CatDto.builder()
+                    .ownerId(15L)
+                    .inZone(false)
+                    .trackerType(CatTrackerType.BIG)
+                    .lostTracker(false)
+                    .build();
+            String body = objectMapper.writeValueAsString(catDto);
+
+            List<String> shapes = shapesOf(() -> {
+                for (int i = 0; i < 100; i++) {
+                    mockMvc.perform(post("/api/v1/pet-tracker").content(body).contentType(MediaType.APPLICATION_JSON))
+                        .andExpect(status().isCreated());
+                }
+            });
+
+            assertTrue(Collections.frequency(shapes, "select pet_seq") <= 3, shapes.toString());
+            assertEquals(
+                Collections.nCopies(100, List.of("insert pet", "insert cat")).stream().flatMap(List::stream).toList(),
+                shapes.stream().filter(shape -> !shape.equals("select pet_seq")).toList()
+            );
+        }
+
+        @Test
+        @DisplayName("PUT /{id} should lock the pet with one select and update the child table and pet")
+        void updatePet() throws Exception {
+            CatDto catDto = CatDto.builder()
+                    .ownerId(1L)
+                    .inZone(false)
+                    .trackerType(CatTrackerType.BIG)
+                    .lostTracker(true)
+                    .build();
+
+            assertEquals(List.of("select pet", "update cat", "update pet"), shapesOf(() ->
+                mockMvc.perform(put("/api/v1/pet-tracker/{id}", 1L)
+                        .content(objectMapper.writeValueAsString(catDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+            ));
+        }
+
+        @Test
+        @DisplayName("PUT /{id} should write only the tables whose columns change")
+        void updatePetPartially() throws Exception {
+            CatDto catDto = CatDto.builder()
+                    .ownerId(2L)
+                    .inZone(true)
+                    .trackerType(CatTrackerType.SMALL)
+                    .lostTracker(false)
+                    .build();
+
+            assertEquals(List.of("select pet", "update pet"), shapesOf(() ->
+                mockMvc.perform(put("/api/v1/pet-tracker/{id}", 1L)
+                        .content(objectMapper.writeValueAsString(catDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+            ));
+            assertEquals(List.of("select pet"), shapesOf(() ->
+                mockMvc.perform(put("/api/v1/pet-tracker/{id}", 1L)
+                        .content(objectMapper.writeValueAsString(catDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+            ));
+        }
+
+        @Test
+        @DisplayName("PUT /{id} should tell a pet of another type from the lock select alone")
+        void updatePetOfAnotherType() throws Exception {
+            DogDto dogDto = DogDto.builder()
+                    .ownerId(1L)
+                    .inZone(true)
+                    .trackerType(DogTrackerType.SMALL)
+                    .build();
+
+            assertEquals(List.of("select pet"), shapesOf(() ->
+                mockMvc.perform(put("/api/v1/pet-tracker/{id}", 1L)
+                        .content(objectMapper.writeValueAsString(dogDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+            ));
+        }
+
+        @Test
+        @DisplayName("PUT /batch should load the pets with one select and send the updates as one batch")
+        void updatePetStates() throws Exception {
+            var batch = """
+                {"updates":[
+                    {"id":5,"inZone":false},
+                    {"id":6,"inZone":true}
+                ]}
+                """;
+
+            List<RecordedStatement> statements = sqlStatementRecorder.record(() ->
+                mockMvc.perform(put("/api/v1/pet-tracker/batch").content(batch).contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+            );
+
+            assertEquals(List.of("select pet", "update pet"), SqlStatementRecorder.shapes(statements));
+            assertEquals(2, statements.get(1).batchSize());
+        }
+
+        @Test
+        @DisplayName("DELETE /{id} should lock the pet with one select and delete from the child table and pet")
+        void deletePet() throws Exception {
+            assertEquals(List.of("select pet", "delete cat", "delete pet"), shapesOf(() ->
+                mockMvc.perform(delete("/api/v1/pet-tracker/{id}", 1L)).andExpect(status().isNoContent())
+            ));
+            assertEquals(List.of("select pet", "delete dog", "delete pet"), shapesOf(() ->
+                mockMvc.perform(delete("/api/v1/pet-tracker/{id}", 5L)).andExpect(status().isNoContent())
+            ));
+            assertEquals(List.of("select pet"), shapesOf(() ->
+                mockMvc.perform(delete("/api/v1/pet-tracker/{id}", 1000L)).andExpect(status().isNotFound())
+            ));
+        }
+    }
 }
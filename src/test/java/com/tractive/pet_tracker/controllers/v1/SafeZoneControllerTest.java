@@ -0,0 +1,172 @@
+package com.tractive.pet_tracker.controllers.v1;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tractive.pet_tracker.services.FleetSnapshot;
+import com.tractive.pet_tracker.services.GeofenceEvaluator;
+import com.tractive.pet_tracker.services.GeofenceService;
+import com.tractive.pet_tracker.services.PetCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@Sql(scripts = {"/insert_pets.sql"})
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class SafeZoneControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GeofenceService geofenceService;
+
+    @Autowired
+    private GeofenceEvaluator geofenceEvaluator;
+
+    @Autowired
+    private FleetSnapshot fleetSnapshot;
+
+    @Autowired
+    private PetCache petCache;
+
+    // The scripts write the database directly, so the index and the snapshot are reloaded for every test
+    @BeforeEach
+    void setUp() {
+        geofenceService.loadZones();
+        fleetSnapshot.load();
+        petCache.invalidateAll();
+    }
+
+    private long createZone(String zone) throws Exception {
+        String response = mockMvc.perform(post("/api/v1/pet-tracker/zones")
+                        .content(zone)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private void sendFix(long petId, long timestamp, double latitude, double longitude) throws Exception {
+        mockMvc.perform(post("/api/v1/pet-tracker/locations")
+                        .content(String.format(
+                            "{\"fixes\":[{\"petId\":%d,\"timestamp\":%d,\"latitude\":%s,\"longitude\":%s}]}",
+                            petId, timestamp, latitude, longitude
+                        ))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent());
+
+        // Fixes are evaluated in the background, this waits for them
+        geofenceEvaluator.evaluatePending();
+    }
+
+    @Nested
+    @DisplayName("POST /api/v1/pet-tracker/zones")
+    class CreateZone {
+
+        @Test
+        @DisplayName("Should derive inZone of the owner's pets from their location fixes")
+        void shouldDeriveInZoneFromLocationFixes() throws Exception {
+            var park = """
+            {"shape":"circle","ownerId":1,"center":{"latitude":48.3069,"longitude":14.2858},"radius":500}
+            """;
+
+            long zoneId = createZone(park);
+
+            sendFix(1L, 1_000L, 48.40, 14.50);
+
+            mockMvc.perform(get("/api/v1/pet-tracker/1").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.inZone").value(false));
+
+            sendFix(1L, 2_000L, 48.3070, 14.2860);
+
+            mockMvc.perform(get("/api/v1/pet-tracker/1").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.inZone").value(true));
+
+            mockMvc.perform(get("/api/v1/pet-tracker/zones").param("ownerId", "1").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(1))
+                    .andExpect(jsonPath("$[0].id").value(zoneId))
+                    .andExpect(jsonPath("$[0].shape").value("circle"))
+                    .andExpect(jsonPath("$[0].radius").value(500.0));
+        }
+
+        @Test
+        @DisplayName("Should create a polygon zone")
+        void shouldCreatePolygonZone() throws Exception {
+            var garden = """
+            {"shape":"polygon","ownerId":2,"vertices":[
+              {"latitude":48.0,"longitude":14.0},
+              {"latitude":48.0,"longitude":14.02},
+              {"latitude":48.02,"longitude":14.01}
+            ]}
+            """;
+
+            createZone(garden);
+
+            mockMvc.perform(get("/api/v1/pet-tracker/zones").param("ownerId", "2").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].shape").value("polygon"))
+                    .andExpect(jsonPath("$[0].vertices.length()").value(3))
+                    .andExpect(jsonPath("$[0].vertices[2].latitude").value(48.02));
+        }
+
+        @Test
+        @DisplayName("Should return 400 Bad Request when a polygon has less than 3 vertices")
+        void shouldReturn400WhenPolygonHasTooFewVertices() throws Exception {
+            var line = """
+            {"shape":"polygon","ownerId":2,"vertices":[
+              {"latitude":48.0,"longitude":14.0},
+              {"latitude":48.0,"longitude":14.02}
+            ]}
+            """;
+
+            mockMvc.perform(post("/api/v1/pet-tracker/zones")
+                            .content(line)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("DELETE /api/v1/pet-tracker/zones/{id}")
+    class DeleteZone {
+
+        @Test
+        @DisplayName("Should delete an existing zone and return 404 afterward")
+        void shouldDeleteExistingZone() throws Exception {
+            var park = """
+            {"shape":"circle","ownerId":1,"center":{"latitude":48.3069,"longitude":14.2858},"radius":500}
+            """;
+
+            long zoneId = createZone(park);
+
+            mockMvc.perform(delete("/api/v1/pet-tracker/zones/{id}", zoneId))
+                    .andExpect(status().isNoContent());
+
+            mockMvc.perform(delete("/api/v1/pet-tracker/zones/{id}", zoneId))
+                    .andExpect(status().isNotFound());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.tractive.pet_tracker.controllers.v1;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@Sql(scripts = {"/insert_pets.sql"})
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class ZoneTransitionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String content = result.getResponse().getContentAsString();
+
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+
+        return content;
+    }
+
+    @Nested
+    @DisplayName("GET /api/v1/pet-tracker/zone-events")
+    class StreamZoneTransitions {
+
+        @Test
+        @DisplayName("Should push a transition when a pet of the owner leaves its zone")
+        void shouldPushTransitionWhenPetLeavesZone() throws Exception {
+            MvcResult owner1 = mockMvc.perform(get("/api/v1/pet-tracker/zone-events")
+                            .param("ownerId", "1")
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            MvcResult owner2 = mockMvc.perform(get("/api/v1/pet-tracker/zone-events")
+                            .param("ownerId", "2")
+                            .accept(MediaType.TEXT_EVENT_STREAM))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Pet 1 of owner 1 leaves its zone, pet 3 of owner 111 already is in its zone
+            mockMvc.perform(put("/api/v1/pet-tracker/batch")
+                            .content("{\"updates\":[{\"id\":1,\"inZone\":false},{\"id\":3,\"inZone\":true}]}")
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+
+            String content = awaitContent(owner1, "\"petId\":1");
+
+            assertTrue(content.contains("event:zone-transition"), content);
+            assertTrue(content.contains("\"petId\":1,\"ownerId\":1,\"inZone\":false"), content);
+            assertFalse(content.contains("\"petId\":3"), content);
+            assertFalse(owner2.getResponse().getContentAsString().contains("zone-transition"));
+
+            owner1.getRequest().getAsyncContext().complete();
+            owner2.getRequest().getAsyncContext().complete();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.dtos.PetsOutsideZoneDto;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ETagsTest {
+
+    @Test
+    @DisplayName("Should tag equal bodies equally and different bodies differently")
+    void shouldTagBodiesByContent() {
+        String tag = ETags.of("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(tag, ETags.of("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+        assertNotEquals(tag, ETags.of("{\"id\":2}".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(tag.matches("\"[A-Za-z0-9_-]{16}\""), tag);
+    }
+
+    @Test
+    @DisplayName("Should tag zone counts exactly, with missing tracker types as zero")
+    void shouldTagZoneCountsExactly() {
+        PetsOutsideZoneDto counts = new PetsOutsideZoneDto(
+            Map.of(CatTrackerType.BIG, 1L),
+            Map.of(DogTrackerType.SMALL, 12L, DogTrackerType.BIG, 3L)
+        );
+        PetsOutsideZoneDto withZeros = new PetsOutsideZoneDto(
+            Map.of(CatTrackerType.BIG, 1L, CatTrackerType.SMALL, 0L),
+            Map.of(DogTrackerType.SMALL, 12L, DogTrackerType.BIG, 3L, DogTrackerType.MEDIUM, 0L)
+        );
+        PetsOutsideZoneDto moved = new PetsOutsideZoneDto(
+            Map.of(CatTrackerType.BIG, 1L),
+            Map.of(DogTrackerType.SMALL, 1L, DogTrackerType.BIG, 23L)
+        );
+
+        assertEquals(ETags.of(counts), ETags.of(withZeros));
+        assertNotEquals(ETags.of(counts), ETags.of(moved));
+    }
+
+    @Test
+    @DisplayName("Should tell versions of different runs apart")
+    void shouldTellVersionsOfDifferentRunsApart() {
+        assertEquals("\"a-5\"", ETags.of("a", 5));
+        assertNotEquals(ETags.of("a", 5), ETags.of("b", 5));
+    }
+}
@@ -0,0 +1,102 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.dtos.CircleZoneDto;
+import com.tractive.pet_tracker.models.dtos.CoordinateDto;
+import com.tractive.pet_tracker.models.dtos.PolygonZoneDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeofenceIndexTest {
+
+    // An L-shaped (concave) garden owned by owner 1
+    private final PolygonZoneDto garden = new PolygonZoneDto(1L, 1L, List.of(
+        new CoordinateDto(48.000, 14.000),
+        new CoordinateDto(48.000, 14.020),
+        new CoordinateDto(48.010, 14.020),
+        new CoordinateDto(48.010, 14.010),
+        new CoordinateDto(48.020, 14.010),
+        new CoordinateDto(48.020, 14.000)
+    ));
+
+    // About 500 m around a park, owned by owner 2
+    private final CircleZoneDto park = new CircleZoneDto(2L, 2L, new CoordinateDto(48.3069, 14.2858), 500.0);
+
+    private final GeofenceIndex index = GeofenceIndex.of(List.of(garden, park), 0.01);
+
+    @Test
+    @DisplayName("Should contain points inside a concave polygon only")
+    void shouldContainPointsInsideConcavePolygonOnly() {
+        assertTrue(index.contains(1L, 48.005, 14.015));
+        assertTrue(index.contains(1L, 48.015, 14.005));
+        assertFalse(index.contains(1L, 48.015, 14.015), "The notch of the L is outside");
+        assertFalse(index.contains(1L, 47.999, 14.005));
+    }
+
+    @Test
+    @DisplayName("Should contain points within the radius of a circle")
+    void shouldContainPointsWithinRadiusOfCircle() {
+        assertTrue(index.contains(2L, 48.3069, 14.2858));
+        assertTrue(index.contains(2L, 48.3069 + 0.004, 14.2858), "About 445 m north");
+        assertFalse(index.contains(2L, 48.3069 + 0.005, 14.2858), "About 557 m north");
+        assertFalse(index.contains(2L, 48.3069, 14.2858 + 0.007), "About 518 m east");
+    }
+
+    @Test
+    @DisplayName("Should only consider the zones of the given owner")
+    void shouldOnlyConsiderZonesOfOwner() {
+        assertFalse(index.contains(2L, 48.005, 14.015));
+        assertFalse(index.contains(3L, 48.3069, 14.2858));
+
+        assertTrue(index.hasZones(1L));
+        assertTrue(index.hasZones(2L));
+        assertFalse(index.hasZones(3L));
+    }
+
+    @Test
+    @DisplayName("Should keep a circle around a pole out of the grid and still find points in it")
+    void shouldKeepPolarCircleOutOfGrid() {
+        CircleZoneDto polar = new CircleZoneDto(3L, 3L, new CoordinateDto(89.99, 0.0), 100_000.0);
+        GeofenceIndex polarIndex = GeofenceIndex.of(List.of(polar, park), 0.01);
+
+        assertTrue(polarIndex.contains(3L, 89.995, 0.0));
+        assertFalse(polarIndex.contains(3L, 80.0, 0.0));
+        assertTrue(polarIndex.contains(2L, 48.3069, 14.2858));
+    }
+
+    @Test
+    @DisplayName("Should keep a polygon covering the whole globe out of the grid and still find points in it")
+    void shouldKeepWholeGlobePolygonOutOfGrid() {
+        PolygonZoneDto globe = new PolygonZoneDto(3L, 3L, List.of(
+            new CoordinateDto(-90.0, -180.0),
+            new CoordinateDto(-90.0, 180.0),
+            new CoordinateDto(90.0, 180.0),
+            new CoordinateDto(90.0, -180.0)
+        ));
+        GeofenceIndex globeIndex = GeofenceIndex.of(List.of(globe), 0.01);
+
+        assertTrue(globeIndex.contains(3L, 48.3069, 14.2858));
+        assertTrue(globeIndex.contains(3L, -33.86, 151.21));
+        assertFalse(globeIndex.contains(1L, 48.3069, 14.2858));
+    }
+
+    @Test
+    @DisplayName("Should find points of a circle on both sides of the antimeridian")
+    void shouldFindPointsOfCircleAcrossAntimeridian() {
+        CircleZoneDto island = new CircleZoneDto(3L, 3L, new CoordinateDto(-16.8, 179.999), 1_000.0);
+        GeofenceIndex islandIndex = GeofenceIndex.of(List.of(island), 0.01);
+
+        assertTrue(islandIndex.contains(3L, -16.8, 179.999));
+        assertTrue(islandIndex.contains(3L, -16.8, -179.997), "About 400 m east, across the antimeridian");
+        assertFalse(islandIndex.contains(3L, -16.8, -179.98));
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid cell size")
+    void shouldRejectInvalidCellSize() {
+        assertThrows(IllegalArgumentException.class, () -> GeofenceIndex.of(List.of(), 0));
+    }
+}
@@ -0,0 +1,178 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.dtos.PetAggregationDto;
+import com.tractive.pet_tracker.models.dtos.PetGroupDto;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.enums.PetDimension;
+import com.tractive.pet_tracker.models.events.PetState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PetAggregationTest {
+
+    private final PetColumns columns = new PetColumns(64);
+
+    @BeforeEach
+    void setUp() {
+        columns.put(new PetState.CatState(1L, 1L, true, CatTrackerType.SMALL, false));
+        columns.put(new PetState.CatState(2L, 11L, false, CatTrackerType.SMALL, false));
+        columns.put(new PetState.CatState(3L, 111L, true, CatTrackerType.BIG, false));
+        columns.put(new PetState.CatState(4L, 1111L, false, CatTrackerType.BIG, true));
+        columns.put(new PetState.DogState(5L, 2L, true, DogTrackerType.BIG));
+        columns.put(new PetState.DogState(6L, 22L, false, DogTrackerType.BIG));
+        columns.put(new PetState.DogState(7L, 222L, true, DogTrackerType.MEDIUM));
+        columns.put(new PetState.DogState(8L, 2222L, false, DogTrackerType.MEDIUM));
+    }
+
+    private static PetAggregation groupBy(PetDimension... dimensions) {
+        return new PetAggregation(List.of(dimensions), null, null, null, null, null, 1);
+    }
+
+    @Nested
+    @DisplayName("grouping")
+    class GroupingTests {
+
+        @Test
+        @DisplayName("Should count all pets in one group without dimensions")
+        void shouldCountAllPetsInOneGroupWithoutDimensions() {
+            PetAggregationDto result = groupBy().apply(columns);
+
+            assertEquals(List.of(), result.groupBy());
+            assertEquals(8, result.count());
+            assertEquals(List.of(new PetGroupDto(null, null, null, null, null, 8, 4, 1)), result.groups());
+        }
+
+        @Test
+        @DisplayName("Should group by species and zone in a stable order")
+        void shouldGroupBySpeciesAndZone() {
+            PetAggregationDto result = groupBy(PetDimension.PET_TYPE, PetDimension.IN_ZONE).apply(columns);
+
+            assertEquals(List.of("petType", "inZone"), result.groupBy());
+            assertEquals(List.of(
+                new PetGroupDto("cat", null, false, null, null, 2, 0, 1),
+                new PetGroupDto("cat", null, true, null, null, 2, 2, 0),
+                new PetGroupDto("dog", null, false, null, null, 2, 0, 0),
+                new PetGroupDto("dog", null, true, null, null, 2, 2, 0)
+            ), result.groups());
+        }
+
+        @Test
+        @DisplayName("Should merge the tracker types of both species by name")
+        void shouldMergeTrackerTypesOfBothSpeciesByName() {
+            PetAggregationDto result = groupBy(PetDimension.TRACKER_TYPE).apply(columns);
+
+            assertEquals(List.of(
+                new PetGroupDto(null, "SMALL", null, null, null, 2, 1, 0),
+                new PetGroupDto(null, "BIG", null, null, null, 4, 2, 1),
+                new PetGroupDto(null, "MEDIUM", null, null, null, 2, 1, 0)
+            ), result.groups());
+        }
+
+        @Test
+        @DisplayName("Should leave lostTracker unset for dogs")
+        void shouldLeaveLostTrackerUnsetForDogs() {
+            PetAggregationDto result = groupBy(PetDimension.LOST_TRACKER).apply(columns);
+
+            assertEquals(List.of(
+                new PetGroupDto(null, null, null, false, null, 3, 2, 0),
+                new PetGroupDto(null, null, null, true, null, 1, 0, 1),
+                new PetGroupDto(null, null, null, null, null, 4, 2, 0)
+            ), result.groups());
+        }
+
+        @Test
+        @DisplayName("Should group owners into buckets of consecutive ids")
+        void shouldGroupOwnersIntoBuckets() {
+            PetAggregationDto result = new PetAggregation(List.of(PetDimension.OWNER_ID), null, null, null, null, null, 1000)
+                .apply(columns);
+
+            assertEquals(List.of(
+                new PetGroupDto(null, null, null, null, 0L, 6, 4, 0),
+                new PetGroupDto(null, null, null, null, 1000L, 1, 0, 1),
+                new PetGroupDto(null, null, null, null, 2000L, 1, 0, 0)
+            ), result.groups());
+        }
+
+        @Test
+        @DisplayName("Should reject more than the maximum number of groups")
+        void shouldRejectMoreThanMaximumNumberOfGroups() {
+            PetColumns fleet = new PetColumns(PetAggregation.MAX_GROUPS + 2);
+            for (long id = 1; id <= PetAggregation.MAX_GROUPS + 1; id++) {
+                fleet.put(new PetState.DogState(id, id, true, DogTrackerType.SMALL));
+            }
+
+            assertThrows(IllegalArgumentException.class, () -> groupBy(PetDimension.OWNER_ID).apply(fleet));
+        }
+    }
+
+    @Nested
+    @DisplayName("filters")
+    class FilterTests {
+
+        @Test
+        @DisplayName("Should count lost trackers of cats only")
+        void shouldCountLostTrackersOfCatsOnly() {
+            PetAggregationDto result = new PetAggregation(List.of(PetDimension.TRACKER_TYPE), null, null, null, true, null, 1)
+                .apply(columns);
+
+            assertEquals(List.of(new PetGroupDto(null, "BIG", null, null, null, 1, 0, 1)), result.groups());
+            assertEquals(3, new PetAggregation(List.of(), null, null, null, false, null, 1).apply(columns).count());
+        }
+
+        @Test
+        @DisplayName("Should combine species, tracker type, zone and owner filters")
+        void shouldCombineFilters() {
+            assertEquals(1, new PetAggregation(List.of(), "DOG", "big", false, null, null, 1).apply(columns).count());
+            assertEquals(2, new PetAggregation(List.of(), null, "small", null, null, null, 1).apply(columns).count());
+            assertEquals(1, new PetAggregation(List.of(), null, null, null, null, 22L, 1).apply(columns).count());
+            assertEquals(0, new PetAggregation(List.of(), "cat", "medium", null, null, null, 1).apply(columns).count());
+        }
+
+        @Test
+        @DisplayName("Should reject unknown pet and tracker types and empty owner buckets")
+        void shouldRejectUnknownValues() {
+            assertThrows(IllegalArgumentException.class, () -> new PetAggregation(List.of(), "bird", null, null, null, null, 1));
+            assertThrows(IllegalArgumentException.class, () -> new PetAggregation(List.of(), null, "huge", null, null, null, 1));
+            assertThrows(IllegalArgumentException.class, () -> new PetAggregation(List.of(), null, null, null, null, null, 0));
+            assertThrows(IllegalArgumentException.class, () -> PetDimension.of("name"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should count the same as a plain loop over many chunks")
+    void shouldCountSameAsPlainLoopOverManyChunks() {
+        Random random = new Random(7);
+        PetColumns fleet = new PetColumns(300_001);
+        long outsideBigDogs = 0;
+
+        for (long id = 1; id <= 300_000; id++) {
+            boolean inZone = random.nextBoolean();
+            if (random.nextBoolean()) {
+                fleet.put(new PetState.CatState(id, id % 50, inZone, CatTrackerType.BIG, random.nextBoolean()));
+            } else {
+                DogTrackerType trackerType = DogTrackerType.values()[random.nextInt(3)];
+                fleet.put(new PetState.DogState(id, id % 50, inZone, trackerType));
+                outsideBigDogs += !inZone && trackerType == DogTrackerType.BIG ? 1 : 0;
+            }
+        }
+
+        PetAggregationDto result = new PetAggregation(
+            List.of(PetDimension.PET_TYPE, PetDimension.TRACKER_TYPE), "dog", null, false, null, null, 1
+        ).apply(fleet);
+
+        assertEquals(
+            outsideBigDogs,
+            result.groups().stream().filter(group -> group.trackerType().equals("BIG")).findFirst().orElseThrow().count()
+        );
+        assertEquals(300_000, groupBy(PetDimension.OWNER_ID).apply(fleet).count());
+        assertEquals(50, groupBy(PetDimension.OWNER_ID).apply(fleet).groups().size());
+    }
+}
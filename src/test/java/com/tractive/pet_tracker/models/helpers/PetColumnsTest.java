@@ -0,0 +1,131 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PetColumnsTest {
+
+    private final PetColumns columns = new PetColumns(64);
+
+    @Nested
+    @DisplayName("put, get and remove")
+    class PutGetRemoveTests {
+
+        @Test
+        @DisplayName("Should return the state that was put")
+        void shouldReturnStateThatWasPut() {
+            PetState cat = new PetState.CatState(1L, 10L, false, CatTrackerType.BIG, true);
+            PetState dog = new PetState.DogState(2L, 20L, true, DogTrackerType.MEDIUM);
+
+            columns.put(cat);
+            columns.put(dog);
+
+            assertEquals(cat, columns.get(1L));
+            assertEquals(dog, columns.get(2L));
+            assertNull(columns.get(3L));
+            assertEquals(2, columns.size());
+            assertEquals(3, columns.slots());
+        }
+
+        @Test
+        @DisplayName("Should overwrite a pet without counting it twice")
+        void shouldOverwritePetWithoutCountingItTwice() {
+            columns.put(new PetState.CatState(1L, 10L, false, CatTrackerType.BIG, true));
+            columns.put(new PetState.DogState(1L, 11L, true, DogTrackerType.SMALL));
+
+            assertEquals(new PetState.DogState(1L, 11L, true, DogTrackerType.SMALL), columns.get(1L));
+            assertFalse(columns.lostTracker(1), "A dog does not keep the lost tracker bit of a cat");
+            assertEquals(0L, columns.trackerCodeWord(PetColumns.catCode(CatTrackerType.BIG), 0));
+            assertEquals(1L << 1, columns.trackerCodeWord(PetColumns.dogCode(DogTrackerType.SMALL), 0));
+            assertEquals(1, columns.size());
+        }
+
+        @Test
+        @DisplayName("Should clear every column of a removed pet")
+        void shouldClearEveryColumnOfRemovedPet() {
+            columns.put(new PetState.CatState(5L, 10L, true, CatTrackerType.SMALL, true));
+
+            assertTrue(columns.remove(5L));
+            assertFalse(columns.remove(5L));
+
+            assertFalse(columns.contains(5L));
+            assertEquals(PetColumns.ABSENT, columns.trackerCode(5));
+            assertEquals(0L, columns.presentWord(0) | columns.inZoneWord(0) | columns.lostTrackerWord(0));
+            assertEquals(0L, columns.trackerCodeWord(PetColumns.catCode(CatTrackerType.SMALL), 0));
+            assertEquals(0, columns.size());
+        }
+
+        @Test
+        @DisplayName("Should reject ids that cannot be a slot")
+        void shouldRejectIdsThatCannotBeSlot() {
+            assertThrows(IllegalArgumentException.class, () -> columns.put(new PetState.DogState(0L, 1L, true, DogTrackerType.BIG)));
+            assertThrows(
+                IllegalArgumentException.class,
+                () -> columns.put(new PetState.DogState(PetColumns.MAX_ID + 1L, 1L, true, DogTrackerType.BIG))
+            );
+            assertFalse(columns.remove(-1L));
+        }
+    }
+
+    @Nested
+    @DisplayName("layout")
+    class LayoutTests {
+
+        @Test
+        @DisplayName("Should grow and keep every pet")
+        void shouldGrowAndKeepEveryPet() {
+            for (long id = 1; id <= 1_000; id++) {
+                columns.put(new PetState.DogState(id, id * 2, id % 3 == 0, DogTrackerType.SMALL));
+            }
+
+            assertEquals(1_000, columns.size());
+            assertEquals(16, columns.words());
+            assertEquals(new PetState.DogState(999L, 1_998L, true, DogTrackerType.SMALL), columns.get(999L));
+        }
+
+        @Test
+        @DisplayName("Should find the pets outside the zone in the bitsets")
+        void shouldFindPetsOutsideZoneInBitsets() {
+            columns.put(new PetState.CatState(1L, 10L, true, CatTrackerType.BIG, false));
+            columns.put(new PetState.CatState(2L, 10L, false, CatTrackerType.BIG, false));
+            columns.put(new PetState.DogState(63L, 20L, false, DogTrackerType.BIG));
+
+            assertEquals((1L << 2) | (1L << 63), columns.presentWord(0) & ~columns.inZoneWord(0));
+        }
+
+        @Test
+        @DisplayName("Should encode every tracker type to a distinct code")
+        void shouldEncodeEveryTrackerTypeToDistinctCode() {
+            for (CatTrackerType trackerType : CatTrackerType.values()) {
+                byte code = PetColumns.catCode(trackerType);
+
+                assertTrue(PetColumns.isCat(code));
+                assertEquals(trackerType, PetColumns.catTrackerType(code));
+            }
+            for (DogTrackerType trackerType : DogTrackerType.values()) {
+                byte code = PetColumns.dogCode(trackerType);
+
+                assertFalse(PetColumns.isCat(code));
+                assertTrue(code < PetColumns.CODES);
+                assertEquals(trackerType, PetColumns.dogTrackerType(code));
+            }
+        }
+
+        @Test
+        @DisplayName("Should use less than 20 bytes per pet for dense ids")
+        void shouldUseLessThan20BytesPerPetForDenseIds() {
+            PetColumns fleet = new PetColumns(100_001);
+            for (long id = 1; id <= 100_000; id++) {
+                fleet.put(new PetState.CatState(id, id, true, CatTrackerType.SMALL, false));
+            }
+
+            assertTrue(fleet.memoryBytes() < 20L * fleet.size(), fleet.memoryBytes() + " bytes");
+        }
+    }
+}
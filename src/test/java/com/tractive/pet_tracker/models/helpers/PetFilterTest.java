@@ -0,0 +1,113 @@
+package com.tractive.pet_tracker.models.helpers;
+
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PetFilterTest {
+
+    private static PetColumns fleet() {
+        PetColumns columns = new PetColumns(64);
+        columns.put(new PetState.CatState(1L, 1L, true, CatTrackerType.SMALL, false));
+        columns.put(new PetState.CatState(2L, 11L, false, CatTrackerType.SMALL, false));
+        columns.put(new PetState.CatState(3L, 111L, true, CatTrackerType.BIG, false));
+        columns.put(new PetState.CatState(4L, 1111L, false, CatTrackerType.BIG, true));
+        columns.put(new PetState.DogState(5L, 2L, true, DogTrackerType.BIG));
+        columns.put(new PetState.DogState(6L, 22L, false, DogTrackerType.BIG));
+        columns.put(new PetState.DogState(70L, 222L, true, DogTrackerType.MEDIUM));
+        columns.put(new PetState.DogState(200L, 2222L, false, DogTrackerType.MEDIUM));
+        return columns;
+    }
+
+    @Nested
+    @DisplayName("next")
+    class NextTests {
+
+        private final PetColumns columns = fleet();
+
+        @Test
+        @DisplayName("Should find the pets outside the zone across words")
+        void shouldFindPetsOutsideZoneAcrossWords() {
+            assertArrayEquals(new long[] {2, 4, 6, 200}, new PetFilter(null, null, false, null).next(columns, 0, 10));
+        }
+
+        @Test
+        @DisplayName("Should page after an id up to the limit")
+        void shouldPageAfterIdUpToLimit() {
+            PetFilter filter = new PetFilter(null, null, null, null);
+
+            assertArrayEquals(new long[] {1, 2}, filter.next(columns, 0, 2));
+            assertArrayEquals(new long[] {3, 4}, filter.next(columns, 2, 2));
+            assertArrayEquals(new long[] {70, 200}, filter.next(columns, 6, 5));
+            assertArrayEquals(new long[] {200}, filter.next(columns, 70, 5));
+            assertArrayEquals(new long[0], filter.next(columns, 200, 5));
+            assertArrayEquals(new long[0], filter.next(columns, 5_000, 5));
+        }
+
+        @Test
+        @DisplayName("Should combine species, tracker type and lost tracker")
+        void shouldCombineSpeciesTrackerTypeAndLostTracker() {
+            assertArrayEquals(new long[] {3, 4, 5, 6}, new PetFilter(null, "big", null, null).next(columns, 0, 10));
+            assertArrayEquals(new long[] {5, 6}, new PetFilter("dog", "BIG", null, null).next(columns, 0, 10));
+            assertArrayEquals(new long[] {70, 200}, new PetFilter(null, "medium", null, null).next(columns, 0, 10));
+            assertArrayEquals(new long[] {4}, new PetFilter(null, null, null, true).next(columns, 0, 10));
+            assertArrayEquals(new long[] {1, 2, 3}, new PetFilter("cat", null, null, false).next(columns, 0, 10));
+            assertArrayEquals(new long[0], new PetFilter("dog", null, null, false).next(columns, 0, 10));
+        }
+
+        @Test
+        @DisplayName("Should follow a pet changing its tracker type or being removed")
+        void shouldFollowPetChangingTrackerTypeOrBeingRemoved() {
+            PetFilter big = new PetFilter(null, "big", null, null);
+
+            columns.put(new PetState.CatState(3L, 111L, true, CatTrackerType.SMALL, false));
+            columns.remove(5L);
+
+            assertArrayEquals(new long[] {4, 6}, big.next(columns, 0, 10));
+            assertArrayEquals(new long[] {1, 2, 3}, new PetFilter(null, "small", null, null).next(columns, 0, 10));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject unknown pet and tracker types")
+    void shouldRejectUnknownPetAndTrackerTypes() {
+        assertThrows(IllegalArgumentException.class, () -> new PetFilter("bird", null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> new PetFilter(null, "huge", null, null));
+        assertDoesNotThrow(() -> new PetFilter("cat", "medium", null, null));
+    }
+
+    @Test
+    @DisplayName("Should agree with matching states one by one")
+    void shouldAgreeWithMatchingStatesOneByOne() {
+        Random random = new Random(11);
+        PetColumns columns = new PetColumns(64);
+        PetState[] states = new PetState[5_001];
+
+        for (int id = 1; id <= 5_000; id++) {
+            states[id] = random.nextBoolean()
+                ? new PetState.CatState(id, 1L, random.nextBoolean(), CatTrackerType.values()[random.nextInt(2)], random.nextBoolean())
+                : new PetState.DogState(id, 1L, random.nextBoolean(), DogTrackerType.values()[random.nextInt(3)]);
+            columns.put(states[id]);
+        }
+
+        for (PetFilter filter : new PetFilter[] {
+            new PetFilter("cat", null, false, true),
+            new PetFilter(null, "small", true, null),
+            new PetFilter("dog", "medium", false, null),
+            new PetFilter(null, null, null, false)
+        }) {
+            long[] expected = LongStream.rangeClosed(1, 5_000).filter(id -> filter.matches(states[(int) id])).toArray();
+
+            assertArrayEquals(expected, filter.next(columns, 0, 5_000), Arrays.toString(expected));
+        }
+    }
+}
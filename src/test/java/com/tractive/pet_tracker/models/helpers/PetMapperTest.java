@@ -8,28 +8,24 @@ import com.tractive.pet_tracker.models.entities.Dog;
 import com.tractive.pet_tracker.models.entities.Pet;
 import com.tractive.pet_tracker.models.enums.CatTrackerType;
 import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
 public class PetMapperTest {
-    @InjectMocks
     private PetMapper petMapper;
 
-    private ModelMapper modelMapper;
-
     @BeforeEach
     void setUp() {
-        modelMapper = new ModelMapper();
-        petMapper = new PetMapper(modelMapper);
+        petMapper = new PetMapper();
     }
 
     @Nested
@@ -71,6 +67,22 @@ public class PetMapperTest {
             assertEquals(dogDto.getInZone(), dogEntity.getInZone());
             assertEquals(dogDto.getTrackerType(), ((Dog) dogEntity).getTrackerType());
         }
+
+        @Test
+        @DisplayName("Should not copy the id of the PetDto")
+        void shouldNotCopyIdOfPetDto() {
+            CatDto catDto = CatDto.builder()
+                    .id(99L)
+                    .ownerId(100L)
+                    .inZone(true)
+                    .trackerType(CatTrackerType.SMALL)
+                    .lostTracker(false)
+                    .build();
+
+            Pet catEntity = petMapper.mapDtoToEntity(catDto);
+
+            assertEquals(0L, catEntity.getId());
+        }
     }
 
     @Nested
@@ -179,6 +191,29 @@ public class PetMapperTest {
             assertEquals(dogDto.getTrackerType(), dogEntity.getTrackerType());
         }
 
+        @Test
+        @DisplayName("Should keep the id of the existing Pet")
+        void shouldKeepIdOfExistingPet() {
+            DogDto dogDto = DogDto.builder()
+                    .id(99L)
+                    .ownerId(101L)
+                    .inZone(true)
+                    .trackerType(DogTrackerType.BIG)
+                    .build();
+
+            Dog dogEntity = Dog.builder()
+                    .id(5L)
+                    .ownerId(101L)
+                    .inZone(false)
+                    .trackerType(DogTrackerType.SMALL)
+                    .build();
+
+            petMapper.mapDtoToEntity(dogDto, dogEntity);
+
+            assertEquals(5L, dogEntity.getId());
+            assertEquals(DogTrackerType.BIG, dogEntity.getTrackerType());
+        }
+
         @Test
         @DisplayName("Should throw IllegalArgumentException if PetDto and Pet type do not match")
         void shouldThrowExceptionIfPetDtoAndPetTypeDoNotMatch() {
@@ -192,4 +227,42 @@ public class PetMapperTest {
             assertTrue(exception.getMessage().contains("Unknown pet type"));
         }
     }
+
+    @Nested
+    @DisplayName("metrics")
+    class MetricsTests {
+
+        @Test
+        @DisplayName("Should record every call in the timer of its method")
+        void shouldRecordEveryCallInTimerOfItsMethod() {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            PetMapper timedPetMapper = new PetMapper(meterRegistry);
+            Dog dog = Dog.builder()
+                    .id(2L)
+                    .ownerId(20L)
+                    .inZone(true)
+                    .trackerType(DogTrackerType.SMALL)
+                    .build();
+
+            timedPetMapper.mapEntityToDto(dog);
+            timedPetMapper.mapEntityToDto(dog);
+            timedPetMapper.mapStateToDto(PetState.of(dog));
+
+            assertEquals(2L, meterRegistry.get("pet.mapper").tag("method", "mapEntityToDto").timer().count());
+            assertEquals(1L, meterRegistry.get("pet.mapper").tag("method", "mapStateToDto").timer().count());
+            assertEquals(0L, meterRegistry.get("pet.mapper").tag("method", "mapDtoToEntity").timer().count());
+        }
+
+        @Test
+        @DisplayName("Should record a call that fails")
+        void shouldRecordCallThatFails() {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            PetMapper timedPetMapper = new PetMapper(meterRegistry);
+            DogDto dogDto = DogDto.builder().ownerId(20L).inZone(true).trackerType(DogTrackerType.SMALL).build();
+
+            assertThrows(IllegalArgumentException.class, () -> timedPetMapper.mapDtoToEntity(dogDto, new Cat()));
+
+            assertEquals(1L, meterRegistry.get("pet.mapper").tag("method", "mapDtoOntoEntity").timer().count());
+        }
+    }
 }
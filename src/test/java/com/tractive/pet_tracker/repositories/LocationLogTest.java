@@ -0,0 +1,185 @@
+package com.tractive.pet_tracker.repositories;
+
+import com.tractive.pet_tracker.models.projections.LocationFix;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocationLogTest {
+
+    @TempDir
+    private Path directory;
+
+    private static List<LocationFix> track(long petId, long fromTimestamp, int count) {
+        List<LocationFix> fixes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            fixes.add(new LocationFix(petId, fromTimestamp + i * 1000L, 48.3 + i * 0.001, 14.3 - i * 0.001));
+        }
+
+        return fixes;
+    }
+
+    @Nested
+    @DisplayName("appendAll")
+    class AppendAllTests {
+
+        @Test
+        @DisplayName("Should roll over to new segments when a segment is full")
+        void shouldRollOverToNewSegments() throws IOException {
+            LocationLog locationLog = new LocationLog(directory, 4, 16);
+
+            locationLog.appendAll(track(1L, 1_000L, 10));
+
+            assertEquals(10, locationLog.size());
+            try (var files = Files.list(directory)) {
+                assertEquals(3, files.count());
+            }
+            assertEquals(track(1L, 1_000L, 10), locationLog.findRecent(1L, 100));
+        }
+
+        @Test
+        @DisplayName("Should reject a fix without a valid pet id")
+        void shouldRejectFixWithoutValidPetId() throws IOException {
+            LocationLog locationLog = new LocationLog(directory, 4, 16);
+
+            List<LocationFix> fixes = List.of(new LocationFix(1L, 1L, 0, 0), new LocationFix(0L, 2L, 0, 0));
+
+            assertThrows(IllegalArgumentException.class, () -> locationLog.appendAll(fixes));
+            assertEquals(0, locationLog.size(), "A rejected batch must not be partially appended");
+        }
+
+        @Test
+        @DisplayName("Should leave no trace of a batch that failed midway")
+        void shouldLeaveNoTraceOfBatchThatFailedMidway() throws IOException {
+            LocationLog locationLog = new LocationLog(directory, 4, 16);
+            locationLog.appendAll(track(1L, 1_000L, 3));
+
+            // The second segment cannot be created while a directory is in its place
+            Path blocked = Files.createDirectory(directory.resolve("00000000000000000001.seg"));
+            assertThrows(UncheckedIOException.class, () -> locationLog.appendAll(track(2L, 1_000L, 3)));
+            assertEquals(3, locationLog.size());
+            assertTrue(locationLog.findRecent(2L, 10).isEmpty());
+
+            Files.delete(blocked);
+            locationLog.appendAll(track(3L, 1_000L, 3));
+
+            assertEquals(track(1L, 1_000L, 3), locationLog.findRecent(1L, 10));
+            assertTrue(locationLog.findRecent(2L, 10).isEmpty());
+            assertEquals(track(3L, 1_000L, 3), locationLog.findRecent(3L, 10));
+            locationLog.close();
+
+            LocationLog reopened = new LocationLog(directory, 4, 16);
+            assertEquals(6, reopened.size());
+            assertTrue(reopened.findRecent(2L, 10).isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("findRecent and findBetween")
+    class FindTests {
+
+        @Test
+        @DisplayName("Should return only the requested pet's latest fixes, oldest first")
+        void shouldReturnRequestedPetsLatestFixes() throws IOException {
+            LocationLog locationLog = new LocationLog(directory, 8, 16);
+            List<LocationFix> cat = track(1L, 1_000L, 5);
+            List<LocationFix> dog = track(2L, 1_500L, 5);
+
+            for (int i = 0; i < 5; i++) {
+                locationLog.appendAll(List.of(cat.get(i), dog.get(i)));
+            }
+
+            assertEquals(cat.subList(2, 5), locationLog.findRecent(1L, 3));
+            assertEquals(dog, locationLog.findRecent(2L, 10));
+            assertTrue(locationLog.findRecent(3L, 10).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should return the fixes within a range, including late arrivals")
+        void shouldReturnFixesWithinRange() throws IOException {
+            LocationLog locationLog = new LocationLog(directory, 8, 16);
+            List<LocationFix> fixes = track(1L, 1_000L, 6);
+
+            locationLog.appendAll(List.of(fixes.get(0), fixes.get(2), fixes.get(3), fixes.get(5)));
+            locationLog.appendAll(List.of(fixes.get(1), fixes.get(4)));
+
+            assertEquals(fixes.subList(1, 5), locationLog.findBetween(1L, 2_000L, 6_000L, 100));
+            assertEquals(fixes.subList(1, 3), locationLog.findBetween(1L, 2_000L, 6_000L, 2));
+        }
+    }
+
+    @Nested
+    @DisplayName("retention")
+    class RetentionTests {
+
+        @Test
+        @DisplayName("Should delete the oldest segments and forget their fixes")
+        void shouldDeleteOldestSegmentsAndForgetTheirFixes() throws IOException {
+            LocationLog locationLog = new LocationLog(directory, 4, 2);
+
+            locationLog.appendAll(track(1L, 1_000L, 2));
+            locationLog.appendAll(track(2L, 1_000L, 8));
+
+            assertEquals(10, locationLog.size());
+            try (var files = Files.list(directory)) {
+                assertEquals(2, files.count());
+            }
+            assertTrue(locationLog.findRecent(1L, 10).isEmpty());
+            assertEquals(track(2L, 1_000L, 8).subList(2, 8), locationLog.findRecent(2L, 10));
+            assertEquals(track(2L, 1_000L, 8).subList(2, 4), locationLog.findBetween(2L, 0L, 5_000L, 10));
+        }
+
+        @Test
+        @DisplayName("Should continue after the retained segments on reopen")
+        void shouldContinueAfterRetainedSegmentsOnReopen() throws IOException {
+            List<LocationFix> fixes = track(1L, 1_000L, 13);
+            LocationLog locationLog = new LocationLog(directory, 4, 2);
+            locationLog.appendAll(fixes.subList(0, 10));
+            locationLog.close();
+
+            LocationLog reopened = new LocationLog(directory, 4, 2);
+            reopened.appendAll(fixes.subList(10, 13));
+
+            assertEquals(13, reopened.size());
+            assertEquals(fixes.subList(8, 13), reopened.findRecent(1L, 100));
+        }
+    }
+
+    @Nested
+    @DisplayName("recovery")
+    class RecoveryTests {
+
+        @Test
+        @DisplayName("Should rebuild the index and continue after the last record on reopen")
+        void shouldRebuildIndexAndContinueOnReopen() throws IOException {
+            List<LocationFix> fixes = track(1L, 1_000L, 7);
+            LocationLog locationLog = new LocationLog(directory, 4, 16);
+            locationLog.appendAll(fixes.subList(0, 6));
+            locationLog.close();
+
+            LocationLog reopened = new LocationLog(directory, 4, 16);
+            reopened.appendAll(fixes.subList(6, 7));
+
+            assertEquals(7, reopened.size());
+            assertEquals(fixes, reopened.findRecent(1L, 100));
+        }
+
+        @Test
+        @DisplayName("Should refuse to open segments written with another segment size")
+        void shouldRefuseSegmentsOfAnotherSize() throws IOException {
+            new LocationLog(directory, 4, 16).appendAll(track(1L, 1_000L, 1));
+
+            assertThrows(IllegalStateException.class, () -> new LocationLog(directory, 8, 16));
+        }
+    }
+}
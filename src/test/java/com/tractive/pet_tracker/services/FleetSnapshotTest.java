@@ -0,0 +1,167 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import com.tractive.pet_tracker.models.events.PetState;
+import com.tractive.pet_tracker.models.helpers.PetColumns;
+import com.tractive.pet_tracker.repositories.PetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FleetSnapshotTest {
+
+    private final PetState cat = new PetState.CatState(1L, 10L, true, CatTrackerType.SMALL, false);
+    private final PetState dog = new PetState.DogState(2L, 20L, false, DogTrackerType.BIG);
+
+    @Mock
+    private PetRepository petRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FleetSnapshot fleetSnapshot;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fleetSnapshot = new FleetSnapshot(petRepository, meterRegistry, 64);
+    }
+
+    @Test
+    @DisplayName("Should load all pets and replace what was there before")
+    void shouldLoadAllPetsAndReplacePreviousContent() {
+        when(petRepository.streamStates()).thenReturn(Stream.of(cat, dog), Stream.of(dog));
+
+        fleetSnapshot.load();
+        assertEquals(2, fleetSnapshot.read(PetColumns::size));
+
+        fleetSnapshot.load();
+        assertNull(fleetSnapshot.read(columns -> columns.get(1L)));
+        assertEquals(dog, fleetSnapshot.read(columns -> columns.get(2L)));
+        assertEquals(1.0, meterRegistry.get("pet.fleet-snapshot.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should follow created, updated and deleted pets")
+    void shouldFollowCreatedUpdatedAndDeletedPets() {
+        PetState movedCat = new PetState.CatState(1L, 10L, false, CatTrackerType.SMALL, true);
+        when(petRepository.streamStates()).thenReturn(Stream.empty());
+        fleetSnapshot.load();
+
+        fleetSnapshot.onPetChanged(PetChangedEvent.created(cat));
+        fleetSnapshot.onPetChanged(PetChangedEvent.created(dog));
+        fleetSnapshot.onPetChanged(PetChangedEvent.updated(cat, movedCat));
+        fleetSnapshot.onPetChanged(PetChangedEvent.deleted(dog));
+
+        assertEquals(movedCat, fleetSnapshot.read(columns -> columns.get(1L)));
+        assertNull(fleetSnapshot.read(columns -> columns.get(2L)));
+        assertEquals(1, fleetSnapshot.read(PetColumns::size));
+    }
+
+    @Test
+    @DisplayName("Should skip and count pets whose id does not fit the columns")
+    void shouldSkipAndCountPetsWhoseIdDoesNotFit() {
+        PetState outOfRange = new PetState.DogState(PetColumns.MAX_ID + 1L, 20L, false, DogTrackerType.BIG);
+        when(petRepository.streamStates()).thenReturn(Stream.of(cat, outOfRange));
+        fleetSnapshot.load();
+
+        assertDoesNotThrow(() -> fleetSnapshot.onPetChanged(PetChangedEvent.created(outOfRange)));
+        fleetSnapshot.onPetChanged(PetChangedEvent.created(dog));
+
+        assertEquals(2, fleetSnapshot.read(PetColumns::size));
+        assertNull(fleetSnapshot.read(columns -> columns.get(outOfRange.id())));
+        assertEquals(2.0, meterRegistry.get("pet.fleet-snapshot.skipped").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not hold up changes during a load and replay them afterward")
+    void shouldNotHoldUpChangesDuringLoadAndReplayThemAfterward() {
+        PetState movedDog = new PetState.DogState(2L, 20L, true, DogTrackerType.BIG);
+        PetState newCat = new PetState.CatState(3L, 30L, true, CatTrackerType.BIG, false);
+
+        // The changes come from another thread while the load is still reading the database
+        when(petRepository.streamStates()).thenReturn(Stream.of(cat, dog).peek(state -> {
+            if (state == dog) {
+                CompletableFuture.runAsync(() -> {
+                    fleetSnapshot.onPetChanged(PetChangedEvent.deleted(cat));
+                    fleetSnapshot.onPetChanged(PetChangedEvent.updated(dog, movedDog));
+                    fleetSnapshot.onPetChanged(PetChangedEvent.created(newCat));
+                }).orTimeout(5, TimeUnit.SECONDS).join();
+            }
+        }));
+
+        fleetSnapshot.load();
+
+        assertNull(fleetSnapshot.read(columns -> columns.get(1L)));
+        assertEquals(movedDog, fleetSnapshot.read(columns -> columns.get(2L)));
+        assertEquals(newCat, fleetSnapshot.read(columns -> columns.get(3L)));
+    }
+
+    @Test
+    @DisplayName("Should correct a pet left behind by events applied out of order on the next load")
+    void shouldCorrectOutOfOrderEventsOnNextLoad() {
+        PetState movedCat = new PetState.CatState(1L, 10L, false, CatTrackerType.SMALL, false);
+        PetState lostCat = new PetState.CatState(1L, 10L, false, CatTrackerType.SMALL, true);
+        when(petRepository.streamStates()).thenReturn(Stream.of(cat), Stream.of(lostCat));
+
+        fleetSnapshot.load();
+        // Committed as cat -> moved -> lost, but the events arrive the other way around
+        fleetSnapshot.onPetChanged(PetChangedEvent.updated(movedCat, lostCat));
+        fleetSnapshot.onPetChanged(PetChangedEvent.updated(cat, movedCat));
+        assertEquals(movedCat, fleetSnapshot.read(columns -> columns.get(1L)));
+
+        fleetSnapshot.load();
+        assertEquals(lostCat, fleetSnapshot.read(columns -> columns.get(1L)));
+    }
+
+    @Test
+    @DisplayName("Should load in the background without holding up the ready event")
+    void shouldLoadInBackground() throws InterruptedException {
+        CountDownLatch streaming = new CountDownLatch(1);
+        when(petRepository.streamStates()).thenReturn(Stream.of(cat, dog).peek(state -> {
+            try {
+                streaming.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        fleetSnapshot.loadInBackground();
+        assertThrows(ResponseStatusException.class, () -> fleetSnapshot.read(PetColumns::size));
+
+        streaming.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("pet.fleet-snapshot.size").gauge().value() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, fleetSnapshot.read(PetColumns::size));
+    }
+
+    @Test
+    @DisplayName("Should answer reads with 503 until the first load")
+    void shouldAnswerReadsWith503UntilFirstLoad() {
+        ResponseStatusException exception = assertThrows(
+            ResponseStatusException.class,
+            () -> fleetSnapshot.read(PetColumns::size)
+        );
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+        assertEquals(0.0, meterRegistry.get("pet.fleet-snapshot.size").gauge().value());
+    }
+}
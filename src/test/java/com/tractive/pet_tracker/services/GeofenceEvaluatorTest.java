@@ -0,0 +1,82 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.projections.LocationFix;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GeofenceEvaluatorTest {
+
+    @Mock
+    private GeofenceService geofenceService;
+
+    private GeofenceEvaluator geofenceEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        geofenceEvaluator = new GeofenceEvaluator(geofenceService, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        geofenceEvaluator.close();
+    }
+
+    @Test
+    @DisplayName("Should evaluate only the newest queued fix of each pet")
+    void shouldEvaluateOnlyNewestFixOfEachPet() {
+        LocationFix newest = new LocationFix(1L, 3_000L, 48.40, 14.50);
+        LocationFix other = new LocationFix(2L, 1_000L, 48.30, 14.28);
+
+        geofenceEvaluator.submit(List.of(new LocationFix(1L, 1_000L, 48.30, 14.28), newest, other));
+        geofenceEvaluator.submit(List.of(new LocationFix(1L, 2_000L, 48.31, 14.29)));
+        geofenceEvaluator.evaluatePending();
+
+        verify(geofenceService, times(1)).evaluate(argThat(fixes -> Set.copyOf(fixes).equals(Set.of(newest, other))));
+        assertEquals(0, geofenceEvaluator.evaluatePending());
+    }
+
+    @Test
+    @DisplayName("Should queue the fixes again when the evaluation fails")
+    void shouldRequeueFixesWhenEvaluationFails() {
+        LocationFix fix = new LocationFix(1L, 1_000L, 48.30, 14.28);
+        when(geofenceService.evaluate(anyList()))
+            .thenThrow(new IllegalStateException("Not loaded"))
+            .thenReturn(1);
+
+        geofenceEvaluator.submit(List.of(fix));
+
+        assertThrows(IllegalStateException.class, () -> geofenceEvaluator.evaluatePending());
+        assertEquals(1, geofenceEvaluator.evaluatePending());
+        verify(geofenceService, times(2)).evaluate(List.of(fix));
+    }
+
+    @Test
+    @DisplayName("Should evaluate submitted fixes in the background once started")
+    void shouldEvaluateInBackground() throws InterruptedException {
+        CountDownLatch evaluated = new CountDownLatch(1);
+        when(geofenceService.evaluate(anyList())).thenAnswer(invocation -> {
+            evaluated.countDown();
+            return 0;
+        });
+
+        geofenceEvaluator.start();
+        geofenceEvaluator.submit(List.of(new LocationFix(1L, 1_000L, 48.30, 14.28)));
+
+        assertTrue(evaluated.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,183 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.CircleZoneDto;
+import com.tractive.pet_tracker.models.dtos.CoordinateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateDto;
+import com.tractive.pet_tracker.models.dtos.PolygonZoneDto;
+import com.tractive.pet_tracker.models.entities.SafeZone;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.enums.ZoneShape;
+import com.tractive.pet_tracker.models.events.PetState;
+import com.tractive.pet_tracker.models.helpers.PetColumns;
+import com.tractive.pet_tracker.models.helpers.SafeZoneMapper;
+import com.tractive.pet_tracker.models.projections.LocationFix;
+import com.tractive.pet_tracker.models.projections.PetZoneProjection;
+import com.tractive.pet_tracker.repositories.LocationLog;
+import com.tractive.pet_tracker.repositories.PetRepository;
+import com.tractive.pet_tracker.repositories.SafeZoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GeofenceServiceTest {
+
+    @Mock
+    private SafeZoneRepository safeZoneRepository;
+
+    @Mock
+    private PetRepository petRepository;
+
+    @Mock
+    private PetStateBatchService petStateBatchService;
+
+    @Mock
+    private FleetSnapshot fleetSnapshot;
+
+    @Mock
+    private LocationLog locationLog;
+
+    private GeofenceService geofenceService;
+
+    private final SafeZone park = SafeZone.builder()
+            .id(1L)
+            .ownerId(10L)
+            .shape(ZoneShape.CIRCLE)
+            .latitude(48.3069)
+            .longitude(14.2858)
+            .radius(500.0)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        geofenceService = new GeofenceService(
+            safeZoneRepository, petRepository, petStateBatchService, fleetSnapshot, locationLog, new SafeZoneMapper(), new GeofenceZones(0.05)
+        );
+    }
+
+    @Nested
+    @DisplayName("evaluate")
+    class EvaluateTests {
+
+        @Test
+        @DisplayName("Should not query pets while no zone exists")
+        void shouldNotQueryPetsWithoutZones() {
+            assertEquals(0, geofenceService.evaluate(List.of(new LocationFix(1L, 1_000L, 48.3069, 14.2858))));
+
+            verifyNoInteractions(fleetSnapshot, petRepository, petStateBatchService);
+        }
+
+        @Test
+        @DisplayName("Should update only pets whose zone state changed, using their latest fix")
+        void shouldUpdateOnlyChangedPetsUsingLatestFix() {
+            loadPark(
+                new PetState.CatState(1L, 10L, true, CatTrackerType.SMALL, false),
+                new PetState.DogState(2L, 10L, true, DogTrackerType.BIG),
+                new PetState.CatState(3L, 30L, true, CatTrackerType.BIG, false)
+            );
+
+            int changed = geofenceService.evaluate(List.of(
+                new LocationFix(1L, 2_000L, 48.40, 14.50),
+                new LocationFix(1L, 1_000L, 48.3069, 14.2858),
+                new LocationFix(2L, 1_000L, 48.3070, 14.2859),
+                new LocationFix(3L, 1_000L, 48.40, 14.50)
+            ));
+
+            assertEquals(1, changed);
+            verify(petStateBatchService, times(1)).applyZoneStates(List.of(new PetStateUpdateDto(1L, false, null)));
+            verifyNoInteractions(petRepository);
+        }
+
+        @Test
+        @DisplayName("Should skip a fix when a newer fix of the pet is already stored")
+        void shouldSkipFixOlderThanStoredFix() {
+            loadPark(new PetState.CatState(1L, 10L, true, CatTrackerType.SMALL, false));
+            when(locationLog.findRecent(1L, GeofenceService.RECENT_FIXES)).thenReturn(List.of(
+                new LocationFix(1L, 3_000L, 48.3069, 14.2858),
+                new LocationFix(1L, 2_000L, 48.40, 14.50)
+            ));
+
+            assertEquals(0, geofenceService.evaluate(List.of(new LocationFix(1L, 2_000L, 48.40, 14.50))));
+            verifyNoInteractions(petStateBatchService);
+        }
+
+        @Test
+        @DisplayName("Should skip pets that are not in the fleet snapshot")
+        void shouldSkipUnknownPets() {
+            loadPark();
+
+            assertEquals(0, geofenceService.evaluate(List.of(new LocationFix(1L, 1_000L, 48.40, 14.50))));
+            verifyNoInteractions(locationLog, petStateBatchService);
+        }
+
+        private void loadPark(PetState... pets) {
+            when(safeZoneRepository.findAllWithVertices()).thenReturn(List.of(park));
+            geofenceService.loadZones();
+
+            PetColumns columns = new PetColumns(16);
+            for (PetState pet : pets) {
+                columns.put(pet);
+            }
+            when(fleetSnapshot.read(any())).thenAnswer(invocation ->
+                invocation.<Function<PetColumns, Object>>getArgument(0).apply(columns)
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("createZone and deleteZone")
+    class ZoneChangeTests {
+
+        @Test
+        @DisplayName("Should re-evaluate the owner's pets from their last fix when a zone is created")
+        void shouldReevaluateOwnersPetsWhenZoneIsCreated() {
+            when(safeZoneRepository.save(any(SafeZone.class))).thenReturn(park);
+            when(petRepository.findZoneStatesByOwnerId(10L)).thenReturn(List.of(new PetZoneProjection(1L, 10L, false)));
+            when(locationLog.findRecent(1L, GeofenceService.RECENT_FIXES)).thenReturn(List.of(new LocationFix(1L, 1_000L, 48.3069, 14.2858)));
+
+            var created = geofenceService.createZone(new CircleZoneDto(null, 10L, new CoordinateDto(48.3069, 14.2858), 500.0));
+
+            assertEquals(1L, created.id());
+            verify(petStateBatchService, times(1)).applyZoneStates(List.of(new PetStateUpdateDto(1L, true, null)));
+        }
+
+        @Test
+        @DisplayName("Should reject a circle reaching a pole and a polygon covering the globe")
+        void shouldRejectZonesTooLargeToIndex() {
+            var polar = new CircleZoneDto(null, 10L, new CoordinateDto(89.99, 0.0), 100_000.0);
+            var globe = new PolygonZoneDto(null, 10L, List.of(
+                new CoordinateDto(-90.0, -180.0),
+                new CoordinateDto(-90.0, 180.0),
+                new CoordinateDto(90.0, 180.0),
+                new CoordinateDto(90.0, -180.0)
+            ));
+
+            assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class, () -> geofenceService.createZone(polar)).getStatusCode());
+            assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class, () -> geofenceService.createZone(globe)).getStatusCode());
+            verify(safeZoneRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should throw ResponseStatusException when deleting a non-existent zone")
+        void shouldThrowExceptionWhenDeletingNonExistentZone() {
+            when(safeZoneRepository.findById(5L)).thenReturn(Optional.empty());
+
+            assertThrows(ResponseStatusException.class, () -> geofenceService.deleteZone(5L));
+            verify(safeZoneRepository, never()).delete(any());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.CatDto;
+import com.tractive.pet_tracker.models.dtos.DogDto;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The counters rely on changes being published inside their write transaction, which only the service
+ * layer can guarantee
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@Sql(scripts = {"/insert_pets.sql"})
+@Sql(scripts = {"/clean.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class OutsideZoneCountersServiceTest {
+
+    @Autowired
+    private PetTrackerServiceImp petTrackerService;
+
+    @Autowired
+    private OutsideZoneCounters outsideZoneCounters;
+
+    @Autowired
+    private TransactionRecorder transactionRecorder;
+
+    @TestConfiguration
+    static class TransactionRecording {
+
+        @Bean
+        TransactionRecorder transactionRecorder() {
+            return new TransactionRecorder();
+        }
+    }
+
+    /**
+     * Records whether each change was published inside an active transaction
+     */
+    static class TransactionRecorder {
+        private final List<Boolean> inTransaction = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        public void onPetChanged(PetChangedEvent event) {
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        outsideZoneCounters.reconcile();
+        transactionRecorder.inTransaction.clear();
+    }
+
+    @Test
+    @DisplayName("Should publish created, updated and deleted pets inside their write transaction")
+    void shouldPublishChangesInsideWriteTransaction() {
+        PetDto created = petTrackerService.createPet(DogDto.builder()
+            .ownerId(7L)
+            .inZone(false)
+            .trackerType(DogTrackerType.BIG)
+            .build());
+        petTrackerService.updatePet(created.getId(), DogDto.builder()
+            .ownerId(7L)
+            .inZone(false)
+            .trackerType(DogTrackerType.SMALL)
+            .build());
+        petTrackerService.deletePet(created.getId());
+
+        assertEquals(List.of(true, true, true), transactionRecorder.inTransaction);
+    }
+
+    @Test
+    @DisplayName("Should count a change made through the service once, also across a reconcile")
+    void shouldCountServiceChangeOnceAcrossReconcile() {
+        long before = outsideZoneCounters.snapshot().cats().getOrDefault(CatTrackerType.BIG, 0L);
+
+        petTrackerService.createPet(CatDto.builder()
+            .ownerId(7L)
+            .inZone(false)
+            .trackerType(CatTrackerType.BIG)
+            .lostTracker(false)
+            .build());
+        assertEquals(before + 1, outsideZoneCounters.snapshot().cats().get(CatTrackerType.BIG));
+
+        outsideZoneCounters.reconcile();
+        assertEquals(before + 1, outsideZoneCounters.snapshot().cats().get(CatTrackerType.BIG));
+    }
+}
@@ -0,0 +1,311 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.PetsOutsideZoneDto;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import com.tractive.pet_tracker.models.events.PetState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutsideZoneCountersTest {
+
+    @Mock
+    private CatTrackerService catTrackerService;
+
+    @Mock
+    private DogTrackerService dogTrackerService;
+
+    private PetChangeCounter petChangeCounter;
+
+    private OutsideZoneCounters outsideZoneCounters;
+
+    @BeforeEach
+    void setUp() {
+        petChangeCounter = new PetChangeCounter();
+        outsideZoneCounters = new OutsideZoneCounters(catTrackerService, dogTrackerService, petChangeCounter, Duration.ofSeconds(5));
+    }
+
+    @Nested
+    @DisplayName("warmUp")
+    class WarmUpTests {
+
+        @Test
+        @DisplayName("Should load counters from the repository aggregations")
+        void shouldLoadCountersFromRepositoryAggregations() {
+            when(catTrackerService.countCatsOutsideZone()).thenReturn(Map.of(CatTrackerType.BIG, 3L));
+            when(dogTrackerService.countDogsOutsideZone()).thenReturn(Map.of(DogTrackerType.SMALL, 2L));
+
+            outsideZoneCounters.warmUp();
+
+            PetsOutsideZoneDto result = outsideZoneCounters.snapshot();
+
+            assertEquals(Map.of(CatTrackerType.BIG, 3L), result.cats());
+            assertEquals(Map.of(DogTrackerType.SMALL, 2L), result.dogs());
+
+            verify(catTrackerService, times(1)).countCatsOutsideZone();
+            verify(dogTrackerService, times(1)).countDogsOutsideZone();
+        }
+    }
+
+    @Nested
+    @DisplayName("onPetChanged")
+    class OnPetChangedTests {
+
+        @Test
+        @DisplayName("Should count created pets outside the zone only")
+        void shouldCountCreatedPetsOutsideZoneOnly() {
+            outsideZoneCounters.onPetChanged(PetChangedEvent.created(
+                new PetState.CatState(1L, 10L, false, CatTrackerType.SMALL, false)
+            ));
+            outsideZoneCounters.onPetChanged(PetChangedEvent.created(
+                new PetState.DogState(2L, 20L, true, DogTrackerType.BIG)
+            ));
+
+            PetsOutsideZoneDto result = outsideZoneCounters.snapshot();
+
+            assertEquals(Map.of(CatTrackerType.SMALL, 1L), result.cats());
+            assertTrue(result.dogs().isEmpty());
+            verifyNoInteractions(catTrackerService, dogTrackerService);
+        }
+
+        @Test
+        @DisplayName("Should move an updated pet between tracker types")
+        void shouldMoveUpdatedPetBetweenTrackerTypes() {
+            var previous = new PetState.DogState(2L, 20L, false, DogTrackerType.BIG);
+            var current = new PetState.DogState(2L, 20L, false, DogTrackerType.MEDIUM);
+
+            outsideZoneCounters.onPetChanged(PetChangedEvent.created(previous));
+            outsideZoneCounters.onPetChanged(PetChangedEvent.updated(previous, current));
+
+            assertEquals(Map.of(DogTrackerType.MEDIUM, 1L), outsideZoneCounters.snapshot().dogs());
+        }
+
+        @Test
+        @DisplayName("Should stop counting a pet that enters the zone or is deleted")
+        void shouldStopCountingPetThatEntersZoneOrIsDeleted() {
+            var outside = new PetState.CatState(1L, 10L, false, CatTrackerType.BIG, false);
+            var inside = new PetState.CatState(1L, 10L, true, CatTrackerType.BIG, false);
+            var other = new PetState.CatState(3L, 30L, false, CatTrackerType.BIG, true);
+
+            outsideZoneCounters.onPetChanged(PetChangedEvent.created(outside));
+            outsideZoneCounters.onPetChanged(PetChangedEvent.created(other));
+            outsideZoneCounters.onPetChanged(PetChangedEvent.updated(outside, inside));
+            outsideZoneCounters.onPetChanged(PetChangedEvent.deleted(other));
+
+            assertTrue(outsideZoneCounters.snapshot().cats().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("reconcile")
+    class ReconcileTests {
+
+        @Test
+        @DisplayName("Should correct counters that drifted from the database")
+        void shouldCorrectCountersThatDrifted() {
+            outsideZoneCounters.onPetChanged(PetChangedEvent.created(
+                new PetState.CatState(1L, 10L, false, CatTrackerType.SMALL, false)
+            ));
+
+            when(catTrackerService.countCatsOutsideZone()).thenReturn(Map.of(CatTrackerType.BIG, 4L));
+            when(dogTrackerService.countDogsOutsideZone()).thenReturn(Map.of());
+            String etag = petChangeCounter.etag();
+
+            outsideZoneCounters.reconcile();
+
+            assertEquals(Map.of(CatTrackerType.BIG, 4L), outsideZoneCounters.snapshot().cats());
+            assertNotEquals(etag, petChangeCounter.etag(), "Lists tagged before the drift was found must not match");
+        }
+
+        @Test
+        @DisplayName("Should query the species concurrently")
+        void shouldQuerySpeciesConcurrently() {
+            CountDownLatch bothStarted = new CountDownLatch(2);
+
+            when(catTrackerService.countCatsOutsideZone()).thenAnswer(invocation -> {
+                bothStarted.countDown();
+                assertTrue(bothStarted.await(2, TimeUnit.SECONDS));
+                return Map.of(CatTrackerType.SMALL, 1L);
+            });
+            when(dogTrackerService.countDogsOutsideZone()).thenAnswer(invocation -> {
+                bothStarted.countDown();
+                assertTrue(bothStarted.await(2, TimeUnit.SECONDS));
+                return Map.of(DogTrackerType.BIG, 2L);
+            });
+
+            outsideZoneCounters.reconcile();
+
+            PetsOutsideZoneDto result = outsideZoneCounters.snapshot();
+
+            assertEquals(Map.of(CatTrackerType.SMALL, 1L), result.cats());
+            assertEquals(Map.of(DogTrackerType.BIG, 2L), result.dogs());
+        }
+
+        @Test
+        @DisplayName("Should fail when one species fails")
+        void shouldFailWhenOneSpeciesFails() {
+            when(catTrackerService.countCatsOutsideZone()).thenThrow(new IllegalStateException("Database unavailable"));
+            lenient().when(dogTrackerService.countDogsOutsideZone()).thenReturn(Map.of());
+
+            IllegalStateException exception = assertThrows(IllegalStateException.class, () -> outsideZoneCounters.reconcile());
+            assertEquals("Database unavailable", exception.getCause().getMessage());
+        }
+
+        @Test
+        @DisplayName("Should give up when the deadline passes")
+        void shouldGiveUpWhenDeadlinePasses() {
+            outsideZoneCounters = new OutsideZoneCounters(catTrackerService, dogTrackerService, petChangeCounter, Duration.ofMillis(100));
+
+            when(catTrackerService.countCatsOutsideZone()).thenReturn(Map.of(CatTrackerType.BIG, 1L));
+            when(dogTrackerService.countDogsOutsideZone()).thenAnswer(invocation -> {
+                Thread.sleep(10_000);
+                return Map.of();
+            });
+
+            long start = System.nanoTime();
+            assertThrows(IllegalStateException.class, () -> outsideZoneCounters.reconcile());
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertEquals(Map.of(CatTrackerType.BIG, 1L), outsideZoneCounters.snapshot().cats());
+        }
+
+        @Test
+        @DisplayName("Should reject a non-positive reload timeout")
+        void shouldRejectNonPositiveReloadTimeout() {
+            assertThrows(IllegalArgumentException.class, () -> new OutsideZoneCounters(catTrackerService, dogTrackerService, petChangeCounter, Duration.ZERO));
+        }
+    }
+
+    @Nested
+    @DisplayName("concurrent changes")
+    class ConcurrentChangeTests {
+        private static final int PETS = 200;
+        private static final int WRITERS = 4;
+
+        /** Committed pet states; a commit and an aggregation each hold its monitor */
+        private final Map<Long, PetState> database = new HashMap<>();
+
+        @Test
+        @DisplayName("Should end up equal to the aggregation when changes commit while resets run")
+        void shouldEndUpEqualToAggregationWhenChangesCommitWhileResetsRun() {
+            for (long id = 1; id <= PETS; id++) {
+                database.put(id, id % 2 == 0
+                    ? new PetState.DogState(id, id, id % 3 == 0, DogTrackerType.BIG)
+                    : new PetState.CatState(id, id, id % 3 == 0, CatTrackerType.SMALL, false));
+            }
+            when(catTrackerService.countCatsOutsideZone()).thenAnswer(invocation -> countOutsideZone(CatTrackerType.class));
+            when(dogTrackerService.countDogsOutsideZone()).thenAnswer(invocation -> countOutsideZone(DogTrackerType.class));
+            outsideZoneCounters.warmUp();
+
+            AtomicBoolean writing = new AtomicBoolean(true);
+            AtomicInteger resets = new AtomicInteger();
+            CompletableFuture<Void> reconciler = CompletableFuture.runAsync(() -> {
+                while (writing.get()) {
+                    outsideZoneCounters.reconcile();
+                    resets.incrementAndGet();
+                }
+            });
+
+            CompletableFuture.allOf(IntStream.range(0, WRITERS)
+                .mapToObj(writer -> CompletableFuture.runAsync(() -> write(writer, 2_000)))
+                .toArray(CompletableFuture[]::new)
+            ).orTimeout(30, TimeUnit.SECONDS).join();
+            writing.set(false);
+            reconciler.orTimeout(30, TimeUnit.SECONDS).join();
+
+            assertTrue(resets.get() > 0, "No reset ran during the writes");
+            assertEquals(countOutsideZone(CatTrackerType.class), outsideZoneCounters.snapshot().cats());
+            assertEquals(countOutsideZone(DogTrackerType.class), outsideZoneCounters.snapshot().dogs());
+        }
+
+        /**
+         * Moves the pets of one writer in and out of the zone, each change in a transaction that publishes
+         * the event, commits and then completes, with a short pause between transactions
+         */
+        private void write(int writer, int changes) {
+            Random random = new Random(writer);
+            List<Long> ids = IntStream.rangeClosed(1, PETS).filter(id -> id % WRITERS == writer).mapToObj(id -> (long) id).toList();
+
+            for (int i = 0; i < changes; i++) {
+                long id = ids.get(random.nextInt(ids.size()));
+                PetState previous;
+                synchronized (database) {
+                    previous = database.get(id);
+                }
+                PetState current = switch (previous) {
+                    case PetState.CatState cat -> new PetState.CatState(id, cat.ownerId(), !cat.inZone(), cat.trackerType(), false);
+                    case PetState.DogState dog -> new PetState.DogState(id, dog.ownerId(), !dog.inZone(), dog.trackerType());
+                };
+
+                TransactionSynchronizationManager.initSynchronization();
+                TransactionSynchronizationManager.setActualTransactionActive(true);
+                try {
+                    outsideZoneCounters.onPetChanged(PetChangedEvent.updated(previous, current));
+                    Thread.yield();
+                    synchronized (database) {
+                        database.put(id, current);
+                    }
+                    Thread.yield();
+                    TransactionSynchronizationUtils.triggerAfterCommit();
+                    TransactionSynchronizationUtils.invokeAfterCompletion(
+                        TransactionSynchronizationManager.getSynchronizations(),
+                        TransactionSynchronization.STATUS_COMMITTED
+                    );
+                } finally {
+                    TransactionSynchronizationManager.setActualTransactionActive(false);
+                    TransactionSynchronizationManager.clearSynchronization();
+                }
+                LockSupport.parkNanos(random.nextInt(100_000));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T extends Enum<T>> Map<T, Long> countOutsideZone(Class<T> trackerType) {
+            Map<T, Long> counts = new EnumMap<>(trackerType);
+            synchronized (database) {
+                for (PetState state : database.values()) {
+                    if (state.inZone()) {
+                        continue;
+                    }
+                    Enum<?> type = switch (state) {
+                        case PetState.CatState cat -> cat.trackerType();
+                        case PetState.DogState dog -> dog.trackerType();
+                    };
+                    if (type.getDeclaringClass() == trackerType) {
+                        counts.merge((T) type, 1L, Long::sum);
+                    }
+                }
+            }
+            Thread.yield();
+
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.tractive.pet_tracker.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tractive.pet_tracker.models.dtos.DogDto;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import com.tractive.pet_tracker.models.events.PetState;
+import com.tractive.pet_tracker.models.helpers.PetJson;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PetCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PetCache petCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        petCache = new PetCache(meterRegistry, new ObjectMapper(), 100, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    private PetDto load(long id) {
+        loads.incrementAndGet();
+        return DogDto.builder()
+                .id(id)
+                .ownerId(10L)
+                .inZone(true)
+                .trackerType(DogTrackerType.BIG)
+                .build();
+    }
+
+    @Nested
+    @DisplayName("get")
+    class GetTests {
+
+        @Test
+        @DisplayName("Should load a pet once and then serve it from the cache")
+        void shouldLoadOnceAndServeFromCache() {
+            PetDto first = petCache.get(1L, PetCacheTest.this::load);
+            PetDto second = petCache.get(1L, PetCacheTest.this::load);
+
+            assertSame(first, second);
+            assertEquals(1, loads.get());
+            assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "pets").tag("result", "hit").functionCounter().count());
+            assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "pets").tag("result", "miss").functionCounter().count());
+        }
+
+        @Test
+        @DisplayName("Should not cache a failed load")
+        void shouldNotCacheFailedLoad() {
+            assertThrows(IllegalStateException.class, () -> petCache.get(1L, id -> {
+                throw new IllegalStateException("Not found");
+            }));
+
+            petCache.get(1L, PetCacheTest.this::load);
+
+            assertEquals(1, loads.get());
+        }
+    }
+
+    @Nested
+    @DisplayName("json")
+    class JsonTests {
+
+        @Test
+        @DisplayName("Should reuse the serialized JSON of the cached pet only")
+        void shouldReuseSerializedJsonOfCachedPetOnly() {
+            PetDto cached = petCache.get(1L, PetCacheTest.this::load);
+            PetDto copy = load(1L);
+
+            PetJson json = petCache.json(cached);
+
+            assertSame(json, petCache.json(cached));
+            assertNotSame(json, petCache.json(copy));
+            assertEquals(json.etag(), petCache.json(copy).etag());
+            assertTrue(new String(json.body(), StandardCharsets.UTF_8).contains("\"petType\":\"dog\""));
+        }
+
+        @Test
+        @DisplayName("Should not record the JSON lookup in the cache stats")
+        void shouldNotRecordJsonLookupInStats() {
+            petCache.json(petCache.get(1L, PetCacheTest.this::load));
+            petCache.json(petCache.get(1L, PetCacheTest.this::load));
+
+            assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "pets").tag("result", "hit").functionCounter().count());
+            assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "pets").tag("result", "miss").functionCounter().count());
+        }
+
+        @Test
+        @DisplayName("Should tag a changed pet differently")
+        void shouldTagChangedPetDifferently() {
+            PetJson before = petCache.json(petCache.get(1L, PetCacheTest.this::load));
+
+            petCache.onPetChanged(PetChangedEvent.deleted(new PetState.DogState(1L, 10L, true, DogTrackerType.BIG)));
+            PetJson after = petCache.json(petCache.get(1L, id -> DogDto.builder()
+                    .id(id)
+                    .ownerId(10L)
+                    .inZone(false)
+                    .trackerType(DogTrackerType.BIG)
+                    .build()));
+
+            assertNotEquals(before.etag(), after.etag());
+        }
+    }
+
+    @Nested
+    @DisplayName("onPetChanged")
+    class OnPetChangedTests {
+
+        @Test
+        @DisplayName("Should invalidate only the changed pet")
+        void shouldInvalidateOnlyChangedPet() {
+            petCache.get(1L, PetCacheTest.this::load);
+            petCache.get(2L, PetCacheTest.this::load);
+
+            var previous = new PetState.DogState(1L, 10L, true, DogTrackerType.BIG);
+            var current = new PetState.DogState(1L, 10L, false, DogTrackerType.BIG);
+            petCache.onPetChanged(PetChangedEvent.updated(previous, current));
+
+            petCache.get(1L, PetCacheTest.this::load);
+            petCache.get(2L, PetCacheTest.this::load);
+
+            assertEquals(3, loads.get());
+        }
+    }
+}
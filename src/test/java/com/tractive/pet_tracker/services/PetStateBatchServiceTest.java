@@ -0,0 +1,151 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.CircleZoneDto;
+import com.tractive.pet_tracker.models.dtos.CoordinateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateResultDto;
+import com.tractive.pet_tracker.models.entities.Cat;
+import com.tractive.pet_tracker.models.entities.Dog;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.enums.PetStateUpdateStatus;
+import com.tractive.pet_tracker.repositories.PetRepository;
+import com.tractive.pet_tracker.models.events.PetChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PetStateBatchServiceTest {
+
+    @Mock
+    private PetRepository petRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private GeofenceZones geofenceZones;
+
+    private PetStateBatchService petStateBatchService;
+
+    @BeforeEach
+    void setUp() {
+        geofenceZones = new GeofenceZones(0.05);
+        petStateBatchService = new PetStateBatchService(petRepository, entityManager, eventPublisher, geofenceZones, 2);
+    }
+
+    @Nested
+    @DisplayName("apply")
+    class ApplyTests {
+
+        @Test
+        @DisplayName("Should update loaded pets and report missing and rejected ones")
+        void shouldUpdateLoadedPetsAndReportMissingAndRejectedOnes() {
+            Cat cat = Cat.builder()
+                    .id(1L)
+                    .ownerId(101L)
+                    .inZone(true)
+                    .trackerType(CatTrackerType.SMALL)
+                    .lostTracker(false)
+                    .build();
+
+            Dog dog = Dog.builder()
+                    .id(2L)
+                    .ownerId(102L)
+                    .inZone(true)
+                    .trackerType(DogTrackerType.BIG)
+                    .build();
+
+            when(petRepository.findAllById(anyIterable())).thenReturn(List.of(cat, dog), List.of());
+
+            List<PetStateUpdateResultDto> results = petStateBatchService.apply(List.of(
+                new PetStateUpdateDto(1L, false, true),
+                new PetStateUpdateDto(2L, false, true),
+                new PetStateUpdateDto(3L, false, null)
+            ));
+
+            assertEquals(List.of(
+                new PetStateUpdateResultDto(1L, PetStateUpdateStatus.UPDATED),
+                new PetStateUpdateResultDto(2L, PetStateUpdateStatus.REJECTED),
+                new PetStateUpdateResultDto(3L, PetStateUpdateStatus.NOT_FOUND)
+            ), results);
+
+            assertFalse(cat.getInZone());
+            assertTrue(cat.getLostTracker());
+            assertTrue(dog.getInZone(), "Rejected update must not be partially applied");
+
+            verify(petRepository, times(2)).findAllById(anyIterable());
+            verify(entityManager, times(2)).flush();
+            verify(entityManager, times(2)).clear();
+            verify(eventPublisher, times(1)).publishEvent(any(PetChangedEvent.class));
+        }
+
+        @Test
+        @DisplayName("Should apply the last update when an id repeats")
+        void shouldApplyLastUpdateWhenIdRepeats() {
+            Dog dog = Dog.builder()
+                    .id(2L)
+                    .ownerId(102L)
+                    .inZone(true)
+                    .trackerType(DogTrackerType.BIG)
+                    .build();
+
+            when(petRepository.findAllById(anyIterable())).thenReturn(List.of(dog));
+
+            List<PetStateUpdateResultDto> results = petStateBatchService.apply(List.of(
+                new PetStateUpdateDto(2L, false, null),
+                new PetStateUpdateDto(2L, true, null)
+            ));
+
+            assertEquals(2, results.size());
+            assertTrue(dog.getInZone());
+            verify(petRepository, times(1)).findAllById(anyIterable());
+            verify(eventPublisher, times(2)).publishEvent(any(PetChangedEvent.class));
+        }
+
+        @Test
+        @DisplayName("Should keep the zone state of a pet whose owner has zones unless the geofence derived it")
+        void shouldKeepZoneStateOfPetWhoseOwnerHasZones() {
+            geofenceZones.put(new CircleZoneDto(1L, 101L, new CoordinateDto(48.30, 14.28), 500.0));
+            Cat cat = Cat.builder()
+                    .id(1L)
+                    .ownerId(101L)
+                    .inZone(true)
+                    .trackerType(CatTrackerType.SMALL)
+                    .lostTracker(false)
+                    .build();
+
+            when(petRepository.findAllById(anyIterable())).thenReturn(List.of(cat));
+
+            List<PetStateUpdateResultDto> results = petStateBatchService.apply(List.of(new PetStateUpdateDto(1L, false, true)));
+
+            assertEquals(List.of(new PetStateUpdateResultDto(1L, PetStateUpdateStatus.UPDATED)), results);
+            assertTrue(cat.getInZone(), "The client must not overwrite the zone state derived by the geofence");
+            assertTrue(cat.getLostTracker());
+
+            petStateBatchService.applyZoneStates(List.of(new PetStateUpdateDto(1L, false, null)));
+
+            assertFalse(cat.getInZone());
+        }
+
+        @Test
+        @DisplayName("Should reject a non-positive chunk size")
+        void shouldRejectNonPositiveChunkSize() {
+            assertThrows(IllegalArgumentException.class, () -> new PetStateBatchService(petRepository, entityManager, eventPublisher, geofenceZones, 0));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.CatDto;
+import com.tractive.pet_tracker.models.dtos.CircleZoneDto;
+import com.tractive.pet_tracker.models.dtos.CoordinateDto;
+import com.tractive.pet_tracker.models.dtos.DogDto;
+import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateDto;
+import com.tractive.pet_tracker.models.dtos.PetStateUpdateResultDto;
+import com.tractive.pet_tracker.models.enums.CatTrackerType;
+import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.enums.PetStateUpdateStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PetStateWriteBehindTest {
+
+    @Mock
+    private PetStateBatchService petStateBatchService;
+
+    private GeofenceZones geofenceZones;
+
+    private PetChangeCounter petChangeCounter;
+
+    private PetStateWriteBehind petStateWriteBehind;
+
+    @BeforeEach
+    void setUp() {
+        geofenceZones = new GeofenceZones(0.05);
+        petChangeCounter = new PetChangeCounter();
+        petStateWriteBehind = newWriteBehind(2, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        petStateWriteBehind.close();
+    }
+
+    private PetStateWriteBehind newWriteBehind(int capacity, Duration offerTimeout) {
+        return new PetStateWriteBehind(
+            petStateBatchService, geofenceZones, petChangeCounter, new SimpleMeterRegistry(), true, Duration.ofMillis(20), capacity, offerTimeout, 3
+        );
+    }
+
+    private static List<PetStateUpdateResultDto> updated(List<PetStateUpdateDto> updates) {
+        return updates.stream()
+            .map(update -> new PetStateUpdateResultDto(update.id(), PetStateUpdateStatus.UPDATED))
+            .toList();
+    }
+
+    @Nested
+    @DisplayName("submit and flush")
+    class SubmitAndFlushTests {
+
+        @Test
+        @DisplayName("Should write only the latest state of each pet")
+        void shouldWriteOnlyLatestStateOfEachPet() {
+            when(petStateBatchService.apply(anyList())).thenAnswer(invocation -> updated(invocation.getArgument(0)));
+
+            List<PetStateUpdateResultDto> results = petStateWriteBehind.submit(List.of(
+                new PetStateUpdateDto(1L, false, true),
+                new PetStateUpdateDto(2L, false, null),
+                new PetStateUpdateDto(1L, true, null)
+            ));
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, null)));
+
+            assertEquals(3, results.size());
+            assertTrue(results.stream().allMatch(result -> result.status() == PetStateUpdateStatus.ACCEPTED));
+            String etag = petChangeCounter.etag();
+
+            assertEquals(2, petStateWriteBehind.flush());
+            assertNotEquals(etag, petChangeCounter.etag());
+
+            verify(petStateBatchService, times(1)).apply(argThat(batch -> Set.copyOf(batch).equals(Set.of(
+                new PetStateUpdateDto(1L, false, true),
+                new PetStateUpdateDto(2L, false, null)
+            ))));
+            assertEquals(0, petStateWriteBehind.flush());
+        }
+
+        @Test
+        @DisplayName("Should put back a failed write underneath newer updates")
+        void shouldPutBackFailedWriteUnderneathNewerUpdates() {
+            when(petStateBatchService.apply(anyList()))
+                .thenAnswer(invocation -> {
+                    petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, true, null)));
+                    throw new IllegalStateException("Database unavailable");
+                })
+                .thenAnswer(invocation -> updated(invocation.getArgument(0)));
+
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, true)));
+
+            assertEquals(0, petStateWriteBehind.flush());
+            assertEquals(1, petStateWriteBehind.flush());
+
+            verify(petStateBatchService, times(1)).apply(List.of(new PetStateUpdateDto(1L, true, true)));
+        }
+
+        @Test
+        @DisplayName("Should write the other updates of a failing batch and drop an update that keeps failing")
+        void shouldWriteOtherUpdatesAndDropUpdateThatKeepsFailing() {
+            PetStateUpdateDto poison = new PetStateUpdateDto(2L, false, null);
+            when(petStateBatchService.apply(anyList())).thenAnswer(invocation -> {
+                List<PetStateUpdateDto> batch = invocation.getArgument(0);
+                if (batch.contains(poison)) {
+                    throw new IllegalStateException("Constraint violated");
+                }
+                return updated(batch);
+            });
+
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, null), poison));
+
+            assertEquals(1, petStateWriteBehind.flush());
+            verify(petStateBatchService, times(1)).apply(List.of(new PetStateUpdateDto(1L, false, null)));
+
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(3L, false, null)));
+            assertEquals(1, petStateWriteBehind.flush());
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(4L, false, null)));
+            assertEquals(1, petStateWriteBehind.flush());
+
+            assertEquals(0, petStateWriteBehind.flush());
+            verify(petStateBatchService, times(3)).apply(List.of(poison));
+        }
+
+        @Test
+        @DisplayName("Should keep the whole batch without counting attempts while every part fails")
+        void shouldKeepWholeBatchWhileEveryPartFails() {
+            AtomicBoolean down = new AtomicBoolean(true);
+            when(petStateBatchService.apply(anyList())).thenAnswer(invocation -> {
+                if (down.get()) {
+                    throw new IllegalStateException("Database unavailable");
+                }
+                return updated(invocation.getArgument(0));
+            });
+
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, null), new PetStateUpdateDto(2L, true, null)));
+
+            // More failed flushes than max-attempts
+            for (int i = 0; i < 5; i++) {
+                assertEquals(0, petStateWriteBehind.flush());
+            }
+            down.set(false);
+
+            assertEquals(2, petStateWriteBehind.flush());
+            verify(petStateBatchService, times(1)).apply(argThat(batch -> Set.copyOf(batch).equals(Set.of(
+                new PetStateUpdateDto(1L, false, null),
+                new PetStateUpdateDto(2L, true, null)
+            ))));
+        }
+
+        @Test
+        @DisplayName("Should keep an unwritable batch only as far as the buffer has room")
+        void shouldKeepUnwritableBatchOnlyAsFarAsBufferHasRoom() {
+            when(petStateBatchService.apply(anyList()))
+                .thenAnswer(invocation -> {
+                    // Takes the room the batch left while it was being written
+                    petStateWriteBehind.submit(List.of(new PetStateUpdateDto(3L, false, null)));
+                    throw new IllegalStateException("Database unavailable");
+                })
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenAnswer(invocation -> updated(invocation.getArgument(0)));
+
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, null), new PetStateUpdateDto(2L, false, null)));
+
+            assertEquals(0, petStateWriteBehind.flush());
+            assertEquals(2, petStateWriteBehind.flush());
+        }
+
+        @Test
+        @DisplayName("Should drop the buffered state of a discarded pet")
+        void shouldDropBufferedStateOfDiscardedPet() {
+            when(petStateBatchService.apply(anyList())).thenAnswer(invocation -> updated(invocation.getArgument(0)));
+            CatDto cat = CatDto.builder()
+                    .id(1L)
+                    .ownerId(10L)
+                    .inZone(true)
+                    .trackerType(CatTrackerType.SMALL)
+                    .lostTracker(false)
+                    .build();
+
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, null), new PetStateUpdateDto(2L, false, null)));
+            petStateWriteBehind.discard(1L);
+
+            assertSame(cat, petStateWriteBehind.overlay(cat));
+            assertEquals(1, petStateWriteBehind.flush());
+            verify(petStateBatchService, times(1)).apply(List.of(new PetStateUpdateDto(2L, false, null)));
+        }
+
+        @Test
+        @DisplayName("Should write in the background once the window passes")
+        void shouldWriteInBackgroundOnceWindowPasses() {
+            when(petStateBatchService.apply(anyList())).thenAnswer(invocation -> updated(invocation.getArgument(0)));
+
+            petStateWriteBehind.start();
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, null)));
+
+            verify(petStateBatchService, timeout(2_000)).apply(List.of(new PetStateUpdateDto(1L, false, null)));
+        }
+    }
+
+    @Nested
+    @DisplayName("backpressure")
+    class BackpressureTests {
+
+        @Test
+        @DisplayName("Should reject new pets with 503 while the buffer stays full")
+        void shouldRejectNewPetsWhileBufferStaysFull() {
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, null), new PetStateUpdateDto(2L, false, null)));
+
+            ResponseStatusException exception = assertThrows(
+                ResponseStatusException.class,
+                () -> petStateWriteBehind.submit(List.of(new PetStateUpdateDto(3L, false, null)))
+            );
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+
+            // A pet that is already buffered takes no extra room
+            assertDoesNotThrow(() -> petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, true, null))));
+        }
+
+        @Test
+        @DisplayName("Should let a waiting caller in once the writer makes room")
+        void shouldLetWaitingCallerInOnceWriterMakesRoom() throws InterruptedException {
+            when(petStateBatchService.apply(anyList())).thenAnswer(invocation -> updated(invocation.getArgument(0)));
+            petStateWriteBehind.close();
+            petStateWriteBehind = newWriteBehind(2, Duration.ofSeconds(5));
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, null), new PetStateUpdateDto(2L, false, null)));
+
+            petStateWriteBehind.start();
+
+            assertDoesNotThrow(() -> petStateWriteBehind.submit(List.of(new PetStateUpdateDto(3L, false, null))));
+        }
+    }
+
+    @Nested
+    @DisplayName("overlay")
+    class OverlayTests {
+
+        @Test
+        @DisplayName("Should return the pet itself when nothing is buffered for it")
+        void shouldReturnPetItselfWhenNothingIsBuffered() {
+            PetDto dog = DogDto.builder().id(2L).ownerId(20L).inZone(true).trackerType(DogTrackerType.BIG).build();
+
+            assertSame(dog, petStateWriteBehind.overlay(dog));
+        }
+
+        @Test
+        @DisplayName("Should show the buffered state without modifying the pet")
+        void shouldShowBufferedStateWithoutModifyingPet() {
+            CatDto cat = CatDto.builder()
+                    .id(1L)
+                    .ownerId(10L)
+                    .inZone(true)
+                    .trackerType(CatTrackerType.SMALL)
+                    .lostTracker(false)
+                    .build();
+
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, true)));
+
+            CatDto result = (CatDto) petStateWriteBehind.overlay(cat);
+
+            assertFalse(result.getInZone());
+            assertTrue(result.getLostTracker());
+            assertEquals(CatTrackerType.SMALL, result.getTrackerType());
+            assertTrue(cat.getInZone());
+            assertFalse(cat.getLostTracker());
+        }
+
+        @Test
+        @DisplayName("Should leave out the zone state of a pet whose owner has zones as the writer would")
+        void shouldLeaveOutZoneStateOfPetWhoseOwnerHasZones() {
+            geofenceZones.put(new CircleZoneDto(1L, 10L, new CoordinateDto(48.30, 14.28), 500.0));
+            CatDto cat = CatDto.builder()
+                    .id(1L)
+                    .ownerId(10L)
+                    .inZone(true)
+                    .trackerType(CatTrackerType.SMALL)
+                    .lostTracker(false)
+                    .build();
+
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(1L, false, true)));
+
+            CatDto result = (CatDto) petStateWriteBehind.overlay(cat);
+
+            assertTrue(result.getInZone());
+            assertTrue(result.getLostTracker());
+        }
+
+        @Test
+        @DisplayName("Should leave out a lost tracker update for a dog as the writer would")
+        void shouldLeaveOutLostTrackerUpdateForDog() {
+            PetDto dog = DogDto.builder().id(2L).ownerId(20L).inZone(true).trackerType(DogTrackerType.BIG).build();
+
+            petStateWriteBehind.submit(List.of(new PetStateUpdateDto(2L, false, true)));
+
+            assertSame(dog, petStateWriteBehind.overlay(dog));
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package com.tractive.pet_tracker.services;
 
 import com.tractive.pet_tracker.models.dtos.CatDto;
+import com.tractive.pet_tracker.models.dtos.CircleZoneDto;
+import com.tractive.pet_tracker.models.dtos.CoordinateDto;
+import com.tractive.pet_tracker.models.dtos.OwnerPetsDto;
+import com.tractive.pet_tracker.models.dtos.PetCursorPageDto;
 import com.tractive.pet_tracker.models.dtos.DogDto;
 import com.tractive.pet_tracker.models.dtos.PetDto;
+import com.tractive.pet_tracker.models.dtos.PetPageDto;
 import com.tractive.pet_tracker.models.dtos.PetsOutsideZoneDto;
 import com.tractive.pet_tracker.models.entities.Cat;
 import com.tractive.pet_tracker.models.entities.Dog;
 import com.tractive.pet_tracker.models.entities.Pet;
 import com.tractive.pet_tracker.models.enums.CatTrackerType;
 import com.tractive.pet_tracker.models.enums.DogTrackerType;
+import com.tractive.pet_tracker.models.events.PetState;
+import com.tractive.pet_tracker.models.helpers.PetCursor;
 import com.tractive.pet_tracker.models.helpers.PetMapper;
 import com.tractive.pet_tracker.repositories.PetRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -47,9 +55,23 @@ public class PetTrackerServiceImpTest {
     @MockBean
     private PetMapper petMapper;
 
+    @MockBean
+    private OutsideZoneCounters outsideZoneCounters;
+
     @Autowired
     private PetTrackerServiceImp petTrackerService;
 
+    @Autowired
+    private PetCache petCache;
+
+    @Autowired
+    private GeofenceZones geofenceZones;
+
+    @BeforeEach
+    void setUp() {
+        petCache.invalidateAll();
+    }
+
     @Nested
     @DisplayName("getPetById")
     class GetPetByIdTests {
@@ -91,6 +113,41 @@ public class PetTrackerServiceImpTest {
             verify(petMapper, times(1)).mapEntityToDto(pet);
         }
 
+        @Test
+        @DisplayName("Should serve repeated reads from the cache until the pet changes")
+        void shouldServeRepeatedReadsFromCacheUntilPetChanges() {
+            long petId = 2L;
+            Pet pet = Dog.builder()
+                    .id(petId)
+                    .ownerId(102L)
+                    .inZone(true)
+                    .trackerType(DogTrackerType.BIG)
+                    .build();
+
+            PetDto petDto = DogDto.builder()
+                    .id(petId)
+                    .ownerId(102L)
+                    .inZone(true)
+                    .trackerType(DogTrackerType.BIG)
+                    .build();
+
+            var previous = new PetState.DogState(petId, 102L, true, DogTrackerType.BIG);
+
+            when(petRepository.findById(petId)).thenReturn(Optional.of(pet));
+            when(petMapper.mapEntityToDto(pet)).thenReturn(petDto);
+            when(petRepository.deleteByIdReturningState(petId)).thenReturn(Optional.of(previous));
+
+            assertEquals(petDto, petTrackerService.getPetById(petId));
+            assertEquals(petDto, petTrackerService.getPetById(petId));
+            verify(petRepository, times(1)).findById(petId);
+
+            petTrackerService.deletePet(petId);
+            when(petRepository.findById(petId)).thenReturn(Optional.empty());
+
+            assertThrows(ResponseStatusException.class, () -> petTrackerService.getPetById(petId));
+            verify(petRepository, times(2)).findById(petId);
+        }
+
         @Test
         @DisplayName("Should throw ResponseStatusException when pet does not exist")
         void shouldThrowExceptionWhenPetDoesNotExist() {
@@ -154,15 +211,15 @@ public class PetTrackerServiceImpTest {
             when(petMapper.mapEntityToDto(firstPet)).thenReturn(firstPetDto);
             when(petMapper.mapEntityToDto(secondPet)).thenReturn(secondPetDto);
 
-            Page<PetDto> result = petTrackerService.getAllPets(pageable);
+            PetPageDto result = petTrackerService.getAllPets(pageable);
 
             assertNotNull(result);
-            assertEquals(2, result.getTotalElements());
-            assertEquals(1, result.getTotalPages());
-            assertEquals(0, result.getNumber());
-            assertEquals(10, result.getSize());
+            assertEquals(2, result.totalElements());
+            assertEquals(1, result.totalPages());
+            assertEquals(0, result.number());
+            assertEquals(10, result.size());
 
-            List<PetDto> content = result.getContent();
+            List<PetDto> content = result.content();
             assertEquals(2, content.size());
             assertEquals(firstPetDto, content.get(0));
             assertEquals(secondPetDto, content.get(1));
@@ -180,20 +237,85 @@ public class PetTrackerServiceImpTest {
 
             when(petRepository.findAll(pageable)).thenReturn(emptyPage);
 
-            Page<PetDto> result = petTrackerService.getAllPets(pageable);
+            PetPageDto result = petTrackerService.getAllPets(pageable);
 
-            assertNotNull(result, "Expected non-null Page of PetDto");
-            assertEquals(0, result.getTotalElements(), "Total elements should be 0");
-            assertEquals(0, result.getTotalPages(), "Total pages should be 0");
-            assertEquals(0, result.getNumber(), "Page number should be 0");
-            assertEquals(10, result.getSize(), "Page size should be 10");
-            assertTrue(result.getContent().isEmpty(), "Content should be empty");
+            assertNotNull(result, "Expected non-null PetPageDto");
+            assertEquals(0, result.totalElements(), "Total elements should be 0");
+            assertEquals(0, result.totalPages(), "Total pages should be 0");
+            assertEquals(0, result.number(), "Page number should be 0");
+            assertEquals(10, result.size(), "Page size should be 10");
+            assertTrue(result.content().isEmpty(), "Content should be empty");
 
             verify(petRepository, times(1)).findAll(pageable);
             verify(petMapper, never()).mapEntityToDto(any());
         }
     }
 
+    @Nested
+    @DisplayName("getPetsAfter")
+    class GetPetsAfterTests {
+
+        @Test
+        @DisplayName("Should return a page with a cursor when more pets exist")
+        void shouldReturnPageWithCursorWhenMorePetsExist() {
+            Pet firstPet = Cat.builder()
+                    .id(3L)
+                    .ownerId(101L)
+                    .inZone(true)
+                    .trackerType(CatTrackerType.SMALL)
+                    .lostTracker(false)
+                    .build();
+
+            Pet secondPet = Dog.builder()
+                    .id(7L)
+                    .ownerId(102L)
+                    .inZone(false)
+                    .trackerType(DogTrackerType.BIG)
+                    .build();
+
+            PetDto firstPetDto = CatDto.builder()
+                    .id(3L)
+                    .ownerId(101L)
+                    .inZone(true)
+                    .trackerType(CatTrackerType.SMALL)
+                    .lostTracker(false)
+                    .build();
+
+            when(petRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(Limit.of(2))))
+                    .thenReturn(List.of(firstPet, secondPet));
+            when(petMapper.mapEntityToDto(firstPet)).thenReturn(firstPetDto);
+
+            PetCursorPageDto result = petTrackerService.getPetsAfter(PetCursor.encode(2L), 1);
+
+            assertEquals(List.of(firstPetDto), result.content());
+            assertEquals(3L, PetCursor.decode(result.nextCursor()));
+
+            verify(petMapper, never()).mapEntityToDto(secondPet);
+        }
+
+        @Test
+        @DisplayName("Should start from the first pet and end without cursor")
+        void shouldStartFromFirstPetAndEndWithoutCursor() {
+            when(petRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(11)))).thenReturn(List.of());
+
+            PetCursorPageDto result = petTrackerService.getPetsAfter(null, 10);
+
+            assertTrue(result.content().isEmpty());
+            assertNull(result.nextCursor());
+        }
+
+        @Test
+        @DisplayName("Should throw ResponseStatusException when cursor is malformed")
+        void shouldThrowExceptionWhenCursorIsMalformed() {
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+                petTrackerService.getPetsAfter("%%%", 10);
+            });
+
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+            verify(petRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any());
+        }
+    }
+
     @Nested
     @DisplayName("countPetsOutsideZoneGroupByType")
     class CountPetsOutsideZoneGroupByTypeTests {
@@ -211,16 +333,16 @@ public class PetTrackerServiceImpTest {
 
             PetsOutsideZoneDto expectedDto = new PetsOutsideZoneDto(catsOutsideZone, dogsOutsideZone);
 
-            when(catTrackerService.countCatsOutsideZone()).thenReturn(catsOutsideZone);
-            when(dogTrackerService.countDogsOutsideZone()).thenReturn(dogsOutsideZone);
+            when(outsideZoneCounters.snapshot()).thenReturn(expectedDto);
 
             PetsOutsideZoneDto result = petTrackerService.countPetsOutsideZoneGroupByType();
 
             assertNotNull(result);
             assertEquals(expectedDto, result);
 
-            verify(catTrackerService, times(1)).countCatsOutsideZone();
-            verify(dogTrackerService, times(1)).countDogsOutsideZone();
+            verify(outsideZoneCounters, times(1)).snapshot();
+            verify(catTrackerService, never()).countCatsOutsideZone();
+            verify(dogTrackerService, never()).countDogsOutsideZone();
         }
 
         @Test
@@ -231,16 +353,45 @@ public class PetTrackerServiceImpTest {
 
             PetsOutsideZoneDto expectedDto = new PetsOutsideZoneDto(catsOutsideZone, dogsOutsideZone);
 
-            when(catTrackerService.countCatsOutsideZone()).thenReturn(catsOutsideZone);
-            when(dogTrackerService.countDogsOutsideZone()).thenReturn(dogsOutsideZone);
+            when(outsideZoneCounters.snapshot()).thenReturn(expectedDto);
 
             PetsOutsideZoneDto result = petTrackerService.countPetsOutsideZoneGroupByType();
 
             assertNotNull(result);
             assertEquals(expectedDto, result);
 
-            verify(catTrackerService, times(1)).countCatsOutsideZone();
-            verify(dogTrackerService, times(1)).countDogsOutsideZone();
+            verify(outsideZoneCounters, times(1)).snapshot();
+            verify(catTrackerService, never()).countCatsOutsideZone();
+            verify(dogTrackerService, never()).countDogsOutsideZone();
+        }
+    }
+
+    @Nested
+    @DisplayName("getOwnerPets")
+    class GetOwnerPetsTests {
+
+        @Test
+        @DisplayName("Should list the owner's pets and count the ones outside the zone")
+        void shouldListOwnerPetsAndCountOnesOutsideZone() {
+            long ownerId = 101L;
+            var cat = new PetState.CatState(1L, ownerId, false, CatTrackerType.SMALL, false);
+            var dog = new PetState.DogState(2L, ownerId, true, DogTrackerType.BIG);
+            PetDto catDto = CatDto.builder().id(1L).ownerId(ownerId).inZone(false).trackerType(CatTrackerType.SMALL).lostTracker(false).build();
+            PetDto dogDto = DogDto.builder().id(2L).ownerId(ownerId).inZone(true).trackerType(DogTrackerType.BIG).build();
+
+            when(petRepository.findStatesByOwnerId(ownerId)).thenReturn(List.of(cat, dog));
+            when(petMapper.mapStateToDto(cat)).thenReturn(catDto);
+            when(petMapper.mapStateToDto(dog)).thenReturn(dogDto);
+
+            OwnerPetsDto result = petTrackerService.getOwnerPets(ownerId);
+
+            assertEquals(ownerId, result.ownerId());
+            assertEquals(List.of(catDto, dogDto), result.pets());
+            assertEquals(Map.of(CatTrackerType.SMALL, 1L), result.petsOutsideZone().cats());
+            assertTrue(result.petsOutsideZone().dogs().isEmpty());
+
+            verify(petRepository, times(1)).findStatesByOwnerId(ownerId);
+            verify(petRepository, never()).findAll();
         }
     }
 
@@ -337,15 +488,7 @@ public class PetTrackerServiceImpTest {
                     .trackerType(DogTrackerType.BIG)
                     .build();
 
-            Pet existingPet = Dog.builder()
-                    .id(petId)
-                    .ownerId(100L)
-                    .inZone(true)
-                    .trackerType(DogTrackerType.SMALL)
-                    .build();
-
             Pet updatedPet = Dog.builder()
-                    .id(petId)
                     .ownerId(101L)
                     .inZone(false)
                     .trackerType(DogTrackerType.BIG)
@@ -358,22 +501,59 @@ public class PetTrackerServiceImpTest {
                     .trackerType(DogTrackerType.BIG)
                     .build();
 
-            when(petRepository.findById(petId)).thenReturn(Optional.of(existingPet));
-            doNothing().when(petMapper).mapDtoToEntity(updatedPetDto, existingPet);
-            when(petRepository.save(existingPet)).thenReturn(updatedPet);
+            var previous = new PetState.DogState(petId, 100L, true, DogTrackerType.SMALL);
+            var current = new PetState.DogState(petId, 101L, false, DogTrackerType.BIG);
+
+            when(petMapper.mapDtoToEntity(updatedPetDto)).thenReturn(updatedPet);
+            when(petRepository.updateReturningPrevious(current, false)).thenReturn(Optional.of(previous));
             when(petMapper.mapEntityToDto(updatedPet)).thenReturn(updatedPetDtoResult);
 
             PetDto result = petTrackerService.updatePet(petId, updatedPetDto);
 
             assertNotNull(result, "Expected non-null PetDto");
             assertEquals(updatedPetDtoResult, result, "Expected PetDto to match updatedPetDtoResult");
+            assertEquals(petId, updatedPet.getId());
 
-            verify(petRepository, times(1)).findById(petId);
-            verify(petMapper, times(1)).mapDtoToEntity(updatedPetDto, existingPet);
-            verify(petRepository, times(1)).save(existingPet);
+            verify(petRepository, times(1)).updateReturningPrevious(current, false);
+            verify(petRepository, never()).findById(anyLong());
+            verify(petRepository, never()).save(any());
+            verify(petRepository, never()).existsById(anyLong());
             verify(petMapper, times(1)).mapEntityToDto(updatedPet);
         }
 
+        @Test
+        @DisplayName("Should keep the stored zone state of a pet whose owner has zones")
+        void shouldKeepStoredZoneStateOfPetWhoseOwnerHasZones() {
+            long petId = 1L;
+            PetDto updatedPetDto = DogDto.builder()
+                    .ownerId(101L)
+                    .inZone(false)
+                    .trackerType(DogTrackerType.BIG)
+                    .build();
+
+            Pet updatedPet = Dog.builder()
+                    .ownerId(101L)
+                    .inZone(false)
+                    .trackerType(DogTrackerType.BIG)
+                    .build();
+
+            var requested = new PetState.DogState(petId, 101L, false, DogTrackerType.BIG);
+            var previous = new PetState.DogState(petId, 101L, true, DogTrackerType.SMALL);
+
+            when(petMapper.mapDtoToEntity(updatedPetDto)).thenReturn(updatedPet);
+            when(petRepository.updateReturningPrevious(requested, true)).thenReturn(Optional.of(previous));
+
+            geofenceZones.put(new CircleZoneDto(1L, 101L, new CoordinateDto(48.30, 14.28), 500.0));
+            try {
+                petTrackerService.updatePet(petId, updatedPetDto);
+            } finally {
+                geofenceZones.remove(1L);
+            }
+
+            assertTrue(updatedPet.getInZone(), "The client must not overwrite the zone state derived by the geofence");
+            verify(petRepository, times(1)).updateReturningPrevious(requested, true);
+        }
+
         @Test
         @DisplayName("Should throw ResponseStatusException when updating non-existent pet")
         void shouldThrowExceptionWhenUpdatingNonExistentPet() {
@@ -384,7 +564,12 @@ public class PetTrackerServiceImpTest {
                     .trackerType(DogTrackerType.BIG)
                     .build();
 
-            when(petRepository.findById(petId)).thenReturn(Optional.empty());
+            when(petMapper.mapDtoToEntity(updatedPetDto)).thenReturn(Dog.builder()
+                    .ownerId(101L)
+                    .inZone(false)
+                    .trackerType(DogTrackerType.BIG)
+                    .build());
+            when(petRepository.updateReturningPrevious(any(), anyBoolean())).thenReturn(Optional.empty());
 
             ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
                 petTrackerService.updatePet(petId, updatedPetDto);
@@ -393,42 +578,37 @@ public class PetTrackerServiceImpTest {
             assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
             assertTrue(Objects.requireNonNull(exception.getReason()).contains("Pet 1000 not found"));
 
-            verify(petRepository, times(1)).findById(petId);
-            verify(petMapper, never()).mapDtoToEntity(any(), any());
-            verify(petRepository, never()).save(any());
+            verify(petRepository, times(1)).updateReturningPrevious(any(), anyBoolean());
+            verify(petRepository, never()).existsById(anyLong());
             verify(petMapper, never()).mapEntityToDto(any());
         }
 
         @Test
-        @DisplayName("Should throw ResponseStatusException when mapping fails")
-        void shouldThrowExceptionWhenMappingFails() {
+        @DisplayName("Should throw ResponseStatusException when pet type does not match")
+        void shouldThrowExceptionWhenPetTypeDoesNotMatch() {
             long petId = 1L;
             PetDto updatedPetDto = DogDto.builder()
-                    .ownerId(-1) // Invalid: assuming ownerId must positive
-                    .inZone(null)  // Invalid: assuming inZone must not be null
-                    .build();
-
-            Pet existingPet = Cat.builder()
-                    .id(petId)
                     .ownerId(100L)
                     .inZone(true)
-                    .trackerType(CatTrackerType.SMALL)
-                    .lostTracker(false)
+                    .trackerType(DogTrackerType.BIG)
                     .build();
 
-            when(petRepository.findById(petId)).thenReturn(Optional.of(existingPet));
-            doThrow(new IllegalArgumentException("Invalid PetDto")).when(petMapper).mapDtoToEntity(updatedPetDto, existingPet);
+            when(petMapper.mapDtoToEntity(updatedPetDto)).thenReturn(Dog.builder()
+                    .ownerId(100L)
+                    .inZone(true)
+                    .trackerType(DogTrackerType.BIG)
+                    .build());
+            when(petRepository.updateReturningPrevious(any(), anyBoolean()))
+                    .thenReturn(Optional.of(new PetState.CatState(petId, 100L, true, CatTrackerType.SMALL, false)));
 
             ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
                 petTrackerService.updatePet(petId, updatedPetDto);
-            }, "Expected updatePet to throw ResponseStatusException due to mapping failure");
+            }, "Expected updatePet to throw ResponseStatusException due to type mismatch");
 
             assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
             assertTrue(Objects.requireNonNull(exception.getReason()).contains("Pet cannot get updated"));
 
-            verify(petRepository, times(1)).findById(petId);
-            verify(petMapper, times(1)).mapDtoToEntity(updatedPetDto, existingPet);
-            verify(petRepository, never()).save(any());
+            verify(petRepository, never()).existsById(anyLong());
             verify(petMapper, never()).mapEntityToDto(any());
         }
     }
@@ -441,28 +621,22 @@ public class PetTrackerServiceImpTest {
         @DisplayName("Should delete existing pet successfully")
         void shouldDeleteExistingPetSuccessfully() {
             long petId = 1L;
-            Pet existingPet = Cat.builder()
-                    .id(petId)
-                    .ownerId(100L)
-                    .inZone(true)
-                    .trackerType(CatTrackerType.SMALL)
-                    .lostTracker(false)
-                    .build();
+            var deleted = new PetState.CatState(petId, 100L, true, CatTrackerType.SMALL, false);
 
-            when(petRepository.findById(petId)).thenReturn(Optional.of(existingPet));
-            doNothing().when(petRepository).delete(existingPet);
+            when(petRepository.deleteByIdReturningState(petId)).thenReturn(Optional.of(deleted));
 
             assertDoesNotThrow(() -> petTrackerService.deletePet(petId));
 
-            verify(petRepository, times(1)).findById(petId);
-            verify(petRepository, times(1)).delete(existingPet);
+            verify(petRepository, times(1)).deleteByIdReturningState(petId);
+            verify(petRepository, never()).findById(anyLong());
+            verify(petRepository, never()).delete(any());
         }
 
         @Test
         @DisplayName("Should throw ResponseStatusException when deleting non-existent pet")
         void shouldThrowExceptionWhenDeletingNonExistentPet() {
             long petId = 1000L;
-            when(petRepository.findById(petId)).thenReturn(Optional.empty());
+            when(petRepository.deleteByIdReturningState(petId)).thenReturn(Optional.empty());
 
             ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
                 petTrackerService.deletePet(petId);
@@ -471,8 +645,7 @@ public class PetTrackerServiceImpTest {
             assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
             assertTrue(Objects.requireNonNull(exception.getReason()).contains("Pet 1000 not found"));
 
-            verify(petRepository, times(1)).findById(petId);
-            verify(petRepository, never()).delete(any());
+            verify(petRepository, times(1)).deleteByIdReturningState(petId);
         }
     }
 }
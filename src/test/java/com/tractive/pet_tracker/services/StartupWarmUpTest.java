@@ -0,0 +1,101 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.repositories.PetRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("test")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+        "pet-tracker.warm-up.enabled=true",
+        "pet-tracker.warm-up.max-duration=PT5S",
+        "pet-tracker.warm-up.round-requests=50",
+        "pet-tracker.warm-up.scratch-pets=4",
+        "spring.jpa.show-sql=false"
+    }
+)
+public class StartupWarmUpTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private OutsideZoneCounters outsideZoneCounters;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private ReadinessRecorder readinessRecorder;
+
+    @TestConfiguration
+    static class ReadinessRecording {
+
+        @Bean
+        ReadinessRecorder readinessRecorder(ApplicationAvailability applicationAvailability) {
+            return new ReadinessRecorder(applicationAvailability);
+        }
+    }
+
+    /**
+     * Records the readiness state at every request, which are only the warm-up's before the test runs
+     */
+    static class ReadinessRecorder implements Filter {
+        private final ApplicationAvailability applicationAvailability;
+        private final List<ReadinessState> states = new CopyOnWriteArrayList<>();
+
+        ReadinessRecorder(ApplicationAvailability applicationAvailability) {
+            this.applicationAvailability = applicationAvailability;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+            states.add(applicationAvailability.getReadinessState());
+            chain.doFilter(request, response);
+        }
+    }
+
+    @Test
+    @DisplayName("Should warm up once before readiness and leave no scratch pet behind")
+    void shouldWarmUpOnceAndLeaveNoScratchPetBehind() {
+        assertEquals(1, meterRegistry.get("pet.warm-up").timer().count());
+        assertTrue(meterRegistry.get("pet.warm-up").timer().totalTime(TimeUnit.MILLISECONDS) > 0);
+        assertEquals(0, petRepository.count());
+        assertTrue(outsideZoneCounters.snapshot().cats().isEmpty() && outsideZoneCounters.snapshot().dogs().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should refuse traffic while the warm-up runs and accept it afterward")
+    void shouldRefuseTrafficWhileWarmingUp() {
+        List<ReadinessState> duringWarmUp = List.copyOf(readinessRecorder.states);
+
+        assertFalse(duringWarmUp.isEmpty());
+        assertTrue(duringWarmUp.stream().allMatch(state -> state == ReadinessState.REFUSING_TRAFFIC));
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationAvailability.getReadinessState());
+    }
+}
@@ -0,0 +1,66 @@
+package com.tractive.pet_tracker.services;
+
+import com.tractive.pet_tracker.models.dtos.ZoneTransitionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZoneEventSubscriberTest {
+
+    private ZoneEventSubscriber subscriber;
+
+    @BeforeEach
+    void setUp() {
+        subscriber = new ZoneEventSubscriber(1L, new SseEmitter(), 2);
+    }
+
+    private static ZoneTransitionDto transition(long petId, boolean inZone) {
+        return new ZoneTransitionDto(petId, 1L, inZone, petId * 1000);
+    }
+
+    @Test
+    @DisplayName("Should keep only the latest pending transition of a pet")
+    void shouldKeepOnlyLatestPendingTransitionOfPet() throws InterruptedException {
+        subscriber.offer(transition(1L, false));
+        subscriber.offer(transition(2L, false));
+        subscriber.offer(transition(1L, true));
+
+        ZoneEventSubscriber.Batch batch = subscriber.take(Duration.ZERO);
+
+        assertEquals(List.of(transition(2L, false), transition(1L, true)), batch.transitions());
+        assertEquals(0, batch.dropped());
+    }
+
+    @Test
+    @DisplayName("Should drop the least recently changed pet when the buffer is full")
+    void shouldDropLeastRecentlyChangedPetWhenFull() throws InterruptedException {
+        subscriber.offer(transition(1L, false));
+        subscriber.offer(transition(2L, false));
+        subscriber.offer(transition(3L, false));
+
+        ZoneEventSubscriber.Batch batch = subscriber.take(Duration.ZERO);
+
+        assertEquals(List.of(transition(2L, false), transition(3L, false)), batch.transitions());
+        assertEquals(1, batch.dropped());
+        assertTrue(subscriber.take(Duration.ZERO).isEmpty(), "Taking empties the buffer");
+    }
+
+    @Test
+    @DisplayName("Should wake up a waiting drain and stop it once closed")
+    void shouldWakeUpWaitingDrainAndStopOnceClosed() throws InterruptedException {
+        Thread.ofVirtual().start(() -> subscriber.offer(transition(1L, false)));
+
+        assertEquals(List.of(transition(1L, false)), subscriber.take(Duration.ofSeconds(5)).transitions());
+
+        subscriber.close();
+        subscriber.offer(transition(2L, false));
+
+        assertNull(subscriber.take(Duration.ofSeconds(5)));
+    }
+}
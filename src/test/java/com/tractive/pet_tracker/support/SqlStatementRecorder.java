@@ -0,0 +1,121 @@
+package com.tractive.pet_tracker.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Captures the SQL statements sent to the database while an action runs. Import it into a Spring test and
+ * every {@link DataSource} bean is wrapped in a datasource-proxy that reports each execution here, whether
+ * it comes from Hibernate or from a {@code JdbcClient}. A JDBC batch is one execution, since it is one round
+ * trip. Statements are recorded from every thread, so the request of an asynchronous endpoint is covered too.
+ */
+public class SqlStatementRecorder implements BeanPostProcessor, QueryExecutionListener {
+    private static final Pattern CHANGE = Pattern.compile("^(insert into|update|delete from) (\\w+)");
+    private static final Pattern NEXT_VALUE = Pattern.compile("next value for (\\w+)");
+    private static final Pattern SELECT_FROM = Pattern.compile("^select .*? from (\\w+)");
+
+    private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+    private volatile boolean recording;
+
+    /**
+     * A statement that reached the database
+     *
+     * @param sql the statement as sent by the driver
+     * @param batchSize the number of parameter sets, or {@code 0} if it was not a batch
+     */
+    public record RecordedStatement(String sql, int batchSize) {
+
+        /**
+         * Reduces the statement to its kind and the table it acts on, e.g. {@code select pet} or
+         * {@code insert cat}. A sequence call counts as {@code select <sequence>}.
+         *
+         * @return the shape of the statement
+         */
+        public String shape() {
+            String normalized = sql.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+
+            Matcher change = CHANGE.matcher(normalized);
+            if (change.find()) {
+                return change.group(1).split(" ")[0] + " " + change.group(2);
+            }
+
+            Matcher select = NEXT_VALUE.matcher(normalized);
+            if (select.find() || (select = SELECT_FROM.matcher(normalized)).find()) {
+                return "select " + select.group(1);
+            }
+
+            return normalized;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Runs the {@code action} and returns the statements it executed, in execution order
+     *
+     * @param action the code under test, usually one or more MockMvc calls
+     * @return RecordedStatements
+     */
+    public List<RecordedStatement> record(Action action) throws Exception {
+        statements.clear();
+        recording = true;
+
+        try {
+            action.run();
+        } finally {
+            recording = false;
+        }
+
+        return List.copyOf(statements);
+    }
+
+    /**
+     * Maps the {@code statements} to their {@link RecordedStatement#shape() shapes}
+     *
+     * @param statements the recorded statements
+     * @return the shapes in the same order
+     */
+    public static List<String> shapes(List<RecordedStatement> statements) {
+        return statements.stream().map(RecordedStatement::shape).toList();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                .name(beanName)
+                .listener(this)
+                .build();
+        }
+
+        return bean;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) { }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!recording) {
+            return;
+        }
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            statements.add(new RecordedStatement(queryInfo.getQuery(), execInfo.isBatch() ? execInfo.getBatchSize() : 0));
+        }
+    }
+}
@@ -1,6 +1,5 @@
 DELETE FROM CAT;
 DELETE FROM DOG;
 DELETE FROM PET;
-
-ALTER TABLE PET
-    ALTER COLUMN id RESTART WITH 1;
+DELETE FROM SAFE_ZONE_VERTEX;
+DELETE FROM SAFE_ZONE;
@@ -1,51 +1,54 @@
+--- The fixture ids are fixed, so take a block of ids off the sequence to keep the pets created by tests clear of them
+SELECT NEXT VALUE FOR pet_seq;
+
 --- Cats
-INSERT INTO PET (pet_type, owner_id, in_zone)
-VALUES ('CAT', 1, true);
+INSERT INTO PET (id, pet_type, owner_id, in_zone)
+VALUES (1, 'CAT', 1, true);
 INSERT INTO CAT (id, tracker_type, lost_tracker)
-VALUES ((SELECT MAX(id) FROM PET),'SMALL', false);
+VALUES (1,'SMALL', false);
 
-INSERT INTO PET (pet_type, owner_id, in_zone)
-VALUES ('CAT', 11, false);
+INSERT INTO PET (id, pet_type, owner_id, in_zone)
+VALUES (2, 'CAT', 11, false);
 INSERT INTO CAT (id, tracker_type, lost_tracker)
-VALUES ((SELECT MAX(id) FROM PET),'SMALL', false);
+VALUES (2,'SMALL', false);
 
-INSERT INTO PET (pet_type, owner_id, in_zone)
-VALUES ('CAT', 111, true);
+INSERT INTO PET (id, pet_type, owner_id, in_zone)
+VALUES (3, 'CAT', 111, true);
 INSERT INTO CAT (id, tracker_type, lost_tracker)
-VALUES ((SELECT MAX(id) FROM PET),'BIG', false);
+VALUES (3,'BIG', false);
 
-INSERT INTO PET (pet_type, owner_id, in_zone)
-VALUES ('CAT', 1111, false);
+INSERT INTO PET (id, pet_type, owner_id, in_zone)
+VALUES (4, 'CAT', 1111, false);
 INSERT INTO CAT (id, tracker_type, lost_tracker)
-VALUES ((SELECT MAX(id) FROM PET),'BIG', true);
+VALUES (4,'BIG', true);
 
 --- Dogs
-INSERT INTO PET (pet_type, owner_id, in_zone)
-VALUES ('DOG', 2, true);
+INSERT INTO PET (id, pet_type, owner_id, in_zone)
+VALUES (5, 'DOG', 2, true);
 INSERT INTO DOG (id, tracker_type)
-VALUES ((SELECT MAX(id) FROM PET),'BIG');
+VALUES (5,'BIG');
 
-INSERT INTO PET (pet_type, owner_id, in_zone)
-VALUES ('DOG', 22, false);
+INSERT INTO PET (id, pet_type, owner_id, in_zone)
+VALUES (6, 'DOG', 22, false);
 INSERT INTO DOG (id, tracker_type)
-VALUES ((SELECT MAX(id) FROM PET),'BIG');
+VALUES (6,'BIG');
 
-INSERT INTO PET (pet_type, owner_id, in_zone)
-VALUES ('DOG', 222, true);
+INSERT INTO PET (id, pet_type, owner_id, in_zone)
+VALUES (7, 'DOG', 222, true);
 INSERT INTO DOG (id, tracker_type)
-VALUES ((SELECT MAX(id) FROM PET),'MEDIUM');
+VALUES (7,'MEDIUM');
 
-INSERT INTO PET (pet_type, owner_id, in_zone)
-VALUES ('DOG', 2222, false);
+INSERT INTO PET (id, pet_type, owner_id, in_zone)
+VALUES (8, 'DOG', 2222, false);
 INSERT INTO DOG (id, tracker_type)
-VALUES ((SELECT MAX(id) FROM PET),'MEDIUM');
+VALUES (8,'MEDIUM');
 
-INSERT INTO PET (pet_type, owner_id, in_zone)
-VALUES ('DOG', 5, true);
+INSERT INTO PET (id, pet_type, owner_id, in_zone)
+VALUES (9, 'DOG', 5, true);
 INSERT INTO DOG (id, tracker_type)
-VALUES ((SELECT MAX(id) FROM PET),'SMALL');
+VALUES (9,'SMALL');
 
-INSERT INTO PET (pet_type, owner_id, in_zone)
-VALUES ('DOG', 6, false);
+INSERT INTO PET (id, pet_type, owner_id, in_zone)
+VALUES (10, 'DOG', 6, false);
 INSERT INTO DOG (id, tracker_type)
-VALUES ((SELECT MAX(id) FROM PET),'SMALL');
\ No newline at end of file
+VALUES (10,'SMALL');
\ No newline at end of file